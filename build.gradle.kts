@@ -1,6 +1,8 @@
 plugins {
     id("java")
     id("org.springframework.boot") version "4.0.2"
+    id("org.springframework.boot.aot") version "4.0.2"
+    id("org.graalvm.buildtools.native") version "0.11.1"
     id("io.spring.dependency-management") version "1.1.7"
 }
 
@@ -26,6 +28,14 @@ repositories {
 
 extra["testcontainersVersion"] = "2.0.3"
 
+// HTTP load scenarios (./gradlew loadTest); kept out of the regular test run.
+val loadTest: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+configurations[loadTest.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[loadTest.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
 dependencies {
     // Spring Boot Starters
     implementation("org.springframework.boot:spring-boot-starter-actuator")
@@ -52,8 +62,11 @@ dependencies {
     annotationProcessor("org.springframework.boot:spring-boot-configuration-processor")
     annotationProcessor("org.projectlombok:lombok")
 
+    // PostgreSQL driver; compile scope for the COPY API used by the account importer
+    implementation("org.postgresql:postgresql")
+
     // Runtime
-    runtimeOnly("org.postgresql:postgresql")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 
     // Testing
     testImplementation("org.springframework.boot:spring-boot-testcontainers")
@@ -65,6 +78,10 @@ dependencies {
     testImplementation("org.testcontainers:testcontainers-postgresql")
 
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+
+    // Load tests
+    "loadTestImplementation"("org.testcontainers:testcontainers-postgresql")
+    "loadTestImplementation"("org.hdrhistogram:HdrHistogram:2.2.2")
 }
 
 dependencyManagement {
@@ -79,4 +96,84 @@ tasks.withType<Test> {
 
 tasks.withType<JavaCompile> {
     options.compilerArgs.addAll(listOf("-Xlint:deprecation", "-Xlint:unchecked"))
-}
\ No newline at end of file
+}
+
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Runs the HTTP load scenarios against the boot jar in its own process, backed by Testcontainers Postgres."
+    dependsOn(tasks.bootJar)
+    classpath = loadTest.runtimeClasspath
+    mainClass = "io.fortalis.fortalisauth.load.LoadTestMain"
+    javaLauncher = javaToolchains.launcherFor(java.toolchain)
+    args(tasks.bootJar.get().archiveFile.get().asFile.absolutePath)
+    systemProperties(project.properties.filterKeys { it.startsWith("load.") })
+}
+
+// Fast start (README "Fast start"): the aot plugin bakes Spring AOT bean definitions into the boot jar
+// (processed with the fast-start profile, whose settings change bean definitions); fastStartArchive
+// extracts the jar and records a CDS archive from a training run against a throwaway Postgres.
+val fastStartDir = layout.buildDirectory.dir("fast-start")
+val fastStartJar = fastStartDir.map { it.file(tasks.bootJar.get().archiveFileName.get()) }
+val fastStartCds = fastStartDir.map { it.file("fortalis-auth.jsa") }
+
+tasks.processAot {
+    args("--spring.profiles.active=fast-start")
+}
+
+tasks.register<JavaExec>("fastStartExtract") {
+    group = "build"
+    description = "Extracts the boot jar into build/fast-start (application jar plus lib/), the layout CDS needs."
+    dependsOn(tasks.bootJar)
+    classpath = files(tasks.bootJar.flatMap { it.archiveFile })
+    mainClass = "org.springframework.boot.loader.launch.JarLauncher"
+    javaLauncher = javaToolchains.launcherFor(java.toolchain)
+    jvmArgs("-Djarmode=tools")
+    args("extract", "--destination", fastStartDir.get().asFile.absolutePath, "--force")
+    outputs.dir(fastStartDir)
+}
+
+tasks.register<JavaExec>("fastStartArchive") {
+    group = "build"
+    description = "Training run of the extracted jar that writes the CDS archive build/fast-start/fortalis-auth.jsa."
+    dependsOn("fastStartExtract")
+    classpath = loadTest.runtimeClasspath
+    mainClass = "io.fortalis.fortalisauth.startup.FastStartTrainingMain"
+    javaLauncher = javaToolchains.launcherFor(java.toolchain)
+    args(fastStartJar.get().asFile.absolutePath, fastStartCds.get().asFile.absolutePath)
+    outputs.file(fastStartCds)
+}
+
+tasks.register<JavaExec>("startupBenchmark") {
+    group = "verification"
+    description = "Cold-start time and RSS of the plain JVM start vs. fast start, against Testcontainers Postgres."
+    dependsOn("fastStartArchive")
+    classpath = loadTest.runtimeClasspath
+    mainClass = "io.fortalis.fortalisauth.startup.StartupBenchmarkMain"
+    javaLauncher = javaToolchains.launcherFor(java.toolchain)
+    args(fastStartJar.get().asFile.absolutePath, fastStartCds.get().asFile.absolutePath)
+    systemProperties(project.properties.filterKeys { it.startsWith("startup.") })
+}
+
+// Native image (README "Native image"): ./gradlew nativeCompile with a GraalVM JDK as JAVA_HOME.
+// Uses the same AOT output as fast start, so the executable runs with the fast-start profile.
+graalvmNative {
+    binaries {
+        named("main") {
+            imageName = "fortalis-auth"
+            // On-demand recordings via /actuator/jfr, including the io.fortalis.auth.* events.
+            buildArgs.add("--enable-monitoring=jfr")
+        }
+    }
+}
+
+tasks.register<JavaExec>("nativeSmokeTest") {
+    group = "verification"
+    description = "Runs the native executable against Testcontainers Postgres and compares its startup and RSS with the JVM build."
+    dependsOn("nativeCompile", "fastStartExtract")
+    classpath = loadTest.runtimeClasspath
+    mainClass = "io.fortalis.fortalisauth.startup.NativeSmokeTestMain"
+    javaLauncher = javaToolchains.launcherFor(java.toolchain)
+    args(layout.buildDirectory.file("native/nativeCompile/fortalis-auth").get().asFile.absolutePath,
+        fastStartJar.get().asFile.absolutePath)
+    systemProperties(project.properties.filterKeys { it.startsWith("startup.") })
+}
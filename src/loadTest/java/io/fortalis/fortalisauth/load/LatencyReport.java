@@ -0,0 +1,51 @@
+package io.fortalis.fortalisauth.load;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+
+/**
+ * Per-endpoint latency histograms (microseconds) and status-code counts for one measured run.
+ */
+final class LatencyReport {
+    private record Endpoint(ConcurrentHistogram latencyMicros, Map<Integer, LongAdder> statuses) {
+        Endpoint() {
+            this(new ConcurrentHistogram(3), new ConcurrentSkipListMap<>());
+        }
+    }
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    void record(String endpoint, int status, long nanos) {
+        Endpoint e = endpoints.computeIfAbsent(endpoint, k -> new Endpoint());
+        e.latencyMicros().recordValue(Math.max(1, nanos / 1_000));
+        e.statuses().computeIfAbsent(status, k -> new LongAdder()).increment();
+    }
+
+    void reset() {
+        endpoints.clear();
+    }
+
+    void print(String scenario, double seconds, PrintStream out) {
+        out.printf("%n== %s (%.1f s) ==%n", scenario, seconds);
+        out.printf("%-22s %9s %9s %9s %9s %9s %9s  %s%n", "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "statuses");
+        new TreeMap<>(endpoints).forEach((name, e) -> {
+            var h = e.latencyMicros();
+            var statuses = new StringBuilder();
+            e.statuses().forEach((code, n) -> statuses.append(code).append(':').append(n.sum()).append(' '));
+            out.printf("%-22s %9d %9.1f %9.2f %9.2f %9.2f %9.2f  %s%n",
+                    name, h.getTotalCount(), h.getTotalCount() / seconds,
+                    ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(99)), ms(h.getValueAtPercentile(99.9)),
+                    ms(h.getMaxValue()), statuses.toString().trim());
+        });
+    }
+
+    private static double ms(long micros) {
+        return micros / 1_000.0;
+    }
+}
@@ -0,0 +1,134 @@
+package io.fortalis.fortalisauth.load;
+
+import io.fortalis.fortalisauth.rpc.RpcMessages;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Thin timed HTTP client: every call is recorded under an endpoint label. The first call after
+ * {@link #scheduledAt} is timed from that scheduled start, so time spent waiting behind a slow
+ * previous step counts as latency.
+ * Each virtual user passes its own X-Forwarded-For so per-IP limits behave like real traffic.
+ * Binary RPC calls go to the RPC port over one shared HTTP/2 connection, like a game server's.
+ */
+final class LoadClient {
+    private static final String BACKEND_KEY_HEADER = "X-Backend-Key";
+    private static final String BACKEND_KEY = "dev-backend-key";
+    private static final Pattern STRING_FIELD = Pattern.compile("\"(\\w+)\"\\s*:\\s*\"([^\"]*)\"");
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final HttpClient rpc = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+    private final String rpcBaseUrl;
+    private final LatencyReport report;
+    private final ThreadLocal<Long> scheduled = new ThreadLocal<>();
+
+    LoadClient(String baseUrl, String rpcBaseUrl, LatencyReport report) {
+        this.baseUrl = baseUrl;
+        this.rpcBaseUrl = rpcBaseUrl;
+        this.report = report;
+    }
+
+    HttpResponse<String> postJson(String label, String path, String ip, String json) throws IOException, InterruptedException {
+        return send(label, request(path, ip)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json)));
+    }
+
+    HttpResponse<String> postBearer(String label, String path, String accessToken) throws IOException, InterruptedException {
+        return send(label, request(path, randomIp())
+                .header("Authorization", "Bearer " + accessToken)
+                .POST(HttpRequest.BodyPublishers.noBody()));
+    }
+
+    HttpResponse<String> postBackendJson(String label, String path, String json) throws IOException, InterruptedException {
+        return send(label, request(path, randomIp())
+                .header(BACKEND_KEY_HEADER, BACKEND_KEY)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json)));
+    }
+
+    HttpResponse<String> get(String label, String path) throws IOException, InterruptedException {
+        return send(label, request(path, randomIp()).GET());
+    }
+
+    HttpResponse<byte[]> postRpc(String label, String path, byte[] body) throws IOException, InterruptedException {
+        var builder = HttpRequest.newBuilder(URI.create(rpcBaseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header(BACKEND_KEY_HEADER, BACKEND_KEY)
+                .header("Content-Type", RpcMessages.CONTENT_TYPE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        return send(rpc, label, builder, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    /**
+     * Times the calling thread's next request from {@code nanos} (System.nanoTime) instead of from its send.
+     */
+    void scheduledAt(long nanos) {
+        scheduled.set(nanos);
+    }
+
+    /**
+     * Opens the shared HTTP/2 connection with a bodiless request (the h2c upgrade), so that
+     * measured calls only ever run as streams on it.
+     */
+    void primeRpc() throws IOException, InterruptedException {
+        rpc.send(HttpRequest.newBuilder(URI.create(rpcBaseUrl + "/rpc/introspect")).GET().build(),
+                HttpResponse.BodyHandlers.discarding());
+    }
+
+    private HttpRequest.Builder request(String path, String ip) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("X-Forwarded-For", ip);
+    }
+
+    private HttpResponse<String> send(String label, HttpRequest.Builder builder) throws IOException, InterruptedException {
+        return send(http, label, builder, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private <T> HttpResponse<T> send(HttpClient client, String label, HttpRequest.Builder builder,
+                                     HttpResponse.BodyHandler<T> body) throws IOException, InterruptedException {
+        Long due = scheduled.get();
+        scheduled.remove();
+        long start = due != null ? Math.min(due, System.nanoTime()) : System.nanoTime();
+        int status = 0; // 0 = transport error
+        try {
+            HttpResponse<T> response = client.send(builder.build(), body);
+            status = response.statusCode();
+            return response;
+        } finally {
+            report.record(label, status, System.nanoTime() - start);
+        }
+    }
+
+    static String randomIp() {
+        var rnd = ThreadLocalRandom.current();
+        return "10." + rnd.nextInt(256) + '.' + rnd.nextInt(256) + '.' + rnd.nextInt(1, 255);
+    }
+
+    /**
+     * Top-level string field of a flat JSON response; enough for tokens and tickets.
+     */
+    static String field(String json, String name) {
+        Matcher m = STRING_FIELD.matcher(json);
+        while (m.find()) {
+            if (m.group(1).equals(name)) return m.group(2);
+        }
+        throw new IllegalStateException("Field '" + name + "' missing in: " + json);
+    }
+}
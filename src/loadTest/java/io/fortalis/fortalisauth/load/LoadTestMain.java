@@ -0,0 +1,104 @@
+package io.fortalis.fortalisauth.load;
+
+import io.fortalis.fortalisauth.startup.ServiceProcess;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
+
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Starts Postgres (Testcontainers) and the boot jar as a separate process, then runs each
+ * scenario: unmeasured setUp, warm-up, measured run, report.
+ * <p>
+ * Load is offered at a fixed rate: every user runs on its own schedule (rate / users steps per
+ * second) and latency is measured from the scheduled start of the step, not from when the user got
+ * round to sending it. A slow response therefore shows up in the latencies of the steps it held back
+ * instead of silently lowering the request rate (coordinated omission).
+ * <p>
+ * Arguments: the boot jar.
+ * System properties (Gradle: -Pload.x=...):
+ * load.scenarios (default all: register,login,login-mfa,refresh,jwks,stuffing,introspect-json,introspect-rpc),
+ * load.users (virtual users, default 32), load.rate (steps per second over all users, default 500),
+ * load.warmup (default PT10S), load.duration (default PT30S).
+ */
+public final class LoadTestMain {
+    private static final Duration START_TIMEOUT = Duration.ofMinutes(2);
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path jar = Path.of(args[0]);
+        var scenarios = Scenarios.all();
+        List<String> selected = Arrays.asList(System.getProperty("load.scenarios", String.join(",", scenarios.keySet())).split(","));
+        int users = Integer.getInteger("load.users", 32);
+        double rate = Double.parseDouble(System.getProperty("load.rate", "500"));
+        Duration warmup = Duration.parse(System.getProperty("load.warmup", "PT10S"));
+        Duration duration = Duration.parse(System.getProperty("load.duration", "PT30S"));
+
+        try (var postgres = new PostgreSQLContainer(DockerImageName.parse("postgres:17-alpine"))
+                .withDatabaseName("fortalis_auth")
+                .withUsername("fortalis")
+                .withPassword("fortalis")) {
+            postgres.start();
+            Path keys = Files.createTempDirectory("fortalis-load-keys");
+            try (var service = ServiceProcess.start(List.of(ServiceProcess.java(), "-jar", jar.toString()), postgres, keys)) {
+                service.awaitServing(START_TIMEOUT);
+                var report = new LatencyReport();
+                var client = new LoadClient(service.baseUrl(), service.rpcBaseUrl(), report);
+                System.out.printf("Fortalis load test: %d users, %.0f steps/s offered, warm-up %s, measured %s, against %s%n",
+                        users, rate, warmup, duration, service.baseUrl());
+                for (String name : selected) {
+                    Scenario scenario = scenarios.get(name.trim());
+                    if (scenario == null) throw new IllegalArgumentException("Unknown scenario: " + name);
+                    scenario.setUp(client, users);
+                    run(scenario, client, users, rate, warmup);
+                    report.reset();
+                    long start = System.nanoTime();
+                    run(scenario, client, users, rate, duration);
+                    report.print(scenario.name(), (System.nanoTime() - start) / 1e9, System.out);
+                    report.reset();
+                }
+            }
+        }
+    }
+
+    /**
+     * Each user starts its steps at a fixed interval, staggered so the users together offer the
+     * given rate. A user that falls behind sends the next step at once, still timed from its slot.
+     */
+    private static void run(Scenario scenario, LoadClient client, int users, double rate, Duration length) throws Exception {
+        long interval = Math.max(1, (long) (users * 1e9 / rate));
+        long start = System.nanoTime();
+        long deadline = start + length.toNanos();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var futures = new ArrayList<Future<?>>(users);
+            for (int u = 0; u < users; u++) {
+                int user = u;
+                futures.add(executor.submit(() -> {
+                    for (long scheduled = start + interval * user / users; scheduled < deadline; scheduled += interval) {
+                        for (long wait; (wait = scheduled - System.nanoTime()) > 0; ) LockSupport.parkNanos(wait);
+                        client.scheduledAt(scheduled);
+                        try {
+                            scenario.step(client, user);
+                        } catch (IOException | RuntimeException e) {
+                            // Already counted as status 0 / the failing status; keep the user going.
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (var f : futures) f.get();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package io.fortalis.fortalisauth.load;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One scripted workload. setUp runs once before warm-up and is not measured;
+ * step is called in a loop by every virtual user until the run ends.
+ */
+interface Scenario {
+    String PASSWORD = "Str0ngPass!";
+
+    String name();
+
+    default void setUp(LoadClient client, int users) throws Exception {
+    }
+
+    void step(LoadClient client, int user) throws Exception;
+
+    static String newEmail() {
+        return "load+" + UUID.randomUUID() + "@load.local";
+    }
+
+    static String registerJson(String email) {
+        return "{\"email\":\"%s\",\"password\":\"%s\",\"displayName\":\"Load\"}".formatted(email, PASSWORD);
+    }
+
+    static String loginJson(String email, String password) {
+        return "{\"emailOrUsername\":\"%s\",\"password\":\"%s\"}".formatted(email, password);
+    }
+
+    static ThreadLocalRandom rnd() {
+        return ThreadLocalRandom.current();
+    }
+}
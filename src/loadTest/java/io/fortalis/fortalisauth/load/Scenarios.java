@@ -0,0 +1,236 @@
+package io.fortalis.fortalisauth.load;
+
+import io.fortalis.fortalisauth.rpc.ProtoWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static io.fortalis.fortalisauth.load.Scenario.*;
+
+/**
+ * The release-gate workloads. Account pools are created through the public API in setUp.
+ */
+final class Scenarios {
+    private static final int INTROSPECT_POOL = 500;
+    private static final int INTROSPECT_BATCH = 100;
+
+    private Scenarios() {
+    }
+
+    static Map<String, Scenario> all() {
+        var list = List.of(new RegisterStorm(), new Login(), new LoginMfa(), new RefreshChurn(), new JwksPolling(), new CredentialStuffing(),
+                new IntrospectJson(), new IntrospectRpc());
+        var out = new LinkedHashMap<String, Scenario>();
+        list.forEach(s -> out.put(s.name(), s));
+        return out;
+    }
+
+    static final class RegisterStorm implements Scenario {
+        public String name() {
+            return "register";
+        }
+
+        public void step(LoadClient c, int user) throws Exception {
+            c.postJson("register", "/auth/register", LoadClient.randomIp(), registerJson(newEmail()));
+        }
+    }
+
+    static final class Login implements Scenario {
+        private List<String> emails;
+
+        public String name() {
+            return "login";
+        }
+
+        public void setUp(LoadClient c, int users) throws Exception {
+            emails = registerPool(c, users * 4);
+        }
+
+        public void step(LoadClient c, int user) throws Exception {
+            String email = emails.get(rnd().nextInt(emails.size()));
+            c.postJson("login", "/auth/login", LoadClient.randomIp(), loginJson(email, PASSWORD));
+        }
+    }
+
+    static final class LoginMfa implements Scenario {
+        private record MfaAccount(String email, String secret) {
+        }
+
+        private List<MfaAccount> accounts;
+
+        public String name() {
+            return "login-mfa";
+        }
+
+        public void setUp(LoadClient c, int users) throws Exception {
+            accounts = parallel(users * 2, i -> {
+                String email = newEmail();
+                var reg = c.postJson("setup", "/auth/register", LoadClient.randomIp(), registerJson(email));
+                String access = LoadClient.field(reg.body(), "accessToken");
+                var setup = c.postBearer("setup", "/auth/mfa/totp/setup", access);
+                String secret = LoadClient.field(setup.body(), "secretBase32");
+                c.postBearer("setup", "/auth/mfa/totp/enable?code=" + Totp.now(secret), access);
+                return new MfaAccount(email, secret);
+            });
+        }
+
+        public void step(LoadClient c, int user) throws Exception {
+            var account = accounts.get(rnd().nextInt(accounts.size()));
+            String ip = LoadClient.randomIp();
+            var start = c.postJson("login/start", "/auth/login/start", ip, loginJson(account.email(), PASSWORD));
+            if (start.statusCode() != 200) return;
+            String ticket = LoadClient.field(start.body(), "loginTicket");
+            c.postJson("login/complete", "/auth/login/complete", ip,
+                    "{\"loginTicket\":\"%s\",\"factor\":\"TOTP\",\"code\":\"%s\"}".formatted(ticket, Totp.now(account.secret())));
+        }
+    }
+
+    static final class RefreshChurn implements Scenario {
+        private AtomicReferenceArray<String> refreshTokens;
+
+        public String name() {
+            return "refresh";
+        }
+
+        public void setUp(LoadClient c, int users) throws Exception {
+            refreshTokens = new AtomicReferenceArray<>(parallel(users, i -> newSession(c)).toArray(String[]::new));
+        }
+
+        public void step(LoadClient c, int user) throws Exception {
+            var res = c.postJson("refresh", "/auth/refresh", LoadClient.randomIp(),
+                    "{\"refreshToken\":\"%s\"}".formatted(refreshTokens.get(user)));
+            refreshTokens.set(user, res.statusCode() == 200 ? LoadClient.field(res.body(), "refreshToken") : newSession(c));
+        }
+
+        private static String newSession(LoadClient c) throws Exception {
+            var reg = c.postJson("setup", "/auth/register", LoadClient.randomIp(), registerJson(newEmail()));
+            return LoadClient.field(reg.body(), "refreshToken");
+        }
+    }
+
+    static final class JwksPolling implements Scenario {
+        public String name() {
+            return "jwks";
+        }
+
+        public void step(LoadClient c, int user) throws Exception {
+            c.get("jwks", "/.well-known/jwks.json");
+        }
+    }
+
+    /**
+     * 70% wrong passwords against known accounts and 10% unknown emails, both from a
+     * handful of attacker IPs, mixed with 20% legitimate logins from random IPs.
+     */
+    static final class CredentialStuffing implements Scenario {
+        private static final int ATTACKER_IPS = 16;
+        private List<String> emails;
+
+        public String name() {
+            return "stuffing";
+        }
+
+        public void setUp(LoadClient c, int users) throws Exception {
+            emails = registerPool(c, users * 4);
+        }
+
+        public void step(LoadClient c, int user) throws Exception {
+            int roll = rnd().nextInt(100);
+            String attackerIp = "192.0.2." + (1 + rnd().nextInt(ATTACKER_IPS));
+            String known = emails.get(rnd().nextInt(emails.size()));
+            if (roll < 70) {
+                c.postJson("login (bad password)", "/auth/login", attackerIp, loginJson(known, "wrong-" + rnd().nextInt()));
+            } else if (roll < 80) {
+                c.postJson("login (unknown user)", "/auth/login", attackerIp, loginJson(newEmail(), PASSWORD));
+            } else {
+                c.postJson("login (legit)", "/auth/login", LoadClient.randomIp(), loginJson(known, PASSWORD));
+            }
+        }
+    }
+
+    /**
+     * Region backends checking 100 player tokens per call over JSON; compare with {@link IntrospectRpc}.
+     */
+    static final class IntrospectJson implements Scenario {
+        private List<String> tokens;
+
+        public String name() {
+            return "introspect-json";
+        }
+
+        public void setUp(LoadClient c, int users) throws Exception {
+            tokens = tokenPool(c, INTROSPECT_POOL);
+        }
+
+        public void step(LoadClient c, int user) throws Exception {
+            var json = new StringBuilder("{\"tokens\":[");
+            for (int i = 0; i < INTROSPECT_BATCH; i++) {
+                if (i > 0) json.append(',');
+                json.append('"').append(tokens.get(rnd().nextInt(tokens.size()))).append('"');
+            }
+            c.postBackendJson("introspect/batch", "/auth/introspect/batch", json.append("]}").toString());
+        }
+    }
+
+    /**
+     * The same batches as {@link IntrospectJson} through the binary API, as streams on one HTTP/2 connection.
+     */
+    static final class IntrospectRpc implements Scenario {
+        private List<String> tokens;
+
+        public String name() {
+            return "introspect-rpc";
+        }
+
+        public void setUp(LoadClient c, int users) throws Exception {
+            tokens = tokenPool(c, INTROSPECT_POOL);
+            c.primeRpc();
+        }
+
+        public void step(LoadClient c, int user) throws Exception {
+            var request = new ProtoWriter();
+            for (int i = 0; i < INTROSPECT_BATCH; i++) request.string(1, tokens.get(rnd().nextInt(tokens.size())));
+            var body = new ByteArrayOutputStream(request.size() + 5);
+            request.writeDelimitedTo(body);
+            c.postRpc("rpc/introspect", "/rpc/introspect", body.toByteArray());
+        }
+    }
+
+    private static List<String> tokenPool(LoadClient c, int size) throws Exception {
+        return parallel(size, i -> {
+            var reg = c.postJson("setup", "/auth/register", LoadClient.randomIp(), registerJson(newEmail()));
+            return LoadClient.field(reg.body(), "accessToken");
+        });
+    }
+
+    private static List<String> registerPool(LoadClient c, int size) throws Exception {
+        return parallel(size, i -> {
+            String email = newEmail();
+            c.postJson("setup", "/auth/register", LoadClient.randomIp(), registerJson(email));
+            return email;
+        });
+    }
+
+    private interface Task<T> {
+        T run(int index) throws Exception;
+    }
+
+    private static <T> List<T> parallel(int count, Task<T> task) throws Exception {
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var futures = new ArrayList<Future<T>>(count);
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> task.run(index)));
+            }
+            var out = new ArrayList<T>(count);
+            for (var f : futures) out.add(f.get());
+            return out;
+        }
+    }
+}
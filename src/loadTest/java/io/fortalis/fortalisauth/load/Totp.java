@@ -0,0 +1,48 @@
+package io.fortalis.fortalisauth.load;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * RFC 6238 code generator for the MFA scenarios (SHA-1, 30 s, 6 digits).
+ */
+final class Totp {
+    private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ234567";
+
+    private Totp() {
+    }
+
+    static String now(String base32Secret) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA1");
+            mac.init(new SecretKeySpec(base32(base32Secret), "HmacSHA1"));
+            byte[] h = mac.doFinal(ByteBuffer.allocate(8).putLong(System.currentTimeMillis() / 30_000).array());
+            int offset = h[h.length - 1] & 0x0F;
+            int bin = ((h[offset] & 0x7F) << 24) | ((h[offset + 1] & 0xFF) << 16)
+                    | ((h[offset + 2] & 0xFF) << 8) | (h[offset + 3] & 0xFF);
+            return "%06d".formatted(bin % 1_000_000);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] base32(String s) {
+        var out = new ByteArrayOutputStream();
+        int buffer = 0;
+        int bits = 0;
+        for (char c : s.toUpperCase().toCharArray()) {
+            int v = ALPHABET.indexOf(c);
+            if (v < 0) continue;
+            buffer = (buffer << 5) | v;
+            bits += 5;
+            if (bits >= 8) {
+                out.write((buffer >> (bits - 8)) & 0xFF);
+                bits -= 8;
+            }
+        }
+        return out.toByteArray();
+    }
+}
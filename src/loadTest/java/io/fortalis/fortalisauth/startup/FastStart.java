@@ -0,0 +1,62 @@
+package io.fortalis.fortalisauth.startup;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Command lines of the fast-start mode, shared by the training run and the benchmark.
+ */
+final class FastStart {
+    static final String PROFILE = "fast-start";
+
+    private FastStart() {
+    }
+
+    /**
+     * Plain JVM start of the extracted jar: no CDS archive, no AOT bean definitions, default profile.
+     */
+    static List<String> plain(Path jar) {
+        return List.of(ServiceProcess.java(), "-jar", jar.toString());
+    }
+
+    /**
+     * Start with the CDS archive, the AOT-generated bean definitions and the fast-start profile.
+     */
+    static List<String> fast(Path jar, Path archive) {
+        return List.of(ServiceProcess.java(),
+                "-XX:SharedArchiveFile=" + archive,
+                "-Xshare:auto",
+                "-Dspring.aot.enabled=true",
+                "-jar", jar.toString(),
+                "--spring.profiles.active=" + PROFILE);
+    }
+
+    /**
+     * The native executable; its AOT bean definitions were generated with the fast-start profile.
+     */
+    static List<String> nativeImage(Path binary) {
+        return List.of(binary.toString(), "--spring.profiles.active=" + PROFILE);
+    }
+
+    /**
+     * Training run: exits right after the context has refreshed and dumps every class it loaded.
+     */
+    static List<String> training(Path jar, Path archive) {
+        return List.of(ServiceProcess.java(),
+                "-XX:ArchiveClassesAtExit=" + archive,
+                "-Dspring.aot.enabled=true",
+                "-Dspring.context.exit=onRefresh",
+                "-jar", jar.toString(),
+                "--spring.profiles.active=" + PROFILE);
+    }
+
+    static PostgreSQLContainer postgres() {
+        return new PostgreSQLContainer(DockerImageName.parse("postgres:17-alpine"))
+                .withDatabaseName("fortalis_auth")
+                .withUsername("fortalis")
+                .withPassword("fortalis");
+    }
+}
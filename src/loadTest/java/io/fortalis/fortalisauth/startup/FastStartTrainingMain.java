@@ -0,0 +1,38 @@
+package io.fortalis.fortalisauth.startup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Records the CDS archive for fast start: runs the extracted jar once against a throwaway
+ * Postgres (Testcontainers, needs Docker) with -XX:ArchiveClassesAtExit and
+ * spring.context.exit=onRefresh, so Flyway, Hibernate, security and the web layer all load
+ * their classes and then the JVM exits and writes the archive.
+ * <p>
+ * Arguments: the extracted application jar and the archive to write.
+ */
+public final class FastStartTrainingMain {
+    private FastStartTrainingMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path jar = Path.of(args[0]);
+        Path archive = Path.of(args[1]);
+        Files.deleteIfExists(archive);
+
+        try (var postgres = FastStart.postgres()) {
+            postgres.start();
+            Path keys = Files.createTempDirectory("fortalis-training-keys");
+            long start = System.nanoTime();
+            try (var training = ServiceProcess.start(FastStart.training(jar, archive), postgres, keys)) {
+                int exit = training.awaitExit(Duration.ofMinutes(5));
+                if (exit != 0 || !Files.exists(archive)) {
+                    throw new IllegalStateException("Training run failed (exit " + exit + "):\n" + training.logTail());
+                }
+            }
+            System.out.printf("CDS archive %s (%d MB) written in %.1f s%n", archive,
+                    Files.size(archive) >> 20, (System.nanoTime() - start) / 1e9);
+        }
+    }
+}
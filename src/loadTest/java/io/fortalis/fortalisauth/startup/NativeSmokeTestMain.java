@@ -0,0 +1,91 @@
+package io.fortalis.fortalisauth.startup;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Smoke test of the native executable against Testcontainers Postgres: it must migrate the
+ * schema, serve JWKS, register, authenticate a bearer token and rotate a refresh token.
+ * Then both builds are cold-started a few times and compared on time to first request and RSS.
+ * <p>
+ * Arguments: the native executable and the extracted application jar.
+ * System properties (Gradle: -Pstartup.x=...): startup.runs (per build, default 3).
+ */
+public final class NativeSmokeTestMain {
+    private static final Pattern STRING_FIELD = Pattern.compile("\"(\\w+)\"\\s*:\\s*\"([^\"]*)\"");
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private NativeSmokeTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path binary = Path.of(args[0]);
+        Path jar = Path.of(args[1]);
+        int runs = Integer.getInteger("startup.runs", 3);
+
+        try (var postgres = FastStart.postgres()) {
+            postgres.start();
+            Path keys = Files.createTempDirectory("fortalis-native-keys");
+            try (var service = ServiceProcess.start(FastStart.nativeImage(binary), postgres, keys)) {
+                Duration serving = service.awaitServing(StartupRuns.TIMEOUT);
+                exercise(service.baseUrl());
+                System.out.printf("Native smoke test passed (first request after %d ms)%n", serving.toMillis());
+            }
+
+            System.out.print("Native vs JVM: ");
+            StartupRuns.printHeader(runs);
+            var nativeRuns = StartupRuns.repeat("native", FastStart.nativeImage(binary), runs, postgres, keys);
+            var jvmRuns = StartupRuns.repeat("jvm", FastStart.plain(jar), runs, postgres, keys);
+            StartupRuns.print(nativeRuns);
+            StartupRuns.print(jvmRuns);
+            System.out.printf("native starts %.1fx faster%n",
+                    (double) jvmRuns.median().serving().toNanos() / nativeRuns.median().serving().toNanos());
+        }
+    }
+
+    private static void exercise(String baseUrl) throws Exception {
+        String email = "native+" + UUID.randomUUID() + "@smoke.local";
+        var registered = send(baseUrl, "POST", "/auth/register", null,
+                "{ \"email\":\"%s\", \"password\":\"Str0ngPass!\", \"displayName\":\"Native\" }".formatted(email));
+        String access = field(registered, "accessToken");
+        String refresh = field(registered, "refreshToken");
+
+        send(baseUrl, "GET", "/auth/sessions", access, null);
+        var rotated = send(baseUrl, "POST", "/auth/refresh", null, "{ \"refreshToken\":\"%s\" }".formatted(refresh));
+        if (field(rotated, "refreshToken").equals(refresh)) throw new IllegalStateException("Refresh token was not rotated");
+    }
+
+    private static String send(String baseUrl, String method, String path, String bearer, String json) throws Exception {
+        var request = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+        if (bearer != null) request.header("Authorization", "Bearer " + bearer);
+        if (json != null) {
+            request.header("Content-Type", "application/json").method(method, HttpRequest.BodyPublishers.ofString(json));
+        } else {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+        HttpResponse<String> response = HTTP.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(method + " " + path + " -> " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private static String field(String json, String name) {
+        Matcher m = STRING_FIELD.matcher(json);
+        while (m.find()) {
+            if (m.group(1).equals(name)) return m.group(2);
+        }
+        throw new IllegalStateException("No " + name + " in " + json);
+    }
+}
@@ -0,0 +1,173 @@
+package io.fortalis.fortalisauth.startup;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+/**
+ * The service started as a child process against a Testcontainers Postgres.
+ * "Serving traffic" means the first 200 from the JWKS endpoint, which needs the web server,
+ * security chain and signing keys; readiness probes in the cluster hit the same path.
+ * The load test uses it too, so the load generator's GC and CPU stay out of the service's numbers.
+ */
+public final class ServiceProcess implements AutoCloseable {
+    static final String READY_PATH = "/.well-known/jwks.json";
+
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(200))
+            .build();
+
+    private final Process process;
+    private final Path log;
+    private final int port;
+    private final int rpcPort;
+    private final long startedNanos;
+
+    private ServiceProcess(Process process, Path log, int port, int rpcPort, long startedNanos) {
+        this.process = process;
+        this.log = log;
+        this.port = port;
+        this.rpcPort = rpcPort;
+        this.startedNanos = startedNanos;
+    }
+
+    /**
+     * The java binary this JVM runs on (the Gradle toolchain's), for child JVMs.
+     */
+    public static String java() {
+        return ProcessHandle.current().info().command().orElse("java");
+    }
+
+    /**
+     * Ports, datasource, key files and logging for one child; keys are shared so only the first start generates them.
+     */
+    static List<String> serviceArgs(PostgreSQLContainer postgres, Path keys, int port, int rpcPort) {
+        return List.of(
+                "--server.port=" + port,
+                "--auth.rpc.port=" + rpcPort,
+                "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword(),
+                "--auth.jwt.key-file-private=" + keys.resolve("private.pem"),
+                "--auth.jwt.key-file-public=" + keys.resolve("public.pem"),
+                "--logging.level.root=WARN",
+                "--logging.level.io.fortalis.fortalisauth=WARN",
+                "--logging.level.org.springframework.security=WARN",
+                "--logging.level.org.hibernate.SQL=WARN");
+    }
+
+    public static ServiceProcess start(List<String> command, PostgreSQLContainer postgres, Path keys) throws IOException {
+        int port = freePort();
+        int rpcPort = freePort();
+        var cmd = new ArrayList<>(command);
+        cmd.addAll(serviceArgs(postgres, keys, port, rpcPort));
+        Path log = Files.createTempFile("fortalis-startup-", ".log");
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(cmd)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        return new ServiceProcess(process, log, port, rpcPort, started);
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + port;
+    }
+
+    public String rpcBaseUrl() {
+        return "http://localhost:" + rpcPort;
+    }
+
+    /**
+     * Polls until the service answers; returns the time from process start to the first 200.
+     */
+    public Duration awaitServing(Duration timeout) throws IOException, InterruptedException {
+        var request = HttpRequest.newBuilder(URI.create(baseUrl() + READY_PATH))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+        long deadline = startedNanos + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Service exited with " + process.exitValue() + ":\n" + logTail());
+            }
+            try {
+                if (HTTP.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return Duration.ofNanos(System.nanoTime() - startedNanos);
+                }
+            } catch (ConnectException e) {
+                // Not listening yet.
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("Service did not serve " + READY_PATH + " within " + timeout + ":\n" + logTail());
+    }
+
+    /**
+     * Resident set size in bytes (Linux /proc), or -1 where that is not available.
+     */
+    long residentBytes() {
+        Path status = Path.of("/proc", Long.toString(process.pid()), "status");
+        try {
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not Linux, or the process is gone.
+        }
+        return -1;
+    }
+
+    /**
+     * Waits for a process that exits by itself (a training run).
+     */
+    int awaitExit(Duration timeout) throws InterruptedException {
+        if (!process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            process.destroyForcibly();
+            throw new IllegalStateException("Process did not exit within " + timeout + ":\n" + logTail());
+        }
+        return process.exitValue();
+    }
+
+    String logTail() {
+        try {
+            List<String> lines = Files.readAllLines(log);
+            return String.join("\n", lines.subList(Math.max(0, lines.size() - 40), lines.size()));
+        } catch (IOException e) {
+            return "(no log: " + e.getMessage() + ")";
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(10, TimeUnit.SECONDS)) process.destroyForcibly().waitFor();
+        try {
+            Files.deleteIfExists(log);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
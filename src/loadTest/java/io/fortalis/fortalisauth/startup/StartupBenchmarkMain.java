@@ -0,0 +1,46 @@
+package io.fortalis.fortalisauth.startup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Cold-start benchmark: starts the service as a fresh process several times per mode against
+ * one Testcontainers Postgres and reports the time until it served its first request and its
+ * resident memory at that point. An unmeasured start runs first (key generation, page cache).
+ * <p>
+ * Arguments: the extracted application jar and the CDS archive.
+ * System properties (Gradle: -Pstartup.x=...): startup.runs (per mode, default 5),
+ * startup.budget (e.g. PT2S; fail when the fast-start median is slower).
+ */
+public final class StartupBenchmarkMain {
+    private StartupBenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path jar = Path.of(args[0]);
+        Path archive = Path.of(args[1]);
+        int runs = Integer.getInteger("startup.runs", 5);
+        String budget = System.getProperty("startup.budget", "");
+
+        try (var postgres = FastStart.postgres()) {
+            postgres.start();
+            Path keys = Files.createTempDirectory("fortalis-startup-keys");
+            StartupRuns.once(FastStart.plain(jar), postgres, keys);
+
+            System.out.print("Fortalis startup benchmark: ");
+            StartupRuns.printHeader(runs);
+            StartupRuns.print(StartupRuns.repeat("jvm", FastStart.plain(jar), runs, postgres, keys));
+            var fast = StartupRuns.repeat(FastStart.PROFILE, FastStart.fast(jar, archive), runs, postgres, keys);
+            StartupRuns.print(fast);
+
+            if (!budget.isBlank()) {
+                Duration limit = Duration.parse(budget);
+                if (fast.median().serving().compareTo(limit) > 0) {
+                    throw new IllegalStateException("Fast start took " + fast.median().serving().toMillis()
+                            + " ms, budget " + limit.toMillis() + " ms");
+                }
+            }
+        }
+    }
+}
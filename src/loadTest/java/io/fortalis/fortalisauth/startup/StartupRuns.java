@@ -0,0 +1,50 @@
+package io.fortalis.fortalisauth.startup;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+/**
+ * Repeated cold starts of one command line, summarised as one report row.
+ */
+final class StartupRuns {
+    static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    record Sample(Duration serving, long residentBytes) {
+    }
+
+    record Summary(String mode, Sample median, Duration min, Duration max) {
+    }
+
+    private StartupRuns() {
+    }
+
+    static Sample once(List<String> command, PostgreSQLContainer postgres, Path keys) throws Exception {
+        try (var service = ServiceProcess.start(command, postgres, keys)) {
+            Duration serving = service.awaitServing(TIMEOUT);
+            return new Sample(serving, service.residentBytes());
+        }
+    }
+
+    static Summary repeat(String mode, List<String> command, int runs, PostgreSQLContainer postgres, Path keys) throws Exception {
+        var samples = new ArrayList<Sample>(runs);
+        for (int i = 0; i < runs; i++) samples.add(once(command, postgres, keys));
+        samples.sort(Comparator.comparing(Sample::serving));
+        return new Summary(mode, samples.get(samples.size() / 2), samples.getFirst().serving(), samples.getLast().serving());
+    }
+
+    static void printHeader(int runs) {
+        System.out.printf("%d cold starts per mode, time to first %s%n", runs, ServiceProcess.READY_PATH);
+        System.out.printf("%-12s %10s %10s %10s %10s%n", "mode", "p50 ms", "min ms", "max ms", "RSS MB");
+    }
+
+    static void print(Summary s) {
+        long rss = s.median().residentBytes();
+        System.out.printf("%-12s %10d %10d %10d %10s%n", s.mode(), s.median().serving().toMillis(),
+                s.min().toMillis(), s.max().toMillis(), rss < 0 ? "n/a" : Long.toString(rss >> 20));
+    }
+}
@@ -1,8 +1,11 @@
 package io.fortalis.fortalisauth;
 
+import io.fortalis.fortalisauth.config.NativeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Entry point for Fortalis Auth service.
@@ -10,6 +13,8 @@ import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
  */
 @SpringBootApplication
 @ConfigurationPropertiesScan
+@EnableScheduling
+@ImportRuntimeHints(NativeHints.class)
 public class FortalisAuthApplication {
 
     public static void main(String[] args) {
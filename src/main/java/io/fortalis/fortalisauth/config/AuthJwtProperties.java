@@ -13,6 +13,8 @@ import org.springframework.validation.annotation.Validated;
  * accessTtl:  Access token lifetime (short).
  * refreshTtl: Refresh token lifetime (longer).
  * keyStore:   Where to load keys from: files|db|env (files for dev).
+ * decoderCacheMaxEntries: Bound of the verified-token cache in front of the JwtDecoder (0 disables).
+ * maxSessionsPerAccount: Live refresh sessions kept per account; a new login evicts the oldest (0 disables).
  */
 @Setter
 @Getter
@@ -25,5 +27,7 @@ public class AuthJwtProperties {
     private String keyStore = "files";
     private String keyFilePrivate;
     private String keyFilePublic;
+    private int decoderCacheMaxEntries = 10_000;
+    private int maxSessionsPerAccount = 10;
 
 }
@@ -0,0 +1,94 @@
+package io.fortalis.fortalisauth.config;
+
+import io.fortalis.fortalisauth.jfr.AuthPhaseEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Latency timers for the login pipeline, exported with percentile histograms.
+ * auth.phase{phase, outcome}: one step (password_verify, jwt_sign, mfa_decrypt, ...).
+ * auth.login{endpoint, outcome}: a whole login request.
+ * Timers are created once per tag combination and cached, so recording is a map lookup plus the clock.
+ * Phases with a JFR event ({@link AuthPhaseEvent#forPhase}) also emit it while a recording is running.
+ */
+@Component
+public class AuthMetrics {
+    public static final String PHASE = "auth.phase";
+    public static final String LOGIN = "auth.login";
+
+    public static final String SUCCESS = "success";
+    public static final String REJECTED = "rejected";
+    public static final String ERROR = "error";
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public AuthMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Metrics that go nowhere; for code constructed outside Spring (tests, tools).
+     */
+    public static AuthMetrics noop() {
+        return new AuthMetrics(new CompositeMeterRegistry());
+    }
+
+    public <T> T phase(String phase, Supplier<T> body) {
+        return phase(phase, body, r -> true);
+    }
+
+    /**
+     * Times one phase; outcome is success/rejected by the predicate, or error if it throws.
+     */
+    public <T> T phase(String phase, Supplier<T> body, Predicate<? super T> succeeded) {
+        AuthPhaseEvent event = AuthPhaseEvent.forPhase(phase);
+        if (event != null) event.begin();
+        long start = System.nanoTime();
+        String outcome = ERROR;
+        try {
+            T result = body.get();
+            outcome = succeeded.test(result) ? SUCCESS : REJECTED;
+            return result;
+        } finally {
+            record(PHASE, "phase", phase, outcome, System.nanoTime() - start);
+            if (event != null) event.finish(outcome);
+        }
+    }
+
+    public void phase(String phase, Runnable body) {
+        phase(phase, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    public void recordPhase(String phase, String outcome, long nanos) {
+        record(PHASE, "phase", phase, outcome, nanos);
+    }
+
+    public void recordLogin(String endpoint, String outcome, long nanos) {
+        record(LOGIN, "endpoint", endpoint, outcome, nanos);
+    }
+
+    private void record(String name, String key, String value, String outcome, long nanos) {
+        timers.computeIfAbsent(name + '|' + value + '|' + outcome, k -> Timer.builder(name)
+                        .tag(key, value)
+                        .tag("outcome", outcome)
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(Duration.ofNanos(100_000))
+                        .maximumExpectedValue(Duration.ofSeconds(10))
+                        .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
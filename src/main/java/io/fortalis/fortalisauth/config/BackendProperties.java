@@ -0,0 +1,25 @@
+package io.fortalis.fortalisauth.config;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Binding for auth.backend.*: shared keys region/game backends present in the
+ * X-Backend-Key header for service-to-service endpoints (introspection, ...), and the
+ * operator keys presented in X-Admin-Key for actions that affect every account (the global epoch).
+ */
+@ConfigurationProperties(prefix = "auth.backend")
+public record BackendProperties(
+        List<String> apiKeys,
+        List<String> adminKeys
+) {
+    public BackendProperties {
+        apiKeys = nonBlank(apiKeys);
+        adminKeys = nonBlank(adminKeys);
+    }
+
+    private static List<String> nonBlank(List<String> keys) {
+        return keys == null ? List.of() : keys.stream().filter(k -> k != null && !k.isBlank()).toList();
+    }
+}
@@ -0,0 +1,32 @@
+package io.fortalis.fortalisauth.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Binding for auth.export.*: periodic analytics dumps (gzipped JSONL) of accounts, identities and
+ * active sessions. Disabled while directory is empty; the cron schedule itself is read from
+ * auth.export.cron by the scheduler ("-" = manual only).
+ * pageSize bounds each read transaction (keyset page), fetchSize the rows the driver buffers,
+ * pagePause the idle time between pages so the export never competes with logins for long.
+ */
+@ConfigurationProperties(prefix = "auth.export")
+public record ExportProperties(
+        String directory,
+        String cron,
+        Integer pageSize,
+        Integer fetchSize,
+        Duration pagePause
+) {
+    public ExportProperties {
+        if (cron == null || cron.isBlank()) cron = "-";
+        if (pageSize == null || pageSize <= 0) pageSize = 10_000;
+        if (fetchSize == null || fetchSize <= 0) fetchSize = 1_000;
+        if (pagePause == null || pagePause.isNegative()) pagePause = Duration.ofMillis(50);
+    }
+
+    public boolean enabled() {
+        return directory != null && !directory.isBlank();
+    }
+}
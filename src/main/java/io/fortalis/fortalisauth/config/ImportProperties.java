@@ -0,0 +1,22 @@
+package io.fortalis.fortalisauth.config;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Binding for auth.import.*: legacy account dumps (.jsonl / .csv, optionally .gz) imported at startup.
+ * Each file is one partition with its own checkpoint; up to {@code parallelism} files load concurrently.
+ */
+@ConfigurationProperties(prefix = "auth.import")
+public record ImportProperties(
+        List<String> files,
+        Integer batchSize,
+        Integer parallelism
+) {
+    public ImportProperties {
+        files = files == null ? List.of() : files.stream().filter(f -> f != null && !f.isBlank()).toList();
+        if (batchSize == null || batchSize <= 0) batchSize = 5_000;
+        if (parallelism == null || parallelism <= 0) parallelism = 4;
+    }
+}
@@ -13,6 +13,8 @@ public class KeyFileInitializer implements ApplicationContextInitializer<Configu
 
     @Override
     public void initialize(ConfigurableApplicationContext context) {
+        // Build-time AOT processing only needs the bean definitions, not keys in the working directory.
+        if (Boolean.getBoolean("spring.aot.processing")) return;
         var env = context.getEnvironment();
         var privateKeyPath = resolveKeyPath(env, "auth.jwt.key-file-private", "keys/private_key.pem");
         var publicKeyPath = resolveKeyPath(env, "auth.jwt.key-file-public", "keys/public_key.pem");
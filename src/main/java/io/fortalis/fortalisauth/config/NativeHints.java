@@ -0,0 +1,44 @@
+package io.fortalis.fortalisauth.config;
+
+import io.fortalis.fortalisauth.dto.AccountImportRecord;
+import io.fortalis.fortalisauth.entity.UuidV7Generator;
+import io.fortalis.fortalisauth.repo.RefreshSession;
+import io.fortalis.fortalisauth.service.AccountExportService;
+import io.fortalis.fortalisauth.service.EventStreamService;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Native-image hints for what Spring AOT cannot see on its own: classes libraries create by
+ * reflection, JSON bound outside controller signatures, and resources read by name.
+ * Entities, repositories, controller DTOs and configuration properties are covered by AOT.
+ */
+public class NativeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Flyway lists migrations from the image's embedded resources.
+        hints.resources().registerPattern("db/migration/*.sql");
+
+        // SpringFactoriesLoader instantiates it from META-INF/spring.factories.
+        hints.resources().registerPattern("META-INF/spring.factories");
+        hints.reflection().registerType(KeyFileInitializer.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+
+        // Hibernate instantiates the @IdGeneratorType and JPQL `select new` results reflectively.
+        hints.reflection().registerType(UuidV7Generator.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        hints.reflection().registerType(RefreshSession.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+
+        // Nimbus JOSE parses JWK and JWT JSON into maps through its shaded Gson.
+        hints.reflection().registerTypeIfPresent(classLoader, "com.nimbusds.jose.shaded.gson.internal.LinkedTreeMap",
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+
+        // Jackson payloads that never appear in a controller signature.
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                EventStreamService.SessionRevoked.class, EventStreamService.TokensRevokedBefore.class,
+                EventStreamService.MfaChanged.class,
+                AccountImportRecord.class, AccountExportService.AccountRow.class,
+                AccountExportService.IdentityRow.class, AccountExportService.SessionRow.class);
+    }
+}
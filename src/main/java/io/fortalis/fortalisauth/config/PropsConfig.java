@@ -7,6 +7,7 @@ import org.springframework.context.annotation.Configuration;
  * Registers @ConfigurationProperties classes.
  */
 @Configuration
-@EnableConfigurationProperties({AuthJwtProperties.class, CryptoProperties.class})
+@EnableConfigurationProperties({AuthJwtProperties.class, CryptoProperties.class, BackendProperties.class,
+        ReplicaProperties.class, ImportProperties.class, ExportProperties.class, RpcProperties.class})
 public class PropsConfig {
 }
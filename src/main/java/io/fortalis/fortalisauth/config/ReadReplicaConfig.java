@@ -0,0 +1,69 @@
+package io.fortalis.fortalisauth.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Read/write split for an optional replica. When auth.datasource.replica.url is set, the
+ * auto-configured DataSource is wrapped in a {@link LazyConnectionDataSourceProxy}: transactions
+ * declared {@code readOnly = true} get a replica connection, everything else the primary.
+ * Only mark a read-only transaction when it tolerates replication lag; anything that must see
+ * its own writes (refresh rotation, MFA checks, revocation feed) stays read-write.
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+public class ReadReplicaConfig {
+
+    @Bean
+    static BeanPostProcessor readReplicaRouting(ObjectProvider<ReplicaProperties> replica) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource primary)) return bean;
+                ReplicaProperties props = replica.getIfAvailable();
+                if (props == null || !props.enabled()) return bean;
+                log.info("Routing read-only transactions to replica {}", props.url());
+                return new ReplicaRoutingDataSource(primary, replicaPool(props, primary));
+            }
+        };
+    }
+
+    private static HikariDataSource replicaPool(ReplicaProperties props, DataSource primary) {
+        var pool = new HikariDataSource();
+        pool.setPoolName("replica");
+        pool.setJdbcUrl(props.url());
+        HikariDataSource primaryPool = primary instanceof HikariDataSource h ? h : null;
+        pool.setUsername(props.username() != null ? props.username() : primaryPool != null ? primaryPool.getUsername() : null);
+        pool.setPassword(props.password() != null ? props.password() : primaryPool != null ? primaryPool.getPassword() : null);
+        if (props.maximumPoolSize() != null) pool.setMaximumPoolSize(props.maximumPoolSize());
+        pool.setReadOnly(true);
+        return pool;
+    }
+
+    /**
+     * Closes the replica pool together with the primary it wraps.
+     */
+    static final class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+        private final HikariDataSource replica;
+
+        ReplicaRoutingDataSource(DataSource primary, HikariDataSource replica) {
+            super(primary);
+            setReadOnlyDataSource(replica);
+            this.replica = replica;
+        }
+
+        @Override
+        public void close() throws Exception {
+            replica.close();
+            if (getTargetDataSource() instanceof AutoCloseable target) target.close();
+        }
+    }
+}
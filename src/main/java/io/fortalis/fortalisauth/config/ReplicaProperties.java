@@ -0,0 +1,19 @@
+package io.fortalis.fortalisauth.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Binding for auth.datasource.replica.*: optional streaming replica for lag-tolerant reads.
+ * Leave url empty to run everything on the primary; username/password default to the primary's.
+ */
+@ConfigurationProperties(prefix = "auth.datasource.replica")
+public record ReplicaProperties(
+        String url,
+        String username,
+        String password,
+        Integer maximumPoolSize
+) {
+    public boolean enabled() {
+        return url != null && !url.isBlank();
+    }
+}
@@ -0,0 +1,23 @@
+package io.fortalis.fortalisauth.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Binding for auth.rpc.*: the binary service-to-service API for game servers, served on its own
+ * port (HTTP/1.1 and cleartext HTTP/2) next to server.port. A port of 0 or below disables it.
+ * maxMessageBytes caps each length-prefixed message read from a request stream.
+ */
+@ConfigurationProperties(prefix = "auth.rpc")
+public record RpcProperties(
+        Integer port,
+        Integer maxMessageBytes
+) {
+    public RpcProperties {
+        if (port == null) port = -1;
+        if (maxMessageBytes == null || maxMessageBytes <= 0) maxMessageBytes = 1 << 20;
+    }
+
+    public boolean enabled() {
+        return port > 0;
+    }
+}
@@ -0,0 +1,44 @@
+package io.fortalis.fortalisauth.config;
+
+import io.fortalis.fortalisauth.web.RpcPortFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.boot.tomcat.servlet.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Second Tomcat connector for the binary game-server API (auth.rpc.port). It speaks HTTP/1.1 and
+ * cleartext HTTP/2, both by prior knowledge and by upgrade, so a game server keeps one
+ * multiplexed connection open and runs many calls as concurrent streams over it.
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+public class RpcServerConfig {
+
+    @Bean
+    WebServerFactoryCustomizer<TomcatServletWebServerFactory> rpcConnector(RpcProperties props) {
+        return factory -> {
+            if (!props.enabled()) return;
+            Connector connector = new Connector();
+            connector.setPort(props.port());
+            connector.addUpgradeProtocol(new Http2Protocol());
+            factory.addAdditionalConnectors(connector);
+            log.info("Game-server RPC API on port {} (h2c)", props.port());
+        };
+    }
+
+    /**
+     * Ahead of the security chain, so requests on the wrong port never reach authentication.
+     */
+    @Bean
+    FilterRegistrationBean<RpcPortFilter> rpcPortFilter(RpcProperties props) {
+        var registration = new FilterRegistrationBean<>(new RpcPortFilter(props));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
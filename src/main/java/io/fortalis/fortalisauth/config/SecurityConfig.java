@@ -1,41 +1,75 @@
 package io.fortalis.fortalisauth.config;
 
+import io.fortalis.fortalisauth.crypto.CachingJwtDecoder;
+import io.fortalis.fortalisauth.crypto.JwtService;
 import io.fortalis.fortalisauth.crypto.KeyProvider;
+import io.fortalis.fortalisauth.service.RevocationRegistry;
+import io.fortalis.fortalisauth.service.TokenWatermarkService;
+import io.fortalis.fortalisauth.web.BackendApiKeyFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtClaimValidator;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
 import org.springframework.security.oauth2.jwt.JwtValidators;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.security.oauth2.server.resource.web.BearerTokenAuthenticationEntryPoint;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 import org.springframework.security.oauth2.server.resource.web.access.BearerTokenAccessDeniedHandler;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter;
 
+import java.util.List;
+import java.util.function.Predicate;
+
 /**
  * Stateless API security:
  * - Permit JWKS and auth endpoints
- * - Everything else requires authentication (not used yet)
+ * - Service-to-service endpoints, including the game-server RPC API, require X-Backend-Key (ROLE_BACKEND)
+ * - Moving the global token epoch requires X-Admin-Key (ROLE_ADMIN)
+ * - Session and MFA endpoints require a player's bearer token
+ * - Everything else requires authentication
  * - Security headers hardened
  */
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
+    /**
+     * Account endpoints act on the bearer token's subject, so a backend key alone is not enough.
+     */
+    private static final AuthorizationManager<RequestAuthorizationContext> BEARER_TOKEN =
+            (authentication, context) -> new AuthorizationDecision(authentication.get() instanceof JwtAuthenticationToken);
+
     @Bean
-    SecurityFilterChain filterChain(HttpSecurity http, JwtDecoder jwtDecoder) throws Exception {
+    SecurityFilterChain filterChain(HttpSecurity http, JwtDecoder jwtDecoder, BackendProperties backendProps) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(reg -> reg
                         .requestMatchers("/auth/register", "/auth/login", "/auth/logout", "/auth/refresh", "/auth/login/start", "/auth/login/complete").permitAll()
-                        .requestMatchers("/.well-known/**", "/actuator/health").permitAll()
-                        .requestMatchers("/auth/mfa/**").authenticated()
+                        .requestMatchers("/.well-known/**", "/actuator/health", "/servers").permitAll()
+                        .requestMatchers("/auth/revocations/watermarks/global").hasRole(BackendApiKeyFilter.ADMIN_ROLE)
+                        .requestMatchers("/auth/introspect/**", "/auth/revocations/**", "/auth/events/**", "/rpc/**", "/actuator/prometheus", "/actuator/jfr").hasRole(BackendApiKeyFilter.ROLE)
+                        .requestMatchers("/auth/sessions/**", "/auth/mfa/**").access(BEARER_TOKEN)
                         .anyRequest().authenticated()
                 )
+                .addFilterBefore(new BackendApiKeyFilter(backendProps), BearerTokenAuthenticationFilter.class)
                 .httpBasic(AbstractHttpConfigurer::disable)
                 .formLogin(AbstractHttpConfigurer::disable)
                 .exceptionHandling(ex -> ex
@@ -43,7 +77,7 @@ public class SecurityConfig {
                         .accessDeniedHandler(new BearerTokenAccessDeniedHandler())
                 )
                 .oauth2ResourceServer(oauth -> oauth
-                        .jwt(jwt -> jwt.decoder(jwtDecoder))
+                        .jwt(jwt -> jwt.decoder(requireAudience(jwtDecoder, JwtService.GAME_AUDIENCE)))
                 )
                 .headers(headers -> headers
                         .frameOptions(HeadersConfigurer.FrameOptionsConfig::deny)
@@ -60,10 +94,40 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * The player API only takes player tokens: a server-scoped token from the token exchange
+     * verifies against the same key and must not be accepted here. Introspection and the
+     * exchange use the shared decoder directly and check audiences themselves.
+     */
+    static JwtDecoder requireAudience(JwtDecoder decoder, String audience) {
+        OAuth2TokenValidator<Jwt> validator = new JwtClaimValidator<List<String>>(JwtClaimNames.AUD,
+                aud -> aud != null && aud.contains(audience));
+        return token -> {
+            Jwt jwt = decoder.decode(token);
+            OAuth2TokenValidatorResult result = validator.validate(jwt);
+            if (result.hasErrors()) throw new JwtValidationException("Token is not for " + audience, result.getErrors());
+            return jwt;
+        };
+    }
+
+    /**
+     * RS256 verification fronted by a verified-token cache, so repeat calls with the same
+     * bearer token skip parsing and the signature check until the token expires.
+     * Tokens whose session was revoked ({@link RevocationRegistry}) or that were issued before
+     * their account's or the global watermark ({@link TokenWatermarkService}) are rejected,
+     * on a fresh decode and on a cache hit alike.
+     */
     @Bean
-    JwtDecoder jwtDecoder(KeyProvider keyProvider, AuthJwtProperties props) {
+    CachingJwtDecoder jwtDecoder(KeyProvider keyProvider, AuthJwtProperties props, MeterRegistry meterRegistry,
+                                 RevocationRegistry revocations, TokenWatermarkService watermarks) {
         NimbusJwtDecoder decoder = NimbusJwtDecoder.withPublicKey(keyProvider.publicKey()).build();
-        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(props.getIssuer()));
-        return decoder;
+        Predicate<Jwt> revoked = jwt -> revocations.isRevoked(jwt.getId()) || watermarks.isRevoked(jwt);
+        OAuth2TokenValidator<Jwt> notRevoked = jwt -> revoked.test(jwt)
+                ? OAuth2TokenValidatorResult.failure(new OAuth2Error("invalid_token", "Token has been revoked", null))
+                : OAuth2TokenValidatorResult.success();
+        decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
+                JwtValidators.createDefaultWithIssuer(props.getIssuer()), notRevoked));
+        return new CachingJwtDecoder(decoder, props.getDecoderCacheMaxEntries(),
+                revoked, meterRegistry);
     }
 }
@@ -1,10 +1,12 @@
 package io.fortalis.fortalisauth.controller;
 
+import io.fortalis.fortalisauth.config.AuthMetrics;
 import io.fortalis.fortalisauth.dto.*;
 import io.fortalis.fortalisauth.entity.Account;
 import io.fortalis.fortalisauth.repo.AccountMfaRepository;
 import io.fortalis.fortalisauth.service.*;
 import io.fortalis.fortalisauth.web.ApiException;
+import io.fortalis.fortalisauth.web.RateLimitExceededException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
@@ -17,6 +19,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 @Slf4j
 @RestController
@@ -29,12 +32,15 @@ public class AuthController {
     private final RateLimiterService rateLimiter;
     private final MfaService mfaService;
     private final LoginChallengeService challenges;
+    private final AuthMetrics metrics;
+    private final AuditLog audit;
 
     @PostMapping("/register")
-    public AuthResponse register(@Valid @RequestBody RegisterRequest req) {
+    public AuthResponse register(HttpServletRequest httpReq, @Valid @RequestBody RegisterRequest req) {
         log.debug("Registering new account for Email: {}, Display Name: {}", req.email(), req.displayName());
-        Account account = accounts.register(req.email(), req.password(), req.displayName());
-        var pair = tokens.issueTokens(account);
+        Account account = accounts.register(req.email(), req.password(), req.displayName(), req.username());
+        var pair = tokens.issueTokens(account, false, client(httpReq));
+        audit.record(AuditLog.Type.ACCOUNT_REGISTERED, account.getId(), pair.sessionId(), req.email(), clientIp(httpReq));
         return new AuthResponse(pair.accessToken(), pair.refreshToken(), pair.expiresInSeconds(), pair.displayName(), false);
     }
 
@@ -46,17 +52,17 @@ public class AuthController {
      */
     @PostMapping("/login")
     public Object login(HttpServletRequest httpReq, @Valid @RequestBody LoginRequest req) {
+        return timedLogin("login", req.emailOrUsername(), httpReq, () -> doLogin(httpReq, req));
+    }
+
+    private Object doLogin(HttpServletRequest httpReq, LoginRequest req) {
         String ip = clientIp(httpReq);
         String principalKey = req.emailOrUsername().toLowerCase();
         rateLimiter.checkAndConsume("ip:" + ip, 20, 60);
         rateLimiter.checkAndConsume("login:" + principalKey, 5, 900);
 
         log.debug("Login attempt (deprecated endpoint) for: {} from {}", req.emailOrUsername(), ip);
-        Account account = accounts.findByEmailOrUsername(req.emailOrUsername())
-                .orElseThrow(() -> ApiException.unauthorized("invalid_credentials", "Bad credentials"));
-        if (account.getPasswordHash() == null || !accounts.matches(req.password(), account.getPasswordHash())) {
-            throw ApiException.unauthorized("invalid_credentials", "Bad credentials");
-        }
+        Account account = authenticate(req.emailOrUsername(), req.password(), ip);
 
         boolean mfaEnabled = mfas.findByAccountId(account.getId())
                 .map(m -> m.isEnabled() && "TOTP".equals(m.getType()))
@@ -65,7 +71,8 @@ public class AuthController {
         if (!mfaEnabled) {
             // No MFA required; return tokens immediately.
             rateLimiter.clear("login:" + principalKey);
-            var pair = tokens.issueTokens(account);
+            var pair = tokens.issueTokens(account, false, client(httpReq));
+            audit.record(AuditLog.Type.LOGIN_SUCCESS, account.getId(), pair.sessionId(), req.emailOrUsername(), ip);
             return new AuthResponse(pair.accessToken(), pair.refreshToken(), pair.expiresInSeconds(), pair.displayName(), false);
         }
 
@@ -73,14 +80,19 @@ public class AuthController {
         String code = req.mfaCode();
         if (code != null && !code.isBlank()) {
             boolean ok = mfaService.verify(account.getId(), code);
-            if (!ok) throw ApiException.unauthorized("mfa_invalid", "Invalid MFA code");
+            if (!ok) {
+                audit.record(AuditLog.Type.MFA_FAILURE, account.getId(), null, req.emailOrUsername(), ip);
+                throw ApiException.unauthorized("mfa_invalid", "Invalid MFA code");
+            }
             rateLimiter.clear("login:" + principalKey);
-            var pair = tokens.issueTokens(account);
+            var pair = tokens.issueTokens(account, true, client(httpReq));
+            audit.record(AuditLog.Type.MFA_SUCCESS, account.getId(), pair.sessionId(), req.emailOrUsername(), ip);
             return new AuthResponse(pair.accessToken(), pair.refreshToken(), pair.expiresInSeconds(), pair.displayName(), true);
         }
 
         // Otherwise, start MFA challenge like `/auth/login/start`.
         var ticket = challenges.create(account, List.of("TOTP")); // future: add "WEBAUTHN", "RECOVERY_CODE"
+        audit.record(AuditLog.Type.MFA_CHALLENGE, account.getId(), null, req.emailOrUsername(), ip);
         return new LoginStartResponse(ticket, List.of("TOTP"));
     }
 
@@ -88,17 +100,17 @@ public class AuthController {
 
     @PostMapping("/login/start")
     public ResponseEntity<?> loginStart(HttpServletRequest httpReq, @Valid @RequestBody LoginStartRequest req) {
+        return timedLogin("login_start", req.emailOrUsername(), httpReq, () -> doLoginStart(httpReq, req));
+    }
+
+    private ResponseEntity<?> doLoginStart(HttpServletRequest httpReq, LoginStartRequest req) {
         String ip = clientIp(httpReq);
         String principalKey = req.emailOrUsername().toLowerCase();
         rateLimiter.checkAndConsume("ip:" + ip, 20, 60);
         rateLimiter.checkAndConsume("login:" + principalKey, 5, 900);
 
         log.debug("Login(start) for: {} from {}", req.emailOrUsername(), ip);
-        Account account = accounts.findByEmailOrUsername(req.emailOrUsername())
-                .orElseThrow(() -> ApiException.unauthorized("invalid_credentials", "Bad credentials"));
-        if (account.getPasswordHash() == null || !accounts.matches(req.password(), account.getPasswordHash())) {
-            throw ApiException.unauthorized("invalid_credentials", "Bad credentials");
-        }
+        Account account = authenticate(req.emailOrUsername(), req.password(), ip);
 
         boolean mfaEnabled = mfas.findByAccountId(account.getId())
                 .map(m -> m.isEnabled() && "TOTP".equals(m.getType()))
@@ -107,17 +119,23 @@ public class AuthController {
         if (!mfaEnabled) {
             // No MFA required; return tokens immediately.
             rateLimiter.clear("login:" + principalKey);
-            var pair = tokens.issueTokens(account);
+            var pair = tokens.issueTokens(account, false, client(httpReq));
+            audit.record(AuditLog.Type.LOGIN_SUCCESS, account.getId(), pair.sessionId(), req.emailOrUsername(), ip);
             return ResponseEntity.ok(new AuthResponse(pair.accessToken(), pair.refreshToken(), pair.expiresInSeconds(), pair.displayName(), false));
         }
 
         // MFA required; issue short-lived login ticket and allowed factors.
         var ticket = challenges.create(account, List.of("TOTP")); // future: add "WEBAUTHN", "RECOVERY_CODE"
+        audit.record(AuditLog.Type.MFA_CHALLENGE, account.getId(), null, req.emailOrUsername(), ip);
         return ResponseEntity.ok(new LoginStartResponse(ticket, List.of("TOTP")));
     }
 
     @PostMapping("/login/complete")
     public AuthResponse loginComplete(HttpServletRequest httpReq, @Valid @RequestBody LoginCompleteRequest req) {
+        return timedLogin("login_complete", null, httpReq, () -> doLoginComplete(httpReq, req));
+    }
+
+    private AuthResponse doLoginComplete(HttpServletRequest httpReq, LoginCompleteRequest req) {
         String ip = clientIp(httpReq);
         rateLimiter.checkAndConsume("mfa:" + req.loginTicket(), 10, 900);
 
@@ -134,27 +152,33 @@ public class AuthController {
             case "TOTP" -> {
                 String code = nonBlank(req.code(), "mfa_code_required", "TOTP code required");
                 boolean ok = mfaService.verify(challenge.account().getId(), code);
-                if (!ok) throw ApiException.unauthorized("mfa_invalid", "Invalid MFA code");
+                if (!ok) {
+                    audit.record(AuditLog.Type.MFA_FAILURE, challenge.account().getId(), null, null, ip);
+                    throw ApiException.unauthorized("mfa_invalid", "Invalid MFA code");
+                }
             }
             default -> throw ApiException.badRequest("mfa_factor_unsupported", "Unsupported MFA factor: " + factor);
         }
 
         log.debug("MFA complete from {}", ip);
-        var pair = tokens.issueTokens(challenge.account());
         boolean mfaEnabled = true; // completing MFA implies enabled
+        var pair = tokens.issueTokens(challenge.account(), mfaEnabled, client(httpReq));
+        audit.record(AuditLog.Type.MFA_SUCCESS, pair.accountId(), pair.sessionId(), null, ip);
         return new AuthResponse(pair.accessToken(), pair.refreshToken(), pair.expiresInSeconds(), pair.displayName(), mfaEnabled);
     }
 
     @PostMapping("/refresh")
-    public AuthResponse refresh(@Valid @RequestBody RefreshRequest req) {
+    public AuthResponse refresh(HttpServletRequest httpReq, @Valid @RequestBody RefreshRequest req) {
         log.debug("Token refresh attempt");
-        var pair = tokens.refresh(req.refreshToken());
-
-        boolean mfaEnabled = mfas.findByAccountId(pair.accountId())
-                .map(m -> m.isEnabled() && "TOTP".equals(m.getType()))
-                .orElse(false);
-
-        return new AuthResponse(pair.accessToken(), pair.refreshToken(), pair.expiresInSeconds(), pair.displayName(), mfaEnabled);
+        TokenService.Pair pair;
+        try {
+            pair = tokens.refresh(req.refreshToken(), client(httpReq));
+        } catch (ApiException e) {
+            audit.record(AuditLog.Type.TOKEN_REFRESH_FAILURE, null, null, null, clientIp(httpReq));
+            throw e;
+        }
+        audit.record(AuditLog.Type.TOKEN_REFRESH, pair.accountId(), pair.sessionId(), null, clientIp(httpReq));
+        return new AuthResponse(pair.accessToken(), pair.refreshToken(), pair.expiresInSeconds(), pair.displayName(), pair.mfaEnabled());
     }
 
     @PostMapping("/logout")
@@ -163,6 +187,53 @@ public class AuthController {
         tokens.revoke(req.refreshToken());
     }
 
+    /**
+     * Password check; a failure is audited with the account id when the principal resolved to an account.
+     */
+    private Account authenticate(String principal, String password, String ip) {
+        Account account = accounts.findByEmailOrUsername(principal).orElse(null);
+        if (account == null || !accounts.verifyPassword(account, password)) {
+            audit.record(AuditLog.Type.LOGIN_FAILURE, account != null ? account.getId() : null, null, principal, ip);
+            throw ApiException.unauthorized("invalid_credentials", "Bad credentials");
+        }
+        return account;
+    }
+
+    /**
+     * Records auth.login{endpoint, outcome}: success, mfa_required, bad_credentials, mfa_invalid, rate_limited or error.
+     * Rate limiting and unknown login tickets are audited here; everything else is audited where it happens.
+     */
+    private <T> T timedLogin(String endpoint, String principal, HttpServletRequest httpReq, Supplier<T> body) {
+        long start = System.nanoTime();
+        String outcome = AuthMetrics.ERROR;
+        try {
+            T result = body.get();
+            Object payload = result instanceof ResponseEntity<?> re ? re.getBody() : result;
+            outcome = payload instanceof LoginStartResponse ? "mfa_required" : AuthMetrics.SUCCESS;
+            return result;
+        } catch (RateLimitExceededException e) {
+            outcome = "rate_limited";
+            audit.record(AuditLog.Type.LOGIN_RATE_LIMITED, null, null, principal, clientIp(httpReq));
+            throw e;
+        } catch (ApiException e) {
+            outcome = switch (e.type) {
+                case "invalid_credentials" -> "bad_credentials";
+                case "mfa_invalid", "mfa_challenge_invalid" -> "mfa_invalid";
+                default -> AuthMetrics.ERROR;
+            };
+            if ("mfa_challenge_invalid".equals(e.type)) {
+                audit.record(AuditLog.Type.MFA_FAILURE, null, null, principal, clientIp(httpReq));
+            }
+            throw e;
+        } finally {
+            metrics.recordLogin(endpoint, outcome, System.nanoTime() - start);
+        }
+    }
+
+    private static TokenService.Client client(HttpServletRequest req) {
+        return new TokenService.Client(req.getHeader("User-Agent"), req.getHeader("X-Device-Label"));
+    }
+
     private static String clientIp(HttpServletRequest req) {
         String h = req.getHeader("X-Forwarded-For");
         if (h != null && !h.isBlank()) return h.split(",")[0].trim();
@@ -0,0 +1,24 @@
+package io.fortalis.fortalisauth.controller;
+
+import io.fortalis.fortalisauth.service.EventStreamService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Push channel for region backends (requires X-Backend-Key).
+ * GET /auth/events/stream   (text/event-stream; resume with Last-Event-ID or ?lastEventId=)
+ */
+@RestController
+@RequestMapping("/auth/events")
+@RequiredArgsConstructor
+public class EventStreamController {
+    private final EventStreamService stream;
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId,
+                             @RequestParam(name = "lastEventId", required = false) String lastEventIdParam) {
+        return stream.subscribe(lastEventId != null ? lastEventId : lastEventIdParam);
+    }
+}
@@ -0,0 +1,35 @@
+package io.fortalis.fortalisauth.controller;
+
+import io.fortalis.fortalisauth.dto.BatchIntrospectionRequest;
+import io.fortalis.fortalisauth.dto.BatchIntrospectionResponse;
+import io.fortalis.fortalisauth.dto.IntrospectionResponse;
+import io.fortalis.fortalisauth.service.IntrospectionService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * RFC 7662 introspection for region backends (requires X-Backend-Key).
+ * POST /auth/introspect        (form: token=...[&audience=...])
+ * POST /auth/introspect/batch  (JSON: { "tokens": [...], "audience": ... })
+ */
+@RestController
+@RequestMapping("/auth/introspect")
+@RequiredArgsConstructor
+@Slf4j
+public class IntrospectionController {
+    private final IntrospectionService introspection;
+
+    @PostMapping(consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public IntrospectionResponse introspect(@RequestParam String token, @RequestParam(required = false) String audience) {
+        return introspection.introspect(token, audience);
+    }
+
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BatchIntrospectionResponse introspectBatch(@Valid @RequestBody BatchIntrospectionRequest req) {
+        log.debug("Batch introspection of {} tokens", req.tokens().size());
+        return new BatchIntrospectionResponse(introspection.introspectAll(req.tokens(), req.audience()));
+    }
+}
@@ -0,0 +1,58 @@
+package io.fortalis.fortalisauth.controller;
+
+import io.fortalis.fortalisauth.dto.RevocationDeltaResponse;
+import io.fortalis.fortalisauth.dto.RevocationSnapshotResponse;
+import io.fortalis.fortalisauth.dto.WatermarkDeltaResponse;
+import io.fortalis.fortalisauth.service.RevocationFeedService;
+import io.fortalis.fortalisauth.service.TokenWatermarkService;
+
+import java.util.UUID;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Revocation feed for region backends (requires X-Backend-Key).
+ * GET /auth/revocations/snapshot           (all live revocations + cursor)
+ * GET /auth/revocations?since=...&limit=...  (entries after the cursor, oldest first)
+ * GET /auth/revocations/watermarks?since=...&limit=...  (token watermarks changed after the cursor; since=0 for all)
+ * POST /auth/revocations/watermarks/accounts/{accountId}  (revoke every token of the account issued until now)
+ * POST /auth/revocations/watermarks/global                (revoke every token issued until now; X-Admin-Key)
+ */
+@RestController
+@RequestMapping("/auth/revocations")
+@RequiredArgsConstructor
+public class RevocationFeedController {
+    private final RevocationFeedService feed;
+    private final TokenWatermarkService watermarks;
+
+    @GetMapping
+    public RevocationDeltaResponse delta(@RequestParam long since,
+                                         @RequestParam(defaultValue = "" + RevocationFeedService.MAX_BATCH) int limit) {
+        return feed.delta(since, limit);
+    }
+
+    @GetMapping("/snapshot")
+    public RevocationSnapshotResponse snapshot() {
+        return feed.snapshot();
+    }
+
+    @GetMapping("/watermarks")
+    public WatermarkDeltaResponse watermarks(@RequestParam(defaultValue = "0") long since,
+                                             @RequestParam(defaultValue = "" + TokenWatermarkService.MAX_BATCH) int limit) {
+        return watermarks.delta(since, limit);
+    }
+
+    @PostMapping("/watermarks/accounts/{accountId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void revokeAccount(@PathVariable UUID accountId) {
+        watermarks.revokeAccount(accountId);
+    }
+
+    @PostMapping("/watermarks/global")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void revokeEveryone() {
+        watermarks.revokeEveryone();
+    }
+}
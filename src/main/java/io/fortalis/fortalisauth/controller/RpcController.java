@@ -0,0 +1,85 @@
+package io.fortalis.fortalisauth.controller;
+
+import io.fortalis.fortalisauth.config.RpcProperties;
+import io.fortalis.fortalisauth.rpc.RpcMessages;
+import io.fortalis.fortalisauth.rpc.RpcMessages.*;
+import io.fortalis.fortalisauth.rpc.RpcStream;
+import io.fortalis.fortalisauth.service.AccountService;
+import io.fortalis.fortalisauth.service.IntrospectionService;
+import io.fortalis.fortalisauth.service.PlayerServerService;
+import io.fortalis.fortalisauth.service.ServerTokenService;
+import io.fortalis.fortalisauth.web.ApiException;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Binary API for game servers on auth.rpc.port (requires X-Backend-Key). Each call streams
+ * length-prefixed protobuf messages in both directions; see resources/rpc/fortalis_auth_rpc.proto.
+ * POST /rpc/introspect       IntrospectRequest      -> IntrospectResponse
+ * POST /rpc/token-exchange   TokenExchangeRequest   -> TokenExchangeResponse
+ * POST /rpc/profiles         ProfileRequest         -> ProfileResponse
+ * POST /rpc/player-servers   RegisterPlayerRequest  -> RegisterPlayerResponse
+ */
+@RestController
+@RequestMapping("/rpc")
+@RequiredArgsConstructor
+@Slf4j
+public class RpcController {
+    private final RpcProperties props;
+    private final IntrospectionService introspection;
+    private final ServerTokenService serverTokens;
+    private final AccountService accounts;
+    private final PlayerServerService players;
+
+    @PostMapping(path = "/introspect", consumes = RpcMessages.CONTENT_TYPE)
+    public void introspect(InputStream body, HttpServletResponse response) throws IOException {
+        serve("introspect", body, response, (req, out) -> {
+            var request = IntrospectRequest.decode(req);
+            RpcMessages.introspectResponse(introspection.introspectAll(request.tokens(), request.audience()), out);
+        });
+    }
+
+    @PostMapping(path = "/token-exchange", consumes = RpcMessages.CONTENT_TYPE)
+    public void tokenExchange(InputStream body, HttpServletResponse response) throws IOException {
+        serve("token-exchange", body, response, (req, out) -> {
+            var request = TokenExchangeRequest.decode(req);
+            try {
+                RpcMessages.tokenExchangeResponse(serverTokens.exchange(request.subjectToken(), request.serverId()), out);
+            } catch (ApiException e) {
+                RpcMessages.error(e, out);
+            }
+        });
+    }
+
+    @PostMapping(path = "/profiles", consumes = RpcMessages.CONTENT_TYPE)
+    public void profiles(InputStream body, HttpServletResponse response) throws IOException {
+        serve("profiles", body, response, (req, out) -> RpcMessages.profileResponse(
+                accounts.profiles(ProfileRequest.decode(req).accountIds()), out));
+    }
+
+    @PostMapping(path = "/player-servers", consumes = RpcMessages.CONTENT_TYPE)
+    public void registerPlayer(InputStream body, HttpServletResponse response) throws IOException {
+        serve("player-servers", body, response, (req, out) -> {
+            var request = RegisterPlayerRequest.decode(req);
+            try {
+                var registration = players.registerPlayer(request.accountId(), request.serverId());
+                RpcMessages.registerPlayerResponse(registration.player(), registration.created(), out);
+            } catch (ApiException e) {
+                RpcMessages.error(e, out);
+            }
+        });
+    }
+
+    private void serve(String call, InputStream body, HttpServletResponse response, RpcStream.Handler handler)
+            throws IOException {
+        response.setContentType(RpcMessages.CONTENT_TYPE);
+        int messages = RpcStream.serve(body, response.getOutputStream(), props.maxMessageBytes(), handler);
+        log.debug("RPC {}: {} messages", call, messages);
+    }
+}
@@ -0,0 +1,25 @@
+package io.fortalis.fortalisauth.controller;
+
+import io.fortalis.fortalisauth.dto.ServerResponse;
+import io.fortalis.fortalisauth.service.ServerDirectory;
+
+import java.util.List;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Public game server list, served from memory.
+ * GET /servers
+ */
+@RestController
+@RequiredArgsConstructor
+public class ServerController {
+    private final ServerDirectory directory;
+
+    @GetMapping("/servers")
+    public List<ServerResponse> servers() {
+        return directory.list();
+    }
+}
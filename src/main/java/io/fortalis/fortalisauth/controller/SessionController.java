@@ -0,0 +1,53 @@
+package io.fortalis.fortalisauth.controller;
+
+import io.fortalis.fortalisauth.dto.SessionPageResponse;
+import io.fortalis.fortalisauth.service.SessionService;
+
+import java.util.UUID;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * The caller's own refresh sessions; accountId comes from the JWT subject, the current session from its jti.
+ */
+@RestController
+@RequestMapping("/auth/sessions")
+@RequiredArgsConstructor
+@Slf4j
+public class SessionController {
+    private final SessionService sessions;
+
+    @GetMapping
+    public SessionPageResponse list(@AuthenticationPrincipal Jwt jwt,
+                                    @RequestParam(required = false) String cursor,
+                                    @RequestParam(defaultValue = "20") int limit) {
+        return sessions.list(UUID.fromString(jwt.getSubject()), currentSession(jwt), cursor, limit);
+    }
+
+    @DeleteMapping("/{sessionId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void revoke(@AuthenticationPrincipal Jwt jwt, @PathVariable UUID sessionId) {
+        log.debug("Revoke session {} of account {}", sessionId, jwt.getSubject());
+        sessions.revoke(UUID.fromString(jwt.getSubject()), sessionId);
+    }
+
+    @DeleteMapping
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void revokeAll(@AuthenticationPrincipal Jwt jwt) {
+        var notBefore = sessions.revokeAll(UUID.fromString(jwt.getSubject()));
+        log.debug("Revoked sessions of account {} issued before {}", jwt.getSubject(), notBefore);
+    }
+
+    private static UUID currentSession(Jwt jwt) {
+        try {
+            return jwt.getId() == null ? null : UUID.fromString(jwt.getId());
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+}
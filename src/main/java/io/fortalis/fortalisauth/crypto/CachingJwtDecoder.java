@@ -0,0 +1,146 @@
+package io.fortalis.fortalisauth.crypto;
+
+import io.fortalis.fortalisauth.event.SessionRevokedEvent;
+import io.fortalis.fortalisauth.event.TokensRevokedBeforeEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Bounded cache of already-verified bearer tokens in front of a {@link JwtDecoder}.
+ * Keyed by SHA-256 of the raw token; each entry lives until the token's `exp`. When full,
+ * the entries closest to expiry go first (already-expired ones before live ones), taken
+ * from an expiry-ordered index in O(log n) rather than by scanning the cache.
+ * Failed decodes are never cached. maxEntries <= 0 turns the cache into a pass-through.
+ * Hits are re-checked against {@code rejectCached} so a revocation learned from another
+ * instance takes effect without waiting for the entry to expire. Local revocations evict
+ * entries once their transaction has committed.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+    private record Entry(String key, Jwt jwt, Instant expiresAt) {
+    }
+
+    private static final Comparator<Entry> BY_EXPIRY =
+            Comparator.comparing(Entry::expiresAt).thenComparing(Entry::key);
+
+    private final JwtDecoder delegate;
+    private final int maxEntries;
+    private final Predicate<Jwt> rejectCached;
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+    private final NavigableSet<Entry> byExpiry = new ConcurrentSkipListSet<>(BY_EXPIRY);
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidations;
+
+    public CachingJwtDecoder(JwtDecoder delegate, int maxEntries, Predicate<Jwt> rejectCached, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+        this.rejectCached = rejectCached;
+        this.hits = Counter.builder("auth.jwt.decoder.cache").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("auth.jwt.decoder.cache").tag("result", "miss").register(registry);
+        this.invalidations = Counter.builder("auth.jwt.decoder.cache.invalidations").register(registry);
+        Gauge.builder("auth.jwt.decoder.cache.size", cache, Map::size).register(registry);
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        if (maxEntries <= 0) return delegate.decode(token);
+
+        String key = hash(token);
+        Entry entry = cache.get(key);
+        if (entry != null) {
+            if (Instant.now().isBefore(entry.expiresAt()) && !rejectCached.test(entry.jwt())) {
+                hits.increment();
+                return entry.jwt();
+            }
+            remove(entry);
+        }
+
+        misses.increment();
+        Jwt jwt = delegate.decode(token);
+        Instant exp = jwt.getExpiresAt();
+        if (exp != null && Instant.now().isBefore(exp)) {
+            makeRoom();
+            var fresh = new Entry(key, jwt, exp);
+            Entry replaced = cache.put(key, fresh);
+            if (replaced != null) byExpiry.remove(replaced);
+            byExpiry.add(fresh);
+        }
+        return jwt;
+    }
+
+    /**
+     * Drops every cached token of the given subject (account id).
+     */
+    public void invalidateSubject(String subject) {
+        boolean removed = false;
+        for (Entry e : cache.values()) {
+            if (subject.equals(e.jwt().getSubject())) removed |= remove(e);
+        }
+        if (removed) invalidations.increment();
+    }
+
+    public void invalidateAll() {
+        cache.clear();
+        byExpiry.clear();
+        invalidations.increment();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionRevoked(SessionRevokedEvent event) {
+        invalidateSubject(event.accountId().toString());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTokensRevokedBefore(TokensRevokedBeforeEvent event) {
+        if (event.global()) invalidateAll();
+        else invalidateSubject(event.accountId().toString());
+    }
+
+    /**
+     * Evicts the soonest-expiring entries until there is room for one more.
+     */
+    private void makeRoom() {
+        while (cache.size() >= maxEntries) {
+            Entry oldest = byExpiry.pollFirst();
+            if (oldest == null) return;
+            cache.remove(oldest.key(), oldest);
+        }
+    }
+
+    private boolean remove(Entry entry) {
+        byExpiry.remove(entry);
+        return cache.remove(entry.key(), entry);
+    }
+
+    private static String hash(String token) {
+        try {
+            var md = MessageDigest.getInstance("SHA-256");
+            byte[] h = md.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(h);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
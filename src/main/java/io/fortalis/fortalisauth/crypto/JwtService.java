@@ -6,11 +6,13 @@ import com.nimbusds.jose.jwk.*;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
 import io.fortalis.fortalisauth.config.AuthJwtProperties;
+import io.fortalis.fortalisauth.config.AuthMetrics;
 
 import java.security.SecureRandom;
 import java.time.Instant;
 import java.util.*;
 
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 
 /**
@@ -18,13 +20,18 @@ import org.springframework.stereotype.Service;
  */
 @Service
 public class JwtService {
+    public static final String GAME_AUDIENCE = "fortalis-game";
+    public static final String SERVER_AUDIENCE_PREFIX = "fortalis-server:";
+
     private final AuthJwtProperties props;
     private final KeyProvider keyProvider;
+    private final AuthMetrics metrics;
     private final JWK jwk;
 
-    public JwtService(AuthJwtProperties props, KeyProvider keyProvider) {
+    public JwtService(AuthJwtProperties props, KeyProvider keyProvider, AuthMetrics metrics) {
         this.props = props;
         this.keyProvider = keyProvider;
+        this.metrics = metrics;
         // Build a JWK with a random kid so JWKS caches can refresh when key changes.
         String kid = randomKid();
         this.jwk = new RSAKey.Builder(keyProvider.publicKey())
@@ -45,13 +52,21 @@ public class JwtService {
      * Creates an access token with standard claims.
      */
     public String createAccessToken(UUID accountId, boolean mfa) {
+        return createAccessToken(accountId, mfa, null);
+    }
+
+    /**
+     * Creates an access token whose `jti` is the id of the refresh-token session it belongs to.
+     */
+    public String createAccessToken(UUID accountId, boolean mfa, UUID sessionId) {
         Instant now = Instant.now();
         Instant exp = now.plus(props.getAccessTtl());
 
         JWTClaimsSet claims = new JWTClaimsSet.Builder()
                 .issuer(props.getIssuer())
                 .subject(accountId.toString())
-                .audience("fortalis-game")
+                .jwtID(sessionId != null ? sessionId.toString() : null)
+                .audience(GAME_AUDIENCE)
                 .issueTime(Date.from(now))
                 .expirationTime(Date.from(exp))
                 .claim("mfa", mfa)
@@ -60,7 +75,30 @@ public class JwtService {
         return sign(claims);
     }
 
+    /**
+     * Creates a token for one game server (audience "fortalis-server:{serverId}") from a verified
+     * player token; subject, session id (jti), iat and exp are carried over, so revocation and watermarks
+     * apply to it exactly as to the player token and it never outlives it.
+     */
+    public String createServerToken(Jwt subjectToken, String serverId) {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(props.getIssuer())
+                .subject(subjectToken.getSubject())
+                .jwtID(subjectToken.getId())
+                .audience(SERVER_AUDIENCE_PREFIX + serverId)
+                .issueTime(Date.from(subjectToken.getIssuedAt()))
+                .expirationTime(Date.from(subjectToken.getExpiresAt()))
+                .claim("mfa", Boolean.TRUE.equals(subjectToken.getClaimAsBoolean("mfa")))
+                .build();
+
+        return sign(claims);
+    }
+
     private String sign(JWTClaimsSet claims) {
+        return metrics.phase("jwt_sign", () -> signNow(claims));
+    }
+
+    private String signNow(JWTClaimsSet claims) {
         try {
             JWSHeader header = new JWSHeader.Builder(JWSAlgorithm.RS256)
                     .keyID(jwk.getKeyID())
@@ -0,0 +1,58 @@
+package io.fortalis.fortalisauth.crypto;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Verifies self-describing PBKDF2 hashes imported from legacy systems:
+ * {@code pbkdf2_<sha1|sha256|sha512>$<iterations>$<salt>$<base64 hash>} (the Django/passlib layout),
+ * so every imported row carries its own iteration count. Verify-only: new hashes are Argon2.
+ */
+public class LegacyPbkdf2PasswordEncoder implements PasswordEncoder {
+    private static final int MAX_ITERATIONS = 10_000_000;
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        throw new UnsupportedOperationException("Legacy PBKDF2 hashes are verified only; encode with Argon2");
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) return false;
+        String[] parts = encodedPassword.split("\\$");
+        if (parts.length != 4) return false;
+        String algorithm = switch (parts[0]) {
+            case "pbkdf2_sha1" -> "PBKDF2WithHmacSHA1";
+            case "pbkdf2_sha256" -> "PBKDF2WithHmacSHA256";
+            case "pbkdf2_sha512" -> "PBKDF2WithHmacSHA512";
+            default -> null;
+        };
+        if (algorithm == null) return false;
+        try {
+            int iterations = Integer.parseInt(parts[1]);
+            if (iterations <= 0 || iterations > MAX_ITERATIONS) return false;
+            byte[] salt = parts[2].getBytes(StandardCharsets.UTF_8);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            if (expected.length == 0) return false;
+            var spec = new PBEKeySpec(rawPassword.toString().toCharArray(), salt, iterations, expected.length * 8);
+            byte[] actual = SecretKeyFactory.getInstance(algorithm).generateSecret(spec).getEncoded();
+            return MessageDigest.isEqual(expected, actual);
+        } catch (IllegalArgumentException | GeneralSecurityException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Always true: a legacy hash is replaced by Argon2 on the first successful login.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return true;
+    }
+}
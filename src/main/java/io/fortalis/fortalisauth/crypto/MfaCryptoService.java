@@ -1,5 +1,6 @@
 package io.fortalis.fortalisauth.crypto;
 
+import io.fortalis.fortalisauth.config.AuthMetrics;
 import io.fortalis.fortalisauth.config.CryptoProperties;
 import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
@@ -20,8 +21,10 @@ public class MfaCryptoService {
     private final SecretKey key;
     private final SecureRandom rng = new SecureRandom();
     private final boolean passthrough;
+    private final AuthMetrics metrics;
 
-    public MfaCryptoService(CryptoProperties props) {
+    public MfaCryptoService(CryptoProperties props, AuthMetrics metrics) {
+        this.metrics = metrics;
         String configuredKid = props.mfaKeyId();
         String b64 = props.mfaEncryptionKey();
         if (b64 == null || b64.isBlank()) {
@@ -53,6 +56,10 @@ public class MfaCryptoService {
     }
 
     public String decrypt(String stored) {
+        return metrics.phase("mfa_decrypt", () -> decryptNow(stored));
+    }
+
+    private String decryptNow(String stored) {
         if (stored == null) return null;
         if (!stored.startsWith(PREFIX)) return stored; // plaintext fallback
         if (passthrough) return stored; // cannot decrypt without key; leave as-is
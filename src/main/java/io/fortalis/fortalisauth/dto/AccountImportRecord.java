@@ -0,0 +1,30 @@
+package io.fortalis.fortalisauth.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One legacy account in an import file (a JSONL line or a CSV row).
+ * passwordHash is the legacy hash as stored by the old system (bcrypt, PBKDF2 or Argon2);
+ * identities are external logins (provider + subject) to attach to the account.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record AccountImportRecord(
+        String email,
+        String username,
+        String displayName,
+        String passwordHash,
+        Boolean emailVerified,
+        Instant createdTs,
+        List<Identity> identities
+) {
+    public AccountImportRecord {
+        identities = identities == null ? List.of() : identities;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Identity(String provider, String subject) {
+    }
+}
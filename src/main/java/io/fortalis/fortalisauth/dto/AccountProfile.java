@@ -0,0 +1,17 @@
+package io.fortalis.fortalisauth.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Public account data game servers may show or use; no email, no credentials.
+ */
+public record AccountProfile(
+        UUID id,
+        String displayName,
+        String username,
+        Instant createdTs,
+        boolean mfaEnabled,
+        String lastServerId
+) {
+}
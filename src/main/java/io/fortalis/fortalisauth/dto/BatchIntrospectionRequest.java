@@ -0,0 +1,17 @@
+package io.fortalis.fortalisauth.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Up to 500 tokens introspected in one call; results come back in the same order.
+ * With an audience, tokens not issued for it are reported inactive.
+ */
+public record BatchIntrospectionRequest(
+        @NotEmpty @Size(max = 500) List<@NotBlank String> tokens,
+        String audience
+) {
+}
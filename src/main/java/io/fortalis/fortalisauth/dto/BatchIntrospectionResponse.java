@@ -0,0 +1,6 @@
+package io.fortalis.fortalisauth.dto;
+
+import java.util.List;
+
+public record BatchIntrospectionResponse(List<IntrospectionResponse> results) {
+}
@@ -0,0 +1,26 @@
+package io.fortalis.fortalisauth.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * RFC 7662 introspection result. Inactive tokens carry only `active=false`.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record IntrospectionResponse(
+        boolean active,
+        String sub,
+        String jti,
+        String iss,
+        List<String> aud,
+        Long iat,
+        Long exp,
+        Boolean mfa,
+        @JsonProperty("token_type") String tokenType
+) {
+    public static IntrospectionResponse inactive() {
+        return new IntrospectionResponse(false, null, null, null, null, null, null, null, null);
+    }
+}
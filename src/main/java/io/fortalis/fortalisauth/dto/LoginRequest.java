@@ -3,7 +3,7 @@ package io.fortalis.fortalisauth.dto;
 import jakarta.validation.constraints.NotBlank;
 
 /**
- * Login with email (case-insensitive) and password.
+ * Login with email or username (both case-insensitive) and password.
  * If MFA is enabled, the server may require a TOTP code alongside.
  */
 public record LoginRequest(
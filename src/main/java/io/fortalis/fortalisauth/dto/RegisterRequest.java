@@ -5,10 +5,15 @@ import jakarta.validation.constraints.*;
 public record RegisterRequest(
         @NotBlank @Email String email,
         @NotBlank @Size(min = 8, max = 200) String password,
-        @NotBlank @Size(min = 3, max = 32) String displayName
+        @NotBlank @Size(min = 3, max = 32) String displayName,
+        @Pattern(regexp = "[A-Za-z0-9_.-]{3,32}", message = "3-32 letters, digits, '_', '.' or '-'") String username
 ) {
     public RegisterRequest {
         email = email != null ? email.toLowerCase() : null;
     }
+
+    public RegisterRequest(String email, String password, String displayName) {
+        this(email, password, displayName, null);
+    }
 }
 
@@ -0,0 +1,9 @@
+package io.fortalis.fortalisauth.dto;
+
+import java.util.List;
+
+/**
+ * cursor: pass back as `since` on the next poll. hasMore: poll again immediately.
+ */
+public record RevocationDeltaResponse(long cursor, boolean hasMore, List<RevocationEntry> items) {
+}
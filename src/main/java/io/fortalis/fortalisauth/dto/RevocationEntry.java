@@ -0,0 +1,7 @@
+package io.fortalis.fortalisauth.dto;
+
+/**
+ * Compact feed item: revoked access token jti, its subject and when the revocation stops mattering (epoch seconds).
+ */
+public record RevocationEntry(long seq, String jti, String sub, long exp) {
+}
@@ -0,0 +1,9 @@
+package io.fortalis.fortalisauth.dto;
+
+import java.util.List;
+
+/**
+ * All revocations still in force, plus the cursor to continue with the delta feed.
+ */
+public record RevocationSnapshotResponse(long cursor, List<RevocationEntry> items) {
+}
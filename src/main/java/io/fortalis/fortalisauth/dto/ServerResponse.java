@@ -0,0 +1,10 @@
+package io.fortalis.fortalisauth.dto;
+
+public record ServerResponse(
+        String id,
+        String region,
+        String displayName,
+        String status,
+        long playerCount
+) {
+}
@@ -0,0 +1,9 @@
+package io.fortalis.fortalisauth.dto;
+
+import java.util.List;
+
+/**
+ * nextCursor: pass back as `cursor` for the next page; null on the last page.
+ */
+public record SessionPageResponse(List<SessionResponse> items, String nextCursor) {
+}
@@ -0,0 +1,17 @@
+package io.fortalis.fortalisauth.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One active refresh session. current: the session of the access token making the request.
+ */
+public record SessionResponse(
+        UUID id,
+        Instant issuedTs,
+        Instant expiresTs,
+        String userAgent,
+        String deviceLabel,
+        boolean current
+) {
+}
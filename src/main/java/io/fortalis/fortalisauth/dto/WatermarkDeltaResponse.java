@@ -0,0 +1,9 @@
+package io.fortalis.fortalisauth.dto;
+
+import java.util.List;
+
+/**
+ * Watermarks changed after `since` (0 = all of them). cursor: pass back as `since`. hasMore: poll again immediately.
+ */
+public record WatermarkDeltaResponse(long cursor, boolean hasMore, List<WatermarkEntry> items) {
+}
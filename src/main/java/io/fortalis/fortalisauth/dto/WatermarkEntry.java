@@ -0,0 +1,8 @@
+package io.fortalis.fortalisauth.dto;
+
+/**
+ * Tokens of sub issued before notBefore (epoch milliseconds) are revoked; sub is null for the global epoch.
+ * A token's issue time is the timestamp of its UUIDv7 jti, or its `iat` when it has none.
+ */
+public record WatermarkEntry(long seq, String sub, long notBefore) {
+}
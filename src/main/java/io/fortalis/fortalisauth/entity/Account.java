@@ -3,6 +3,7 @@ package io.fortalis.fortalisauth.entity;
 import jakarta.persistence.*;
 
 import java.time.Instant;
+import java.util.Locale;
 import java.util.UUID;
 
 import lombok.*;
@@ -14,7 +15,7 @@ import lombok.*;
 @NoArgsConstructor
 public class Account {
     @Id
-    @GeneratedValue
+    @GeneratedUuidV7
     private UUID id;
 
     @Column(unique = true, nullable = false)
@@ -30,14 +31,20 @@ public class Account {
 
     private String displayName;
 
+    /**
+     * Optional login name; unique case-insensitively, stored as typed.
+     */
+    @Column(length = 32)
+    private String username;
+
     @PrePersist
     void prePersist() {
         if (createdTs == null) createdTs = Instant.now();
-        if (email != null) email = email.toLowerCase();
+        if (email != null) email = email.toLowerCase(Locale.ROOT);
     }
 
     @PreUpdate
     void preUpdate() {
-        if (email != null) email = email.toLowerCase();
+        if (email != null) email = email.toLowerCase(Locale.ROOT);
     }
 }
\ No newline at end of file
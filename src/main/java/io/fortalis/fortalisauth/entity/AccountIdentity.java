@@ -14,7 +14,7 @@ import lombok.*;
 @NoArgsConstructor
 public class AccountIdentity {
     @Id
-    @GeneratedValue
+    @GeneratedUuidV7
     private UUID id;
 
     @ManyToOne(optional = false)
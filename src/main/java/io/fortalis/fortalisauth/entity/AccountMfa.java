@@ -5,13 +5,14 @@ import jakarta.persistence.*;
 import java.util.UUID;
 
 import lombok.*;
+import org.springframework.data.domain.Persistable;
 
 @Entity
 @Table(name = "account_mfa")
 @Getter
 @Setter
 @NoArgsConstructor
-public class AccountMfa {
+public class AccountMfa implements Persistable<UUID> {
     @Id
     private UUID accountId;
 
@@ -34,4 +35,41 @@ public class AccountMfa {
     private String phoneE164;
 
     private boolean enabled;
+
+    /**
+     * Backup-code SHA-256 hashes, 32 bytes each, back to back.
+     */
+    @Column(name = "backup_hashes")
+    private byte[] backupHashes;
+
+    /**
+     * Bit i set = backup code i used. Only changed by a conditional UPDATE, never through the entity.
+     */
+    @Column(name = "backup_used_mask", nullable = false)
+    private int backupUsedMask;
+
+    /**
+     * The id is assigned (the account's), so Spring Data cannot tell new from loaded rows by it;
+     * without this, save() of a new row would merge and SELECT before inserting.
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean persisted;
+
+    @Override
+    public UUID getId() {
+        return accountId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
 }
@@ -16,6 +16,7 @@ import java.util.UUID;
 @Setter
 public class PlayerServer {
     @Id
+    @GeneratedUuidV7
     private UUID id;
 
     @Column(nullable = false)
@@ -9,16 +9,28 @@ import lombok.*;
 
 @Entity
 @Table(name = "refresh_token", indexes = {
-        @Index(name = "idx_refresh_account", columnList = "account_id")
+        @Index(name = "idx_refresh_account_active", columnList = "account_id, revoked, expires_ts, id")
 })
 @Getter
 @Setter
 @NoArgsConstructor
 public class RefreshToken {
+    public static final String REVOKE_ROTATED = "ROTATED";
+    public static final String REVOKE_LOGOUT = "LOGOUT";
+    public static final String REVOKE_EVICTED = "EVICTED";
+    public static final int USER_AGENT_MAX = 256;
+    public static final int DEVICE_LABEL_MAX = 64;
+
     @Id
-    @GeneratedValue
+    @GeneratedUuidV7
     private UUID id;
 
+    /**
+     * Stays the same across rotations; the access tokens' jti.
+     */
+    @Column(name = "session_id", nullable = false)
+    private UUID sessionId;
+
     @Column(name = "account_id", nullable = false)
     private UUID accountId;
 
@@ -40,6 +52,20 @@ public class RefreshToken {
 
     private boolean revoked;
 
+    private Instant revokedTs;
+
+    /**
+     * 'ROTATED' | 'LOGOUT' | 'EVICTED'
+     */
+    @Column(length = 16)
+    private String revokeReason;
+
+    public void revoke(String reason) {
+        this.revoked = true;
+        this.revokedTs = Instant.now();
+        this.revokeReason = reason;
+    }
+
     @PrePersist
     void prePersist() {
         if (issuedTs == null) issuedTs = Instant.now();
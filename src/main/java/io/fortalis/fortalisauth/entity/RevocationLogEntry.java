@@ -0,0 +1,34 @@
+package io.fortalis.fortalisauth.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import lombok.*;
+
+/**
+ * One revoked access token (by jti) in the append-only revocation feed.
+ */
+@Entity
+@Table(name = "revocation_log")
+@Getter
+@Setter
+@NoArgsConstructor
+public class RevocationLogEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+
+    @Column(nullable = false)
+    private UUID jti;
+
+    @Column(nullable = false)
+    private UUID accountId;
+
+    @Column(nullable = false)
+    private Instant expiresTs;
+
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Instant createdTs;
+}
@@ -0,0 +1,45 @@
+package io.fortalis.fortalisauth.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+import lombok.*;
+
+/**
+ * A game server (shard) players create characters on, e.g. 'EU-DE'.
+ * player_count is maintained in batches by the server directory, not by JPA.
+ */
+@Entity
+@Table(name = "server")
+@Getter
+@Setter
+@NoArgsConstructor
+public class Server {
+    public static final String STATUS_ACTIVE = "ACTIVE";
+
+    @Id
+    @Column(length = 32)
+    private String id;
+
+    @Column(length = 16, nullable = false)
+    private String region;
+
+    @Column(length = 64, nullable = false)
+    private String displayName;
+
+    /**
+     * 'ACTIVE' | 'MAINTENANCE' | 'RETIRED'
+     */
+    @Column(length = 16, nullable = false)
+    private String status = STATUS_ACTIVE;
+
+    @Column(nullable = false, updatable = false)
+    private int playerCount;
+
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Instant createdTs;
+
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Instant updatedTs;
+}
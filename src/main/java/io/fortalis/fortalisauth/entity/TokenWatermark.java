@@ -0,0 +1,30 @@
+package io.fortalis.fortalisauth.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import lombok.*;
+
+/**
+ * "Tokens of this account issued before notBefore are invalid"; the nil account id is the global epoch.
+ * Written by TokenWatermarkService with SQL; mapped so queries can join against it.
+ */
+@Entity
+@Table(name = "token_watermark")
+@Getter
+@NoArgsConstructor
+public class TokenWatermark {
+    @Id
+    private UUID accountId;
+
+    @Column(nullable = false)
+    private Instant notBefore;
+
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Long seq;
+
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Instant updatedTs;
+}
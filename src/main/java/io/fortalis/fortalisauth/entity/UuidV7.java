@@ -0,0 +1,33 @@
+package io.fortalis.fortalisauth.entity;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered UUIDv7 (RFC 9562): 48-bit Unix milliseconds, version 7, a 12-bit sequence
+ * in rand_a and 62 random bits. Within one JVM, ids are strictly increasing: the sequence
+ * counts up inside a millisecond and, if it overflows, borrows the next millisecond.
+ */
+public final class UuidV7 {
+    private static final SecureRandom RNG = new SecureRandom();
+    private static final AtomicLong LAST = new AtomicLong(); // (unix ms << 12) | sequence
+
+    private UuidV7() {
+    }
+
+    public static UUID next() {
+        long now = System.currentTimeMillis() << 12;
+        long stamp = LAST.updateAndGet(prev -> Math.max(prev + 1, now));
+        long msb = ((stamp >>> 12) << 16) | 0x7000L | (stamp & 0xFFFL);
+        long lsb = (RNG.nextLong() & 0x3FFF_FFFF_FFFF_FFFFL) | 0x8000_0000_0000_0000L;
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * The embedded creation time in Unix milliseconds.
+     */
+    public static long timestamp(UUID uuid) {
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+}
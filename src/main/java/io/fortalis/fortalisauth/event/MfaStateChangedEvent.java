@@ -0,0 +1,9 @@
+package io.fortalis.fortalisauth.event;
+
+import java.util.UUID;
+
+/**
+ * Published when TOTP is enabled or disabled on an account.
+ */
+public record MfaStateChangedEvent(UUID accountId, boolean enabled) {
+}
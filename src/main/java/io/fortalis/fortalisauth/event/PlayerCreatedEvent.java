@@ -0,0 +1,9 @@
+package io.fortalis.fortalisauth.event;
+
+import java.util.UUID;
+
+/**
+ * Published when an account creates its character on a game server.
+ */
+public record PlayerCreatedEvent(UUID accountId, String serverId) {
+}
@@ -0,0 +1,10 @@
+package io.fortalis.fortalisauth.event;
+
+import java.util.UUID;
+
+/**
+ * Published when a single refresh-token session is revoked (logout).
+ * sessionId is refresh_token.session_id, the jti of the session's access tokens.
+ */
+public record SessionRevokedEvent(UUID accountId, UUID sessionId) {
+}
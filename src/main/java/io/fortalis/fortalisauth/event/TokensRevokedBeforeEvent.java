@@ -0,0 +1,14 @@
+package io.fortalis.fortalisauth.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published when a token watermark moves: every token of the account (or of everyone,
+ * when accountId is null) issued before notBefore is now invalid.
+ */
+public record TokensRevokedBeforeEvent(UUID accountId, Instant notBefore) {
+    public boolean global() {
+        return accountId == null;
+    }
+}
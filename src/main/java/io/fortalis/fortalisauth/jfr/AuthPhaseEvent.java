@@ -0,0 +1,39 @@
+package io.fortalis.fortalisauth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base for the timed auth hot-path events. Duration is the event's own start/end;
+ * fields are only filled in when a recording actually wants the event.
+ */
+@Category({"Fortalis", "Auth"})
+@StackTrace(false)
+public abstract class AuthPhaseEvent extends Event {
+    @Label("Outcome")
+    String outcome;
+
+    /**
+     * Event for an {@code AuthMetrics} phase name, or null if that phase has none.
+     */
+    public static AuthPhaseEvent forPhase(String phase) {
+        return switch (phase) {
+            case "password_hash" -> new PasswordHashEvent();
+            case "password_verify" -> new PasswordVerifyEvent();
+            case "jwt_sign" -> new JwtSignEvent();
+            case "refresh_rotate" -> new RefreshRotationEvent();
+            case "mfa_verify" -> new TotpVerifyEvent();
+            default -> null;
+        };
+    }
+
+    public void finish(String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package io.fortalis.fortalisauth.jfr;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.OptionalParameter;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+/**
+ * POST /actuator/jfr {"seconds": 30}: records the JDK "profile" settings plus the
+ * io.fortalis.auth.* events for a bounded time and streams back the .jfr file.
+ * One recording at a time; the request blocks while it runs.
+ */
+@Slf4j
+@Component
+@WebEndpoint(id = "jfr")
+public class JfrRecordingEndpoint {
+    static final int DEFAULT_SECONDS = 30;
+    static final int MAX_SECONDS = 300;
+    static final List<Class<? extends Event>> AUTH_EVENTS = List.of(
+            PasswordHashEvent.class, PasswordVerifyEvent.class, JwtSignEvent.class,
+            RefreshRotationEvent.class, TotpVerifyEvent.class, RateLimitRejectedEvent.class);
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @WriteOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> record(@OptionalParameter Integer seconds) throws IOException {
+        int duration = Math.clamp(seconds == null ? DEFAULT_SECONDS : seconds, 1, MAX_SECONDS);
+        if (!running.compareAndSet(false, true)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        }
+        Path file = Files.createTempFile("fortalis-auth-", ".jfr");
+        try (Recording recording = new Recording(Configuration.getConfiguration("profile"))) {
+            recording.setName("fortalis-on-demand");
+            AUTH_EVENTS.forEach(recording::enable);
+            log.info("Starting {}s on-demand JFR recording", duration);
+            recording.start();
+            Thread.sleep(Duration.ofSeconds(duration));
+            recording.stop();
+            recording.dump(file);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Files.deleteIfExists(file);
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        } catch (ParseException e) {
+            Files.deleteIfExists(file);
+            throw new IllegalStateException("JFR profile settings unavailable", e);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        } finally {
+            running.set(false);
+        }
+        return new WebEndpointResponse<>(new DeleteOnCloseResource(file));
+    }
+
+    /**
+     * The temp file goes away once the response has been streamed.
+     */
+    private static final class DeleteOnCloseResource extends FileSystemResource {
+        DeleteOnCloseResource(Path path) {
+            super(path);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(getFile().toPath());
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package io.fortalis.fortalisauth.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.fortalis.auth.JwtSign")
+@Label("JWT Sign")
+@Description("RS256 signature of an access token")
+public class JwtSignEvent extends AuthPhaseEvent {
+}
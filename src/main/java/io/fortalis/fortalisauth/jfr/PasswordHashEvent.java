@@ -0,0 +1,11 @@
+package io.fortalis.fortalisauth.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.fortalis.auth.PasswordHash")
+@Label("Password Hash")
+@Description("Argon2id hash of a new password")
+public class PasswordHashEvent extends AuthPhaseEvent {
+}
@@ -0,0 +1,11 @@
+package io.fortalis.fortalisauth.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.fortalis.auth.PasswordVerify")
+@Label("Password Verify")
+@Description("Argon2id check of a login password")
+public class PasswordVerifyEvent extends AuthPhaseEvent {
+}
@@ -0,0 +1,30 @@
+package io.fortalis.fortalisauth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("io.fortalis.auth.RateLimitRejected")
+@Label("Rate Limit Rejected")
+@Description("A request refused by the in-memory rate limiter")
+@Category({"Fortalis", "Auth"})
+@StackTrace(false)
+public class RateLimitRejectedEvent extends Event {
+    /**
+     * Key prefix only ("ip", "login", "mfa"); the rest would be an address or email.
+     */
+    @Label("Scope")
+    public String scope;
+
+    @Label("Retry After")
+    @Timespan(Timespan.SECONDS)
+    public long retryAfter;
+
+    @Label("Bucket Lock Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    public long lockWait;
+}
@@ -0,0 +1,11 @@
+package io.fortalis.fortalisauth.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.fortalis.auth.RefreshRotation")
+@Label("Refresh Rotation")
+@Description("Refresh-token rotation, including the new session and access token")
+public class RefreshRotationEvent extends AuthPhaseEvent {
+}
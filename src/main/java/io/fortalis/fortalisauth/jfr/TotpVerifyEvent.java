@@ -0,0 +1,11 @@
+package io.fortalis.fortalisauth.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.fortalis.auth.TotpVerify")
+@Label("TOTP Verify")
+@Description("MFA code check (TOTP or backup code)")
+public class TotpVerifyEvent extends AuthPhaseEvent {
+}
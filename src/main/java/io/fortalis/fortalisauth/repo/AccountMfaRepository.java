@@ -6,7 +6,20 @@ import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface AccountMfaRepository extends JpaRepository<AccountMfa, UUID> {
     Optional<AccountMfa> findByAccountId(UUID accountId);
+
+    /**
+     * Marks one backup code used; returns 0 if it already was (or MFA is off), so a code
+     * can be spent once even by concurrent logins.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            UPDATE account_mfa SET backup_used_mask = backup_used_mask | :bit
+            WHERE account_id = :accountId AND enabled AND (backup_used_mask & :bit) = 0""")
+    int consumeBackupCode(@Param("accountId") UUID accountId, @Param("bit") int bit);
 }
@@ -6,7 +6,29 @@ import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface AccountRepository extends JpaRepository<Account, UUID> {
+    /**
+     * Emails are stored lower-case; pass a lower-cased value to hit the unique email index.
+     */
     Optional<Account> findByEmail(String email);
+
+    /**
+     * Case-insensitive; matches the unique index on lower(username).
+     */
+    @Query("select a from Account a where lower(a.username) = lower(:username)")
+    Optional<Account> findByUsername(@Param("username") String username);
+
+    /**
+     * Compare-and-set of the password hash; 0 if it changed since it was read.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Account a set a.passwordHash = :replacement where a.id = :id and a.passwordHash = :current")
+    int replacePasswordHash(@Param("id") UUID id, @Param("current") String current,
+                            @Param("replacement") String replacement);
 }
@@ -0,0 +1,9 @@
+package io.fortalis.fortalisauth.repo;
+
+import io.fortalis.fortalisauth.entity.RefreshToken;
+
+/**
+ * An active refresh token plus the account facts needed to rotate it.
+ */
+public record RefreshSession(RefreshToken token, String displayName, boolean mfaEnabled) {
+}
@@ -7,9 +7,32 @@ import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
     Optional<RefreshToken> findByTokenHashAndRevokedFalse(String tokenHash);
 
-    long deleteByExpiresTsBefore(Instant time);
+    boolean existsBySessionIdAndAccountId(UUID sessionId, UUID accountId);
+
+    /**
+     * Same lookup as {@link #findByTokenHashAndRevokedFalse}, joined with the account and its MFA row.
+     * A token issued before its account's or the global watermark ({@code global} = nil id) is not found:
+     * the committed watermark decides, not this instance's in-memory copy of it.
+     */
+    @Query("""
+            select new io.fortalis.fortalisauth.repo.RefreshSession(r, a.displayName,
+                   case when m.enabled = true and m.type = 'TOTP' then true else false end)
+            from RefreshToken r
+            join Account a on a.id = r.accountId
+            left join AccountMfa m on m.accountId = r.accountId
+            where r.tokenHash = :hash and r.revoked = false
+              and not exists (select 1 from TokenWatermark w
+                              where w.accountId in (r.accountId, :global) and w.notBefore > r.issuedTs)""")
+    Optional<RefreshSession> findActiveSession(@Param("hash") String tokenHash, @Param("global") UUID global);
+
+    @Modifying
+    @Query("delete from RefreshToken r where r.expiresTs < :time")
+    int deleteByExpiresTsBefore(@Param("time") Instant time);
 }
@@ -0,0 +1,20 @@
+package io.fortalis.fortalisauth.repo;
+
+import io.fortalis.fortalisauth.entity.RevocationLogEntry;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface RevocationLogRepository extends JpaRepository<RevocationLogEntry, Long> {
+
+    List<RevocationLogEntry> findByExpiresTsAfterOrderBySeq(Instant now);
+
+    @Modifying
+    @Query("delete from RevocationLogEntry e where e.expiresTs < :cutoff")
+    int deleteExpiredBefore(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,12 @@
+package io.fortalis.fortalisauth.repo;
+
+import io.fortalis.fortalisauth.entity.Server;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ServerRepository extends JpaRepository<Server, String> {
+    List<Server> findByUpdatedTsAfter(Instant since);
+}
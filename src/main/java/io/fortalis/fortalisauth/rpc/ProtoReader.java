@@ -0,0 +1,138 @@
+package io.fortalis.fortalisauth.rpc;
+
+import io.fortalis.fortalisauth.web.ApiException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Protocol Buffers wire-format decoder over one message. Fields are visited in wire order with
+ * {@link #nextField()}; unknown fields are skipped with {@link #skip()}, so newer clients can
+ * add fields. Malformed input is a 400 (rpc_malformed).
+ */
+public final class ProtoReader {
+    private static final int VARINT = 0;
+    private static final int FIXED64 = 1;
+    private static final int LENGTH_DELIMITED = 2;
+    private static final int FIXED32 = 5;
+
+    private final byte[] buf;
+    private int pos;
+    private int wireType;
+
+    public ProtoReader(byte[] buf) {
+        this.buf = buf;
+    }
+
+    /**
+     * Reads one length-prefixed message (protobuf's parseDelimitedFrom framing).
+     * Returns null when the stream ends cleanly before a prefix.
+     */
+    public static byte[] readDelimited(InputStream in, int maxBytes) throws IOException {
+        long size = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                if (shift == 0) return null;
+                throw malformed("stream ended inside a length prefix");
+            }
+            if (shift > 28) throw malformed("length prefix too long");
+            size |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) break;
+        }
+        if (size > maxBytes) throw malformed("message of " + size + " bytes exceeds " + maxBytes);
+        byte[] message = in.readNBytes((int) size);
+        if (message.length < size) throw malformed("stream ended inside a message");
+        return message;
+    }
+
+    /**
+     * The next field number, or 0 at the end of the message.
+     */
+    public int nextField() {
+        if (pos >= buf.length) return 0;
+        long tag = varint();
+        wireType = (int) (tag & 0x7);
+        int field = (int) (tag >>> 3);
+        if (field <= 0) throw malformed("invalid field number");
+        return field;
+    }
+
+    public long uint64() {
+        expect(VARINT);
+        return varint();
+    }
+
+    public boolean bool() {
+        return uint64() != 0;
+    }
+
+    public String string() {
+        return new String(bytes(), StandardCharsets.UTF_8);
+    }
+
+    public byte[] bytes() {
+        expect(LENGTH_DELIMITED);
+        int length = length();
+        byte[] value = Arrays.copyOfRange(buf, pos, pos + length);
+        pos += length;
+        return value;
+    }
+
+    public UUID uuid() {
+        expect(LENGTH_DELIMITED);
+        if (length() != 16) throw malformed("a UUID is 16 bytes");
+        return new UUID(getLong(), getLong());
+    }
+
+    public void skip() {
+        switch (wireType) {
+            case VARINT -> varint();
+            case FIXED64 -> advance(8);
+            case LENGTH_DELIMITED -> advance(length());
+            case FIXED32 -> advance(4);
+            default -> throw malformed("unsupported wire type " + wireType);
+        }
+    }
+
+    private int length() {
+        long length = varint();
+        if (length < 0 || length > buf.length - pos) throw malformed("length exceeds message");
+        return (int) length;
+    }
+
+    private long varint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (pos >= buf.length) throw malformed("truncated varint");
+            byte b = buf[pos++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw malformed("varint too long");
+    }
+
+    private long getLong() {
+        long v = 0;
+        for (int i = 0; i < 8; i++) {
+            v = (v << 8) | (buf[pos++] & 0xFF);
+        }
+        return v;
+    }
+
+    private void advance(int n) {
+        if (n > buf.length - pos) throw malformed("field exceeds message");
+        pos += n;
+    }
+
+    private void expect(int type) {
+        if (wireType != type) throw malformed("unexpected wire type " + wireType);
+    }
+
+    private static ApiException malformed(String detail) {
+        return ApiException.badRequest("rpc_malformed", "Malformed RPC message: " + detail);
+    }
+}
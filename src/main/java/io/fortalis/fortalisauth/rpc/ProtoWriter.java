@@ -0,0 +1,123 @@
+package io.fortalis.fortalisauth.rpc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Protocol Buffers wire-format encoder for the handful of field types the RPC messages use
+ * (varint, length-delimited). Proto3 rules: zero, false, null and empty values are not written.
+ * One writer is reused for every message of a stream; {@link #reset()} keeps the buffer.
+ */
+public final class ProtoWriter {
+    private static final int VARINT = 0;
+    private static final int LENGTH_DELIMITED = 2;
+
+    private byte[] buf = new byte[256];
+    private int len;
+
+    public ProtoWriter uint64(int field, long value) {
+        if (value == 0) return this;
+        tag(field, VARINT);
+        varint(value);
+        return this;
+    }
+
+    public ProtoWriter bool(int field, boolean value) {
+        return uint64(field, value ? 1 : 0);
+    }
+
+    public ProtoWriter string(int field, String value) {
+        if (value == null || value.isEmpty()) return this;
+        return bytes(field, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public ProtoWriter bytes(int field, byte[] value) {
+        if (value == null || value.length == 0) return this;
+        tag(field, LENGTH_DELIMITED);
+        varint(value.length);
+        ensure(value.length);
+        System.arraycopy(value, 0, buf, len, value.length);
+        len += value.length;
+        return this;
+    }
+
+    /**
+     * 16 bytes, most significant first.
+     */
+    public ProtoWriter uuid(int field, UUID value) {
+        if (value == null) return this;
+        tag(field, LENGTH_DELIMITED);
+        varint(16);
+        ensure(16);
+        putLong(value.getMostSignificantBits());
+        putLong(value.getLeastSignificantBits());
+        return this;
+    }
+
+    /**
+     * An embedded message; {@code nested} is written into a scratch writer and copied in.
+     */
+    public ProtoWriter message(int field, ProtoWriter nested) {
+        tag(field, LENGTH_DELIMITED);
+        varint(nested.len);
+        ensure(nested.len);
+        System.arraycopy(nested.buf, 0, buf, len, nested.len);
+        len += nested.len;
+        return this;
+    }
+
+    /**
+     * The message prefixed with its varint length, like protobuf's writeDelimitedTo.
+     */
+    public void writeDelimitedTo(OutputStream out) throws IOException {
+        byte[] prefix = new byte[10];
+        int n = 0;
+        long v = len;
+        while ((v & ~0x7FL) != 0) {
+            prefix[n++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        prefix[n++] = (byte) v;
+        out.write(prefix, 0, n);
+        out.write(buf, 0, len);
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buf, len);
+    }
+
+    public int size() {
+        return len;
+    }
+
+    public ProtoWriter reset() {
+        len = 0;
+        return this;
+    }
+
+    private void tag(int field, int wireType) {
+        varint(((long) field << 3) | wireType);
+    }
+
+    private void varint(long v) {
+        ensure(10);
+        while ((v & ~0x7FL) != 0) {
+            buf[len++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buf[len++] = (byte) v;
+    }
+
+    private void putLong(long v) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buf[len++] = (byte) (v >>> shift);
+        }
+    }
+
+    private void ensure(int extra) {
+        if (len + extra > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + extra));
+    }
+}
@@ -0,0 +1,156 @@
+package io.fortalis.fortalisauth.rpc;
+
+import io.fortalis.fortalisauth.dto.AccountProfile;
+import io.fortalis.fortalisauth.dto.IntrospectionResponse;
+import io.fortalis.fortalisauth.entity.PlayerServer;
+import io.fortalis.fortalisauth.service.ServerTokenService.ServerToken;
+import io.fortalis.fortalisauth.web.ApiException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Messages of the game-server RPC API. Field numbers are the contract in
+ * resources/rpc/fortalis_auth_rpc.proto; clients generate their stubs from that file.
+ */
+public final class RpcMessages {
+    public static final String CONTENT_TYPE = "application/vnd.fortalis.rpc+proto";
+
+    /**
+     * Tokens per IntrospectRequest and account ids per ProfileRequest, as for the JSON batch endpoint.
+     */
+    public static final int MAX_BATCH = 500;
+
+    private RpcMessages() {
+    }
+
+    public record IntrospectRequest(List<String> tokens, String audience) {
+        public static IntrospectRequest decode(ProtoReader in) {
+            var tokens = new ArrayList<String>();
+            String audience = null;
+            for (int field; (field = in.nextField()) != 0; ) {
+                switch (field) {
+                    case 1 -> tokens.add(in.string());
+                    case 2 -> audience = in.string();
+                    default -> in.skip();
+                }
+            }
+            checkBatch(tokens.size());
+            return new IntrospectRequest(tokens, audience);
+        }
+    }
+
+    public record TokenExchangeRequest(String subjectToken, String serverId) {
+        public static TokenExchangeRequest decode(ProtoReader in) {
+            String token = null;
+            String server = null;
+            for (int field; (field = in.nextField()) != 0; ) {
+                switch (field) {
+                    case 1 -> token = in.string();
+                    case 2 -> server = in.string();
+                    default -> in.skip();
+                }
+            }
+            return new TokenExchangeRequest(token, server);
+        }
+    }
+
+    public record ProfileRequest(List<UUID> accountIds) {
+        public static ProfileRequest decode(ProtoReader in) {
+            var ids = new ArrayList<UUID>();
+            for (int field; (field = in.nextField()) != 0; ) {
+                if (field == 1) ids.add(in.uuid());
+                else in.skip();
+            }
+            checkBatch(ids.size());
+            return new ProfileRequest(ids);
+        }
+    }
+
+    public record RegisterPlayerRequest(UUID accountId, String serverId) {
+        public static RegisterPlayerRequest decode(ProtoReader in) {
+            UUID account = null;
+            String server = null;
+            for (int field; (field = in.nextField()) != 0; ) {
+                switch (field) {
+                    case 1 -> account = in.uuid();
+                    case 2 -> server = in.string();
+                    default -> in.skip();
+                }
+            }
+            if (account == null || server == null) {
+                throw ApiException.badRequest("rpc_malformed", "account_id and server_id are required");
+            }
+            return new RegisterPlayerRequest(account, server);
+        }
+    }
+
+    /**
+     * IntrospectResponse: one TokenInfo per requested token, same order.
+     */
+    public static void introspectResponse(List<IntrospectionResponse> results, ProtoWriter out) {
+        var info = new ProtoWriter();
+        for (IntrospectionResponse r : results) {
+            info.reset()
+                    .bool(1, r.active())
+                    .uuid(2, uuidOrNull(r.sub()))
+                    .uuid(3, uuidOrNull(r.jti()))
+                    .uint64(4, r.iat() != null ? r.iat() : 0)
+                    .uint64(5, r.exp() != null ? r.exp() : 0)
+                    .bool(6, Boolean.TRUE.equals(r.mfa()));
+            if (r.aud() != null) r.aud().forEach(aud -> info.string(7, aud));
+            out.message(1, info);
+        }
+    }
+
+    public static void tokenExchangeResponse(ServerToken token, ProtoWriter out) {
+        out.string(2, token.accessToken())
+                .uint64(3, token.expiresAt().getEpochSecond());
+    }
+
+    /**
+     * ProfileResponse: unknown account ids are left out.
+     */
+    public static void profileResponse(List<AccountProfile> profiles, ProtoWriter out) {
+        var profile = new ProtoWriter();
+        for (AccountProfile p : profiles) {
+            profile.reset()
+                    .uuid(1, p.id())
+                    .string(2, p.displayName())
+                    .string(3, p.username())
+                    .uint64(4, p.createdTs().toEpochMilli())
+                    .bool(5, p.mfaEnabled())
+                    .string(6, p.lastServerId());
+            out.message(1, profile);
+        }
+    }
+
+    public static void registerPlayerResponse(PlayerServer player, boolean created, ProtoWriter out) {
+        out.uuid(2, player.getId())
+                .bool(3, created)
+                .uint64(4, player.getCreatedTs() != null ? player.getCreatedTs().toEpochMilli() : 0);
+    }
+
+    /**
+     * Field 1 of TokenExchangeResponse and RegisterPlayerResponse: the error type, empty on success.
+     */
+    public static void error(ApiException e, ProtoWriter out) {
+        out.reset().string(1, e.type);
+    }
+
+    private static void checkBatch(int size) {
+        if (size > MAX_BATCH) {
+            throw ApiException.badRequest("rpc_malformed", "At most " + MAX_BATCH + " entries per message");
+        }
+    }
+
+    private static UUID uuidOrNull(String value) {
+        if (value == null) return null;
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package io.fortalis.fortalisauth.rpc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * One RPC call: a request body of length-prefixed messages answered by one length-prefixed
+ * message each, in order, while the client is still sending. Responses are flushed whenever no
+ * further request is already buffered, so a lone request is answered at once and a pipelined
+ * burst shares writes (one HTTP/2 DATA frame instead of one per message).
+ */
+public final class RpcStream {
+    @FunctionalInterface
+    public interface Handler {
+        void handle(ProtoReader request, ProtoWriter response);
+    }
+
+    private RpcStream() {
+    }
+
+    /**
+     * Returns the number of messages answered.
+     */
+    public static int serve(InputStream in, OutputStream out, int maxMessageBytes, Handler handler) throws IOException {
+        var response = new ProtoWriter();
+        int count = 0;
+        byte[] message;
+        while ((message = ProtoReader.readDelimited(in, maxMessageBytes)) != null) {
+            handler.handle(new ProtoReader(message), response.reset());
+            response.writeDelimitedTo(out);
+            count++;
+            if (in.available() == 0) out.flush();
+        }
+        out.flush();
+        return count;
+    }
+}
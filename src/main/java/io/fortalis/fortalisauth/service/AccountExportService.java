@@ -0,0 +1,216 @@
+package io.fortalis.fortalisauth.service;
+
+import io.fortalis.fortalisauth.config.ExportProperties;
+import jakarta.annotation.PreDestroy;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+import javax.sql.DataSource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Analytics dumps of accounts (with MFA adoption), identities and active sessions as gzipped JSONL.
+ * A session counts as active by the same rules as the session listing: not revoked, not expired and
+ * not issued before its account's or the global token watermark.
+ * Tables are walked in primary-key order (UUIDv7, so roughly creation order) one keyset page at a
+ * time; each page is its own short read-only transaction, routed to the read replica when one is
+ * configured, and is streamed row by row from a server-side cursor straight into the gzip stream.
+ * Heap use is bounded by the fetch size, not by the table size. Files are written as *.part and
+ * renamed when complete. Scheduled runs execute on one low-priority thread, never on the shared
+ * scheduler, and are skipped while a previous run is still going.
+ */
+@Slf4j
+@Service
+public class AccountExportService {
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    public record ExportResult(Path directory, String stamp, long accounts, long identities, long sessions) {
+    }
+
+    public record AccountRow(UUID id, String email, String username, String displayName, boolean emailVerified,
+                             Instant createdTs, String mfaType, boolean mfaEnabled) {
+    }
+
+    public record IdentityRow(UUID id, UUID accountId, String provider, String subject) {
+    }
+
+    public record SessionRow(UUID id, UUID sessionId, UUID accountId, Instant issuedTs, Instant expiresTs, String userAgent,
+                             String deviceLabel) {
+    }
+
+    private static final class Page {
+        int rows;
+        UUID last;
+    }
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate readOnly;
+    private final ObjectMapper json;
+    private final ExportProperties props;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("account-export").daemon().priority(Thread.MIN_PRIORITY).factory());
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public AccountExportService(DataSource dataSource, PlatformTransactionManager txManager, ObjectMapper json,
+                                ExportProperties props) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.jdbc.setFetchSize(props.fetchSize());
+        this.readOnly = new TransactionTemplate(txManager);
+        this.readOnly.setReadOnly(true);
+        this.json = json;
+        this.props = props;
+    }
+
+    @Scheduled(cron = "${auth.export.cron:-}")
+    public void scheduledExport() {
+        if (!props.enabled()) return;
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Previous account export still running; skipping this run");
+            return;
+        }
+        worker.execute(() -> {
+            try {
+                exportTo(Path.of(props.directory()), props.pageSize());
+            } catch (IOException | RuntimeException ex) {
+                log.error("Account export failed", ex);
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    /**
+     * Writes accounts-, identities- and sessions-&lt;stamp&gt;.jsonl.gz into the directory.
+     */
+    public ExportResult exportTo(Path directory, int pageSize) throws IOException {
+        Files.createDirectories(directory);
+        String stamp = STAMP.format(Instant.now());
+        long started = System.nanoTime();
+
+        long accounts = dump(directory.resolve("accounts-" + stamp + ".jsonl.gz"), """
+                SELECT a.id, a.email, a.username, a.display_name, a.email_verified, a.created_ts,
+                       m.type AS mfa_type, COALESCE(m.enabled, FALSE) AS mfa_enabled
+                FROM account a LEFT JOIN account_mfa m ON m.account_id = a.id
+                WHERE a.id > ? ORDER BY a.id LIMIT ?""",
+                (rs, n) -> new AccountRow(uuid(rs, "id"), rs.getString("email"), rs.getString("username"),
+                        rs.getString("display_name"), rs.getBoolean("email_verified"), instant(rs, "created_ts"),
+                        rs.getString("mfa_type"), rs.getBoolean("mfa_enabled")),
+                AccountRow::id, pageSize);
+
+        long identities = dump(directory.resolve("identities-" + stamp + ".jsonl.gz"), """
+                SELECT id, account_id, provider, subject FROM account_identity
+                WHERE id > ? ORDER BY id LIMIT ?""",
+                (rs, n) -> new IdentityRow(uuid(rs, "id"), uuid(rs, "account_id"), rs.getString("provider"),
+                        rs.getString("subject")),
+                IdentityRow::id, pageSize);
+
+        long sessions = dump(directory.resolve("sessions-" + stamp + ".jsonl.gz"), """
+                SELECT r.id, r.session_id, r.account_id, r.issued_ts, r.expires_ts, r.user_agent, r.device_label
+                FROM refresh_token r
+                WHERE r.id > ? AND NOT r.revoked AND r.expires_ts > NOW()
+                  AND NOT EXISTS (SELECT 1 FROM token_watermark w
+                                  WHERE w.account_id IN (r.account_id, ?) AND w.not_before > r.issued_ts)
+                ORDER BY r.id LIMIT ?""",
+                (rs, n) -> new SessionRow(uuid(rs, "id"), uuid(rs, "session_id"), uuid(rs, "account_id"), instant(rs, "issued_ts"),
+                        instant(rs, "expires_ts"), rs.getString("user_agent"), rs.getString("device_label")),
+                SessionRow::id, pageSize, TokenWatermarkService.GLOBAL);
+
+        log.info("Account export {} written to {} in {} ms: {} accounts, {} identities, {} sessions", stamp, directory,
+                (System.nanoTime() - started) / 1_000_000, accounts, identities, sessions);
+        return new ExportResult(directory, stamp, accounts, identities, sessions);
+    }
+
+    /**
+     * Runs pageQuery once per page with (last key, extra args..., page size) until a short page.
+     */
+    private <T> long dump(Path target, String pageQuery, RowMapper<T> mapper, Function<T, UUID> key, int pageSize,
+                          Object... extraArgs) throws IOException {
+        Path part = target.resolveSibling(target.getFileName() + ".part");
+        long total = 0;
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(part), 1 << 16), StandardCharsets.UTF_8), 1 << 16)) {
+            UUID after = new UUID(0, 0);
+            while (true) {
+                var page = new Page();
+                var args = new Object[extraArgs.length + 2];
+                args[0] = after;
+                System.arraycopy(extraArgs, 0, args, 1, extraArgs.length);
+                args[args.length - 1] = pageSize;
+                readOnly.executeWithoutResult(status -> jdbc.query(pageQuery, rs -> {
+                    T row = mapper.mapRow(rs, page.rows);
+                    write(out, row);
+                    page.last = key.apply(row);
+                    page.rows++;
+                }, args));
+                total += page.rows;
+                if (page.rows < pageSize) break;
+                after = page.last;
+                pause();
+            }
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(part);
+            throw ex;
+        }
+        Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return total;
+    }
+
+    private void write(Writer out, Object row) {
+        try {
+            out.write(json.writeValueAsString(row));
+            out.write('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void pause() {
+        if (props.pagePause().isZero()) return;
+        try {
+            Thread.sleep(props.pagePause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Account export interrupted", ex);
+        }
+    }
+
+    private static UUID uuid(ResultSet rs, String column) throws SQLException {
+        return rs.getObject(column, UUID.class);
+    }
+
+    private static Instant instant(ResultSet rs, String column) throws SQLException {
+        var ts = rs.getTimestamp(column);
+        return ts == null ? null : ts.toInstant();
+    }
+}
@@ -0,0 +1,198 @@
+package io.fortalis.fortalisauth.service;
+
+import io.fortalis.fortalisauth.dto.AccountImportRecord;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Streams {@link AccountImportRecord}s out of a legacy dump, one line at a time, so memory stays
+ * constant however large the file is. Format follows the file name: *.jsonl (one JSON object per
+ * line) or *.csv (header row naming the columns), either optionally *.gz.
+ * CSV columns: email, username, display_name, password_hash, email_verified, created_ts and
+ * identities as "provider:subject" pairs separated by '|'. Fields may be quoted; no embedded newlines.
+ * Blank lines are ignored; a row that cannot be parsed comes back with a null record.
+ */
+final class AccountImportReader implements Closeable {
+
+    record Row(long number, AccountImportRecord record) {
+    }
+
+    private final BufferedReader in;
+    private final ObjectMapper json;
+    private final Map<String, Integer> csvColumns;
+    private long position;
+
+    private AccountImportReader(BufferedReader in, ObjectMapper json, Map<String, Integer> csvColumns) {
+        this.in = in;
+        this.json = json;
+        this.csvColumns = csvColumns;
+    }
+
+    static AccountImportReader open(Path file, ObjectMapper json) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        InputStream raw = Files.newInputStream(file);
+        if (name.endsWith(".gz")) {
+            raw = new GZIPInputStream(raw, 1 << 16);
+            name = name.substring(0, name.length() - 3);
+        }
+        var in = new BufferedReader(new InputStreamReader(raw, StandardCharsets.UTF_8), 1 << 16);
+        try {
+            if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+                return new AccountImportReader(in, json, null);
+            }
+            if (name.endsWith(".csv")) {
+                return new AccountImportReader(in, json, csvHeader(in.readLine()));
+            }
+            throw new IllegalArgumentException("Unsupported import file type: " + file.getFileName());
+        } catch (IOException | RuntimeException ex) {
+            in.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Records consumed so far, valid or not; this is what checkpoints count.
+     */
+    long position() {
+        return position;
+    }
+
+    /**
+     * Next record, or null at end of input.
+     */
+    Row next() throws IOException {
+        String line;
+        do {
+            line = in.readLine();
+            if (line == null) return null;
+        } while (line.isBlank());
+        position++;
+        try {
+            return new Row(position, csvColumns == null ? json.readValue(line, AccountImportRecord.class) : csvRecord(line));
+        } catch (JacksonException | IllegalArgumentException ex) {
+            return new Row(position, null);
+        }
+    }
+
+    /**
+     * Fast-forwards past records already imported by an earlier run.
+     */
+    void skip(long records) throws IOException {
+        while (position < records) {
+            String line = in.readLine();
+            if (line == null) return;
+            if (!line.isBlank()) position++;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private AccountImportRecord csvRecord(String line) {
+        List<String> f = csvFields(line);
+        return new AccountImportRecord(
+                column(f, "email"),
+                column(f, "username"),
+                column(f, "display_name"),
+                column(f, "password_hash"),
+                bool(column(f, "email_verified")),
+                instant(column(f, "created_ts")),
+                identities(column(f, "identities")));
+    }
+
+    private String column(List<String> fields, String name) {
+        Integer i = csvColumns.get(name);
+        if (i == null || i >= fields.size()) return null;
+        String v = fields.get(i);
+        return v.isEmpty() ? null : v;
+    }
+
+    private static Map<String, Integer> csvHeader(String header) {
+        if (header == null) return Map.of();
+        var columns = new HashMap<String, Integer>();
+        List<String> names = csvFields(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("email")) throw new IllegalArgumentException("CSV header has no email column");
+        return columns;
+    }
+
+    static List<String> csvFields(String line) {
+        var fields = new ArrayList<String>();
+        var cur = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    cur.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cur.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(cur.toString());
+                cur.setLength(0);
+            } else {
+                cur.append(c);
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("Unterminated quoted field");
+        fields.add(cur.toString());
+        return fields;
+    }
+
+    private static Boolean bool(String v) {
+        if (v == null) return null;
+        return switch (v.toLowerCase(Locale.ROOT)) {
+            case "true", "t", "1", "yes", "y" -> true;
+            case "false", "f", "0", "no", "n" -> false;
+            default -> throw new IllegalArgumentException("Not a boolean: " + v);
+        };
+    }
+
+    private static Instant instant(String v) {
+        if (v == null) return null;
+        try {
+            return Instant.parse(v);
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Not an ISO-8601 instant: " + v, ex);
+        }
+    }
+
+    private static List<AccountImportRecord.Identity> identities(String v) {
+        if (v == null) return List.of();
+        var out = new ArrayList<AccountImportRecord.Identity>();
+        for (String pair : v.split("\\|")) {
+            int sep = pair.indexOf(':');
+            if (sep <= 0 || sep == pair.length() - 1) throw new IllegalArgumentException("Bad identity: " + pair);
+            out.add(new AccountImportRecord.Identity(pair.substring(0, sep), pair.substring(sep + 1)));
+        }
+        return out;
+    }
+}
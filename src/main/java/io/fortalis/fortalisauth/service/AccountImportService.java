@@ -0,0 +1,276 @@
+package io.fortalis.fortalisauth.service;
+
+import io.fortalis.fortalisauth.config.ImportProperties;
+import io.fortalis.fortalisauth.dto.AccountImportRecord;
+import io.fortalis.fortalisauth.entity.UuidV7;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Bulk import of legacy accounts (see {@link AccountImportReader} for the file formats).
+ * Each file is a partition, read as a stream and written in batches: every batch is COPY'd
+ * into temporary staging tables and moved into account / account_identity with one
+ * INSERT ... SELECT ... ON CONFLICT DO NOTHING, in the same transaction that advances the
+ * partition's row in account_import_checkpoint. A rerun skips what was committed and carries on.
+ * Rows whose email or username already exists are skipped, never merged.
+ * Runs at startup when auth.import.files is set; meant for a one-off migration job.
+ */
+@Slf4j
+@Service
+public class AccountImportService implements ApplicationRunner {
+    private static final Pattern EMAIL = Pattern.compile("[^@\\s]+@[^@\\s]+");
+    private static final Pattern USERNAME = Pattern.compile("[A-Za-z0-9_.-]{3,32}");
+
+    public record PartitionResult(String source, long records, long imported, long skipped) {
+    }
+
+    private record Checkpoint(long records, long imported, long skipped, boolean completed) {
+    }
+
+    private record StagedAccount(UUID id, String email, String passwordHash, boolean emailVerified,
+                                 Instant createdTs, String displayName, String username) {
+    }
+
+    private record StagedIdentity(UUID accountId, String provider, String subject) {
+    }
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final ObjectMapper json;
+    private final ImportProperties props;
+
+    public AccountImportService(JdbcTemplate jdbc, PlatformTransactionManager txManager, ObjectMapper json,
+                                ImportProperties props) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(txManager);
+        this.json = json;
+        this.props = props;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (props.files().isEmpty()) return;
+        var results = importFiles(props.files().stream().map(Path::of).toList());
+        log.info("Account import finished: {} imported, {} skipped across {} partitions",
+                results.stream().mapToLong(PartitionResult::imported).sum(),
+                results.stream().mapToLong(PartitionResult::skipped).sum(), results.size());
+    }
+
+    /**
+     * Imports the files in parallel, up to auth.import.parallelism at a time.
+     * A failed partition does not stop the others; it is reported after they finish.
+     */
+    public List<PartitionResult> importFiles(List<Path> files) {
+        if (files.isEmpty()) return List.of();
+        var results = new ArrayList<PartitionResult>(files.size());
+        int failed = 0;
+        try (var pool = Executors.newFixedThreadPool(Math.min(props.parallelism(), files.size()))) {
+            var futures = new ArrayList<Future<PartitionResult>>(files.size());
+            for (Path file : files) futures.add(pool.submit(() -> importPartition(file)));
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException ex) {
+                    failed++;
+                    log.error("Import of {} failed; rerun to resume from its checkpoint", files.get(i), ex.getCause());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Account import interrupted", ex);
+                }
+            }
+        }
+        if (failed > 0) throw new IllegalStateException(failed + " of " + files.size() + " import partitions failed");
+        return results;
+    }
+
+    PartitionResult importPartition(Path file) throws IOException {
+        String source = file.getFileName().toString();
+        Checkpoint cp = checkpoint(source);
+        if (cp.completed()) {
+            log.info("Import {} already completed ({} imported); skipping", source, cp.imported());
+            return new PartitionResult(source, cp.records(), cp.imported(), cp.skipped());
+        }
+
+        long imported = cp.imported();
+        long skipped = cp.skipped();
+        try (var reader = AccountImportReader.open(file, json)) {
+            reader.skip(cp.records());
+            if (cp.records() > 0) log.info("Resuming import {} after record {}", source, cp.records());
+
+            var accounts = new ArrayList<StagedAccount>(props.batchSize());
+            var identities = new ArrayList<StagedIdentity>(props.batchSize());
+            long invalid = 0;
+            AccountImportReader.Row row;
+            do {
+                row = reader.next();
+                if (row != null && !stage(row, accounts, identities)) invalid++;
+                if (row == null || accounts.size() >= props.batchSize()) {
+                    int inserted = writeBatch(source, accounts, identities, reader.position(), invalid, row == null);
+                    imported += inserted;
+                    skipped += invalid + accounts.size() - inserted;
+                    log.debug("Import {}: {} records read, {} imported, {} skipped", source, reader.position(), imported, skipped);
+                    accounts.clear();
+                    identities.clear();
+                    invalid = 0;
+                }
+            } while (row != null);
+            log.info("Import {} completed: {} records, {} imported, {} skipped", source, reader.position(), imported, skipped);
+            return new PartitionResult(source, reader.position(), imported, skipped);
+        }
+    }
+
+    private Checkpoint checkpoint(String source) {
+        return jdbc.query("SELECT records, imported, skipped, completed FROM account_import_checkpoint WHERE source = ?",
+                        (rs, n) -> new Checkpoint(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getBoolean(4)), source)
+                .stream().findFirst().orElse(new Checkpoint(0, 0, 0, false));
+    }
+
+    /**
+     * Validates and normalises one record; false if it cannot be imported.
+     */
+    private boolean stage(AccountImportReader.Row row, List<StagedAccount> accounts, List<StagedIdentity> identities) {
+        AccountImportRecord r = row.record();
+        if (r == null || r.email() == null) return reject(row, "unparseable or no email");
+        String email = r.email().strip().toLowerCase(Locale.ROOT);
+        if (email.length() > 255 || !EMAIL.matcher(email).matches()) return reject(row, "invalid email");
+
+        String hash = AccountService.storedFormOfLegacyHash(r.passwordHash());
+        if (hash == null && r.passwordHash() != null && !r.passwordHash().isBlank()) {
+            return reject(row, "unsupported password hash format");
+        }
+
+        UUID id = UuidV7.next();
+        var linked = new ArrayList<StagedIdentity>(r.identities().size() + 1);
+        if (hash != null) linked.add(new StagedIdentity(id, "password", email));
+        for (var identity : r.identities()) {
+            if (identity == null || identity.provider() == null || identity.subject() == null) continue;
+            String provider = identity.provider().strip().toLowerCase(Locale.ROOT);
+            String subject = identity.subject().strip();
+            if (provider.isEmpty() || provider.length() > 16 || provider.equals("password")
+                    || subject.isEmpty() || subject.length() > 255) continue;
+            linked.add(new StagedIdentity(id, provider, subject));
+        }
+        if (linked.isEmpty()) return reject(row, "no password hash and no external identity");
+
+        String username = r.username() == null ? null : r.username().strip();
+        if (username != null && !USERNAME.matcher(username).matches()) username = null; // keep the account, drop the name
+        String displayName = r.displayName() == null ? null : r.displayName().strip();
+        if (displayName != null && displayName.length() > 32) displayName = displayName.substring(0, 32);
+
+        accounts.add(new StagedAccount(id, email, hash, Boolean.TRUE.equals(r.emailVerified()),
+                r.createdTs() == null ? Instant.now() : r.createdTs(), displayName, username));
+        identities.addAll(linked);
+        return true;
+    }
+
+    private static boolean reject(AccountImportReader.Row row, String reason) {
+        log.debug("Skipping import record {}: {}", row.number(), reason);
+        return false;
+    }
+
+    /**
+     * Stages and moves one batch, and advances the checkpoint, in a single transaction.
+     * Returns the number of accounts actually inserted.
+     */
+    private int writeBatch(String source, List<StagedAccount> accounts, List<StagedIdentity> identities,
+                           long position, long invalid, boolean last) {
+        Integer result = tx.execute(status -> {
+            int inserted = accounts.isEmpty() ? 0 : copyAndInsert(accounts, identities);
+            jdbc.update("""
+                    INSERT INTO account_import_checkpoint (source, records, imported, skipped, completed)
+                    VALUES (?, ?, ?, ?, ?)
+                    ON CONFLICT (source) DO UPDATE
+                    SET records    = EXCLUDED.records,
+                        imported   = account_import_checkpoint.imported + EXCLUDED.imported,
+                        skipped    = account_import_checkpoint.skipped + EXCLUDED.skipped,
+                        completed  = EXCLUDED.completed,
+                        updated_ts = NOW()""",
+                    source, position, inserted, invalid + accounts.size() - inserted, last);
+            return inserted;
+        });
+        return result == null ? 0 : result;
+    }
+
+    private int copyAndInsert(List<StagedAccount> accounts, List<StagedIdentity> identities) {
+        jdbc.execute("""
+                CREATE TEMP TABLE import_account_stage (id uuid, email text, password_hash text, email_verified boolean,
+                    created_ts timestamptz, display_name text, username text) ON COMMIT DROP;
+                CREATE TEMP TABLE import_identity_stage (account_id uuid, provider text, subject text) ON COMMIT DROP""");
+
+        var accountCsv = new StringBuilder(accounts.size() * 160);
+        for (var a : accounts) {
+            csvRow(accountCsv, a.id(), a.email(), a.passwordHash(), a.emailVerified(),
+                    OffsetDateTime.ofInstant(a.createdTs(), ZoneOffset.UTC), a.displayName(), a.username());
+        }
+        var identityCsv = new StringBuilder(identities.size() * 80);
+        for (var i : identities) csvRow(identityCsv, i.accountId(), i.provider(), i.subject());
+
+        jdbc.execute((ConnectionCallback<Void>) con -> {
+            var copy = con.unwrap(PGConnection.class).getCopyAPI();
+            try {
+                copy.copyIn("COPY import_account_stage (id, email, password_hash, email_verified, created_ts, display_name, username) FROM STDIN (FORMAT csv)",
+                        new StringReader(accountCsv.toString()));
+                copy.copyIn("COPY import_identity_stage (account_id, provider, subject) FROM STDIN (FORMAT csv)",
+                        new StringReader(identityCsv.toString()));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            return null;
+        });
+
+        Integer inserted = jdbc.queryForObject("""
+                WITH inserted AS (
+                    INSERT INTO account (id, email, password_hash, email_verified, created_ts, display_name, username)
+                    SELECT id, email, password_hash, email_verified, created_ts, display_name, username
+                    FROM import_account_stage
+                    ON CONFLICT DO NOTHING
+                    RETURNING id
+                ), linked AS (
+                    INSERT INTO account_identity (account_id, provider, subject)
+                    SELECT s.account_id, s.provider, s.subject
+                    FROM import_identity_stage s JOIN inserted i ON i.id = s.account_id
+                    ON CONFLICT (provider, subject) DO NOTHING
+                    RETURNING 1
+                )
+                SELECT count(*)::int FROM inserted""", Integer.class);
+        return inserted == null ? 0 : inserted;
+    }
+
+    /**
+     * Appends one COPY CSV row: null is an unquoted empty field (NULL), everything else is quoted.
+     */
+    static void csvRow(StringBuilder out, Object... values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) out.append(',');
+            Object v = values[i];
+            if (v == null) continue;
+            out.append('"').append(v.toString().replace("\"", "\"\"")).append('"');
+        }
+        out.append('\n');
+    }
+}
@@ -1,56 +1,199 @@
 package io.fortalis.fortalisauth.service;
 
+import io.fortalis.fortalisauth.config.AuthMetrics;
+import io.fortalis.fortalisauth.crypto.LegacyPbkdf2PasswordEncoder;
+import io.fortalis.fortalisauth.dto.AccountProfile;
 import io.fortalis.fortalisauth.entity.*;
 import io.fortalis.fortalisauth.repo.*;
 import io.fortalis.fortalisauth.web.ApiException;
 
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Account lifecycle: register, lookup, password hashing/verify.
+ * New hashes are Argon2 (stored without an id prefix). Hashes imported from legacy systems keep
+ * their original form behind a {@code {bcrypt}} / {@code {pbkdf2}} prefix and are verified through
+ * a delegating encoder, then replaced with Argon2 on the first successful login.
  */
 @Service
 @RequiredArgsConstructor
 public class AccountService {
+    public static final int MAX_PROFILES = 500;
+
     private final AccountRepository accounts;
-    private final AccountIdentityRepository identities;
+    private final JdbcTemplate jdbc;
+    private final AuthMetrics metrics;
 
     private final Argon2PasswordEncoder encoder =
             Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8();
+    private final PasswordEncoder verifier = delegatingVerifier(encoder);
 
-    @Transactional
     public Account register(String email, String rawPassword, String displayName) {
-        accounts.findByEmail(email).ifPresent(a -> {
-            throw ApiException.badRequest("email_taken", "Email already registered.");
-        });
+        return register(email, rawPassword, displayName, null);
+    }
+
+    /**
+     * Creates the account and its password identity in one statement (one round trip, atomic
+     * without an explicit transaction). Uniqueness is left to the email and lower(username)
+     * indexes: a conflicting insert returns no row. Only then does a second statement, with a
+     * fresh snapshot that includes a concurrent registration which just won, name what was taken.
+     */
+    public Account register(String email, String rawPassword, String displayName, String username) {
+        String normalizedEmail = email.toLowerCase(Locale.ROOT);
+        String passwordHash = metrics.phase("password_hash", () -> encoder.encode(rawPassword));
 
         Account a = new Account();
-        a.setEmail(email);
-        a.setPasswordHash(encoder.encode(rawPassword));
+        a.setId(UuidV7.next());
+        a.setEmail(normalizedEmail);
+        a.setPasswordHash(passwordHash);
         a.setDisplayName(displayName);
+        a.setUsername(username);
         a.setEmailVerified(false);
-        a = accounts.save(a);
+        a.setCreatedTs(Instant.now());
+
+        Boolean created = jdbc.queryForObject("""
+                WITH new_account AS (
+                    INSERT INTO account (id, email, password_hash, email_verified, created_ts, display_name, username)
+                    VALUES (?, ?, ?, FALSE, ?, ?, ?)
+                    ON CONFLICT DO NOTHING
+                    RETURNING id
+                ), new_identity AS (
+                    INSERT INTO account_identity (id, account_id, provider, subject)
+                    SELECT ?, id, 'password', ? FROM new_account
+                    RETURNING account_id
+                )
+                SELECT EXISTS (SELECT 1 FROM new_identity)""",
+                Boolean.class,
+                a.getId(), normalizedEmail, passwordHash,
+                OffsetDateTime.ofInstant(a.getCreatedTs(), ZoneOffset.UTC), displayName, username,
+                UuidV7.next(), normalizedEmail);
 
-        AccountIdentity id = new AccountIdentity();
-        id.setAccount(a);
-        id.setProvider("password");
-        id.setSubject(email.toLowerCase());
-        identities.save(id);
+        if (Boolean.TRUE.equals(created)) return a;
+        throw registrationConflict(normalizedEmail, username);
+    }
 
-        return a;
+    /**
+     * The error for a registration whose insert hit a unique index; the email is checked first.
+     */
+    private ApiException registrationConflict(String normalizedEmail, String username) {
+        String taken = jdbc.queryForObject("""
+                SELECT CASE
+                           WHEN EXISTS (SELECT 1 FROM account WHERE email = ?) THEN 'email'
+                           WHEN EXISTS (SELECT 1 FROM account WHERE lower(username) = lower(?)) THEN 'username'
+                       END""",
+                String.class, normalizedEmail, username);
+        if ("email".equals(taken)) return ApiException.badRequest("email_taken", "Email already registered.");
+        if ("username".equals(taken)) return ApiException.badRequest("username_taken", "Username already taken.");
+        // The conflicting account was deleted again in between.
+        return ApiException.conflict("registration_conflict", "Registration conflicted with a concurrent change; try again.");
     }
 
+    /**
+     * Read-only, so it is served by the read replica when one is configured.
+     */
+    @Transactional(readOnly = true)
     public Optional<Account> findByEmailOrUsername(String input) {
-        // For now treat it as email; you can add a username lookup later.
-        return accounts.findByEmail(input);
+        // Usernames cannot contain '@', so the input picks exactly one index.
+        String key = input.trim();
+        return key.indexOf('@') >= 0
+                ? accounts.findByEmail(key.toLowerCase(Locale.ROOT))
+                : accounts.findByUsername(key);
+    }
+
+    /**
+     * Profiles of up to {@link #MAX_PROFILES} accounts in one query; unknown ids are left out.
+     * Read-only, so it is served by the read replica when one is configured.
+     */
+    @Transactional(readOnly = true)
+    public List<AccountProfile> profiles(Collection<UUID> ids) {
+        if (ids.isEmpty()) return List.of();
+        if (ids.size() > MAX_PROFILES) {
+            throw ApiException.badRequest("too_many_ids", "At most " + MAX_PROFILES + " accounts per lookup");
+        }
+        return jdbc.query(con -> {
+            var ps = con.prepareStatement("""
+                    SELECT a.id, a.display_name, a.username, a.created_ts,
+                           COALESCE(m.enabled, FALSE) AS mfa_enabled, s.last_server_id
+                    FROM account a
+                    LEFT JOIN account_mfa m ON m.account_id = a.id
+                    LEFT JOIN account_settings s ON s.account_id = a.id
+                    WHERE a.id = ANY (?)""");
+            ps.setArray(1, con.createArrayOf("uuid", ids.toArray()));
+            return ps;
+        }, (rs, n) -> new AccountProfile(
+                rs.getObject("id", UUID.class),
+                rs.getString("display_name"),
+                rs.getString("username"),
+                rs.getTimestamp("created_ts").toInstant(),
+                rs.getBoolean("mfa_enabled"),
+                rs.getString("last_server_id")));
     }
 
     public boolean matches(String raw, String encoded) {
-        return encoder.matches(raw, encoded);
+        return metrics.phase("password_verify", () -> verifier.matches(raw, encoded), ok -> ok);
+    }
+
+    /**
+     * Checks the password and, when the stored hash is a legacy format or weaker Argon2 parameters,
+     * rehashes it with the current Argon2 settings. The swap is conditional on the old hash, so a
+     * concurrent password change is never overwritten.
+     */
+    public boolean verifyPassword(Account account, String raw) {
+        String stored = account.getPasswordHash();
+        if (stored == null || !matches(raw, stored)) return false;
+        if (needsUpgrade(stored)) {
+            String upgraded = metrics.phase("password_hash", () -> encoder.encode(raw));
+            if (accounts.replacePasswordHash(account.getId(), stored, upgraded) == 1) {
+                account.setPasswordHash(upgraded);
+            }
+        }
+        return true;
+    }
+
+    boolean needsUpgrade(String stored) {
+        return stored.startsWith("{") || encoder.upgradeEncoding(stored);
+    }
+
+    /**
+     * Maps a hash from a legacy dump to its stored form, or null if the format is not supported.
+     * bcrypt ($2a$/$2b$/$2y$) and PBKDF2 (pbkdf2_sha256$iterations$salt$hash) get an id prefix;
+     * Argon2 ($argon2id$...) is already in the native format.
+     */
+    public static String storedFormOfLegacyHash(String hash) {
+        if (hash == null || hash.isBlank()) return null;
+        String h = hash.strip();
+        if (h.startsWith("{bcrypt}") || h.startsWith("{pbkdf2}")) return h;
+        if (h.startsWith("{argon2}")) h = h.substring("{argon2}".length());
+        if (h.startsWith("$argon2")) return h;
+        if (h.startsWith("$2a$") || h.startsWith("$2b$") || h.startsWith("$2y$")) return "{bcrypt}" + h;
+        if (h.startsWith("pbkdf2_")) return "{pbkdf2}" + h;
+        return null;
+    }
+
+    private static PasswordEncoder delegatingVerifier(Argon2PasswordEncoder argon2) {
+        var delegating = new DelegatingPasswordEncoder("argon2", Map.of(
+                "argon2", argon2,
+                "bcrypt", new BCryptPasswordEncoder(),
+                "pbkdf2", new LegacyPbkdf2PasswordEncoder()));
+        // Native hashes carry no {id} prefix.
+        delegating.setDefaultPasswordEncoderForMatches(argon2);
+        return delegating;
     }
 }
@@ -0,0 +1,201 @@
+package io.fortalis.fortalisauth.service;
+
+import io.fortalis.fortalisauth.event.MfaStateChangedEvent;
+import io.fortalis.fortalisauth.event.SessionRevokedEvent;
+import io.fortalis.fortalisauth.event.TokensRevokedBeforeEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Durable audit trail of authentication events in the monthly-partitioned auth_event table.
+ * record() only enqueues into a lock-free ring buffer; a background flush writes the queue
+ * with multi-row INSERTs, so no request waits on an audit write.
+ * Once the buffer is three-quarters full, routine successes are sampled 1 in {@value #SAMPLE_EVERY}
+ * and stored with that weight; failures keep their place until the buffer is actually full,
+ * after which events are dropped and counted rather than blocking the caller.
+ */
+@Slf4j
+@Service
+public class AuditLog {
+    static final int CAPACITY = 65_536;
+    static final int SAMPLE_EVERY = 8;
+    static final int CHUNK_SIZE = 500;
+    static final int RETENTION_MONTHS = 12;
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    public enum Type {
+        ACCOUNT_REGISTERED("account.registered", true),
+        LOGIN_SUCCESS("login.success", true),
+        LOGIN_FAILURE("login.failure", false),
+        LOGIN_RATE_LIMITED("login.rate_limited", false),
+        MFA_CHALLENGE("mfa.challenge", true),
+        MFA_SUCCESS("mfa.success", true),
+        MFA_FAILURE("mfa.failure", false),
+        MFA_ENABLED("mfa.enabled", false),
+        MFA_DISABLED("mfa.disabled", false),
+        TOKEN_REFRESH("token.refresh", true),
+        TOKEN_REFRESH_FAILURE("token.refresh_failure", false),
+        SESSION_REVOKED("session.revoked", false),
+        SESSIONS_REVOKED_ALL("session.revoked_all", false),
+        TOKEN_EPOCH_MOVED("token.epoch_moved", false);
+
+        private final String code;
+        private final boolean sampleable;
+
+        Type(String code, boolean sampleable) {
+            this.code = code;
+            this.sampleable = sampleable;
+        }
+
+        public String code() {
+            return code;
+        }
+    }
+
+    private record Entry(Instant ts, Type type, UUID accountId, UUID sessionId, String principal, String ip,
+                         int weight) {
+    }
+
+    private final JdbcTemplate jdbc;
+    private final AuditRingBuffer<Entry> buffer = new AuditRingBuffer<>(CAPACITY);
+    private final int highWater = CAPACITY / 4 * 3;
+    private final Counter queued;
+    private final Counter sampledOut;
+    private final Counter dropped;
+    private final Counter writeFailed;
+
+    public AuditLog(JdbcTemplate jdbc, MeterRegistry registry) {
+        this.jdbc = jdbc;
+        this.queued = Counter.builder("auth.audit.events").tag("result", "queued").register(registry);
+        this.sampledOut = Counter.builder("auth.audit.events").tag("result", "sampled_out").register(registry);
+        this.dropped = Counter.builder("auth.audit.events").tag("result", "dropped").register(registry);
+        this.writeFailed = Counter.builder("auth.audit.events").tag("result", "write_failed").register(registry);
+        Gauge.builder("auth.audit.buffer.size", buffer, AuditRingBuffer::size).register(registry);
+    }
+
+    public void record(Type type, UUID accountId, UUID sessionId, String principal, String ip) {
+        int weight = 1;
+        if (type.sampleable && buffer.size() >= highWater) {
+            if (ThreadLocalRandom.current().nextInt(SAMPLE_EVERY) != 0) {
+                sampledOut.increment();
+                return;
+            }
+            weight = SAMPLE_EVERY;
+        }
+        var entry = new Entry(Instant.now(), type, accountId, sessionId, truncate(principal, 320), truncate(ip, 64), weight);
+        if (buffer.offer(entry)) queued.increment();
+        else dropped.increment();
+    }
+
+    public int pending() {
+        return buffer.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionRevoked(SessionRevokedEvent event) {
+        record(Type.SESSION_REVOKED, event.accountId(), event.sessionId(), null, null);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTokensRevokedBefore(TokensRevokedBeforeEvent event) {
+        record(event.global() ? Type.TOKEN_EPOCH_MOVED : Type.SESSIONS_REVOKED_ALL, event.accountId(), null, null, null);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMfaStateChanged(MfaStateChangedEvent event) {
+        record(event.enabled() ? Type.MFA_ENABLED : Type.MFA_DISABLED, event.accountId(), null, null, null);
+    }
+
+    @Scheduled(fixedDelayString = "PT1S", initialDelayString = "PT1S")
+    public synchronized void flush() {
+        var chunk = new ArrayList<Entry>(CHUNK_SIZE);
+        while (buffer.drain(chunk::add, CHUNK_SIZE) > 0) {
+            insert(chunk);
+            chunk.clear();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Keeps partitions for this month and the next, and drops those past retention.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "PT6H", initialDelayString = "PT6H")
+    public void maintainPartitions() {
+        YearMonth now = YearMonth.now(ZoneOffset.UTC);
+        createPartition(now);
+        createPartition(now.plusMonths(1));
+        String oldest = "auth_event_p" + now.minusMonths(RETENTION_MONTHS).format(PARTITION_SUFFIX);
+        List<String> expired = jdbc.queryForList("""
+                SELECT c.relname FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'auth_event'::regclass
+                  AND c.relname ~ '^auth_event_p[0-9]{6}$' AND c.relname::text < ?""", String.class, oldest);
+        for (String partition : expired) {
+            jdbc.execute("DROP TABLE IF EXISTS " + partition);
+            log.info("Dropped audit partition {}", partition);
+        }
+    }
+
+    private void createPartition(YearMonth month) {
+        String name = "auth_event_p" + month.format(PARTITION_SUFFIX);
+        try {
+            jdbc.execute("CREATE TABLE IF NOT EXISTS %s PARTITION OF auth_event FOR VALUES FROM ('%sT00:00:00Z') TO ('%sT00:00:00Z')"
+                    .formatted(name, month.atDay(1), month.plusMonths(1).atDay(1)));
+        } catch (RuntimeException ex) {
+            // Another instance won the race, or the default partition already holds rows for this month.
+            log.warn("Could not create audit partition {}: {}", name, ex.getMessage());
+        }
+    }
+
+    private void insert(List<Entry> chunk) {
+        var args = new ArrayList<Object>(chunk.size() * 7);
+        for (var e : chunk) {
+            args.add(OffsetDateTime.ofInstant(e.ts(), ZoneOffset.UTC));
+            args.add(e.type().code());
+            args.add(e.accountId());
+            args.add(e.sessionId());
+            args.add(e.principal());
+            args.add(e.ip());
+            args.add(e.weight());
+        }
+        try {
+            jdbc.update("INSERT INTO auth_event (ts, type, account_id, session_id, principal, ip, weight) VALUES "
+                    + String.join(", ", Collections.nCopies(chunk.size(),
+                    "(CAST(? AS timestamptz), ?, CAST(? AS uuid), CAST(? AS uuid), ?, ?, ?)")), args.toArray());
+        } catch (RuntimeException ex) {
+            // Not re-queued: a poisoned batch must not block the buffer.
+            writeFailed.increment(chunk.size());
+            log.warn("Writing {} audit events failed", chunk.size(), ex);
+        }
+    }
+
+    private static String truncate(String value, int max) {
+        return value == null || value.length() <= max ? value : value.substring(0, max);
+    }
+}
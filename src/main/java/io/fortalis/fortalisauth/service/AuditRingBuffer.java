@@ -0,0 +1,82 @@
+package io.fortalis.fortalisauth.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free multi-producer, single-consumer ring buffer.
+ * Each slot carries a sequence number: producers claim a position with one CAS and
+ * publish by advancing the slot's sequence; offer() never waits and fails when full.
+ * drain() must only be called from one thread at a time.
+ */
+final class AuditRingBuffer<T> {
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    AuditRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) sequences.set(i, i);
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Approximate number of queued items.
+     */
+    int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(capacity(), size));
+    }
+
+    boolean offer(T item) {
+        long pos = tail.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots.set(index, item);
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false; // the consumer has not freed this slot yet: full
+            } else {
+                pos = tail.get(); // another producer took it
+            }
+        }
+    }
+
+    /**
+     * Hands up to max published items to the sink in FIFO order; returns how many.
+     */
+    int drain(Consumer<? super T> sink, int max) {
+        long pos = head;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (pos & mask);
+            if (sequences.get(index) != pos + 1) break; // empty, or claimed but not yet written
+            T item = slots.get(index);
+            slots.set(index, null);
+            sequences.set(index, pos + capacity());
+            pos++;
+            drained++;
+            sink.accept(item);
+        }
+        head = pos;
+        return drained;
+    }
+}
@@ -0,0 +1,73 @@
+package io.fortalis.fortalisauth.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over strings (JWT IDs). Lock-free reads and writes;
+ * no removal, so callers rebuild it when the underlying set shrinks.
+ */
+final class BloomFilter {
+    private final AtomicLongArray bits;
+    private final int numBits;
+    private final int numHashes;
+    private final int capacity;
+
+    BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        int n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.numBits = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, m));
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+        this.bits = new AtomicLongArray((numBits + 63) >>> 6);
+        this.capacity = n;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    void put(String value) {
+        long h1 = fnv1a64(value);
+        long h2 = mix64(h1);
+        for (int i = 0; i < numHashes; i++) {
+            int bit = index(h1 + i * h2);
+            int word = bit >>> 6;
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) break;
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    boolean mightContain(String value) {
+        long h1 = fnv1a64(value);
+        long h2 = mix64(h1);
+        for (int i = 0; i < numHashes; i++) {
+            int bit = index(h1 + i * h2);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    private int index(long combined) {
+        return (int) ((combined & Long.MAX_VALUE) % numBits);
+    }
+
+    private static long fnv1a64(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+            h ^= (b & 0xff);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    // splitmix64 finalizer; gives an independent second hash for double hashing.
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,35 @@
+package io.fortalis.fortalisauth.service;
+
+import java.util.List;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * One page of a feed read in commit order: rows ordered by the id of the transaction that wrote
+ * them (txid), limited to transactions older than the oldest one still running, so no row can
+ * commit behind the cursor later. The cursor is a txid and never splits a transaction.
+ */
+record CommitOrderPage<T>(long cursor, boolean hasMore, List<T> rows) {
+
+    /**
+     * Oldest transaction still running; every txid below it has committed or rolled back.
+     */
+    static final String XMIN = "CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint)";
+
+    /**
+     * Builds the page from up to pageSize rows read with {@code txid > since AND txid < XMIN
+     * ORDER BY txid}. A full page is cut back to whole transactions; a page that is one
+     * transaction only is completed with {@code allOf(txid)}.
+     */
+    static <T> CommitOrderPage<T> of(long since, int pageSize, List<T> rows, ToLongFunction<T> txid,
+                                     LongFunction<List<T>> allOf) {
+        if (rows.isEmpty()) return new CommitOrderPage<>(since, false, rows);
+        long last = txid.applyAsLong(rows.getLast());
+        if (rows.size() < pageSize) return new CommitOrderPage<>(last, false, rows);
+        if (txid.applyAsLong(rows.getFirst()) == last) return new CommitOrderPage<>(last, true, allOf.apply(last));
+        int end = rows.size();
+        while (txid.applyAsLong(rows.get(end - 1)) == last) end--;
+        var whole = rows.subList(0, end);
+        return new CommitOrderPage<>(txid.applyAsLong(whole.getLast()), true, whole);
+    }
+}
@@ -0,0 +1,231 @@
+package io.fortalis.fortalisauth.service;
+
+import io.fortalis.fortalisauth.event.MfaStateChangedEvent;
+import io.fortalis.fortalisauth.event.SessionRevokedEvent;
+import io.fortalis.fortalisauth.event.TokensRevokedBeforeEvent;
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-sent event push channel for region backends: session revocations, token watermark
+ * moves and MFA state changes.
+ * Connections are async, so no thread is held per idle subscriber; each subscriber gets a bounded
+ * queue drained on a virtual thread of its own, so a client that stops reading only ever blocks
+ * its own writes. A subscriber that falls a full queue behind, or whose write is stuck for
+ * longer than SEND_TIMEOUT, is disconnected and resumes via Last-Event-ID from the replay buffer.
+ * Event ids are "{node epoch}-{seq}"; an id from another node or a restart, or one older than
+ * the buffer, is answered with a "reset" event and the client resyncs from the revocation snapshot.
+ */
+@Slf4j
+@Service
+public class EventStreamService {
+    public static final String EVENT_SESSION_REVOKED = "session.revoked";
+    public static final String EVENT_TOKENS_REVOKED_BEFORE = "tokens.revoked_before";
+    public static final String EVENT_MFA_CHANGED = "mfa.changed";
+    public static final String EVENT_RESET = "reset";
+
+    static final int REPLAY_BUFFER = 1024;
+    static final int SUBSCRIBER_QUEUE = REPLAY_BUFFER + 1; // a full replay plus the reset marker always fits
+    private static final Duration STREAM_TIMEOUT = Duration.ofMinutes(30);
+    static final Duration SEND_TIMEOUT = Duration.ofSeconds(15);
+
+    public record SessionRevoked(String sub, String jti) {
+    }
+
+    /**
+     * sub is null for the global epoch; notBefore in epoch milliseconds.
+     */
+    public record TokensRevokedBefore(String sub, long notBefore) {
+    }
+
+    public record MfaChanged(String sub, boolean enabled) {
+    }
+
+    private record StreamEvent(long seq, String id, String type, Object data) {
+    }
+
+    private static final StreamEvent HEARTBEAT = new StreamEvent(-1, null, null, null);
+
+    private static final class Subscriber {
+        final SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT.toMillis());
+        final BlockingQueue<StreamEvent> queue = new ArrayBlockingQueue<>(SUBSCRIBER_QUEUE);
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        volatile boolean overflowed;
+        volatile long sendStartedNanos; // 0 while no write is in progress
+    }
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Deque<StreamEvent> replay = new ArrayDeque<>(); // guarded by this
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("sse-sender-", 0).factory());
+    private long seq; // guarded by this
+
+    /**
+     * Opens a stream. With a lastEventId the events after it are replayed first.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        var sub = new Subscriber();
+        sub.emitter.onCompletion(() -> subscribers.remove(sub));
+        sub.emitter.onError(e -> subscribers.remove(sub));
+        synchronized (this) {
+            if (lastEventId != null && !lastEventId.isBlank()) replayTo(sub, lastEventId);
+            subscribers.add(sub);
+        }
+        schedule(sub);
+        return sub.emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionRevoked(SessionRevokedEvent event) {
+        publish(EVENT_SESSION_REVOKED, new SessionRevoked(event.accountId().toString(), event.sessionId().toString()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTokensRevokedBefore(TokensRevokedBeforeEvent event) {
+        publish(EVENT_TOKENS_REVOKED_BEFORE, new TokensRevokedBefore(
+                event.global() ? null : event.accountId().toString(), event.notBefore().toEpochMilli()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMfaStateChanged(MfaStateChangedEvent event) {
+        publish(EVENT_MFA_CHANGED, new MfaChanged(event.accountId().toString(), event.enabled()));
+    }
+
+    /**
+     * Keeps idle connections from being closed by proxies, and drops subscribers whose write
+     * has been stuck for longer than SEND_TIMEOUT. A dropped subscriber's emitter is completed
+     * with an error so the request ends and the backend reconnects and replays. That happens on
+     * a sender thread, because completing may wait for the stuck write and must not hold up this
+     * shared scheduler thread.
+     */
+    @Scheduled(fixedDelayString = "PT15S", initialDelayString = "PT15S")
+    public void heartbeat() {
+        long now = System.nanoTime();
+        for (Subscriber sub : subscribers) {
+            long started = sub.sendStartedNanos;
+            if (started != 0 && now - started > SEND_TIMEOUT.toNanos()) {
+                log.debug("Dropping event-stream subscriber stuck in a write");
+                subscribers.remove(sub);
+                sub.queue.clear();
+                try {
+                    senders.execute(() -> sub.emitter.completeWithError(
+                            new IOException("Event-stream write stuck for longer than " + SEND_TIMEOUT)));
+                } catch (RejectedExecutionException e) {
+                    // Shutting down; shutdown() completes the rest.
+                }
+            } else if (sub.queue.offer(HEARTBEAT)) {
+                schedule(sub);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        subscribers.forEach(sub -> sub.emitter.complete());
+        subscribers.clear();
+    }
+
+    void publish(String type, Object data) {
+        synchronized (this) {
+            seq++;
+            var event = new StreamEvent(seq, epoch + "-" + seq, type, data);
+            replay.addLast(event);
+            if (replay.size() > REPLAY_BUFFER) replay.removeFirst();
+            for (Subscriber sub : subscribers) {
+                if (!sub.queue.offer(event)) sub.overflowed = true;
+            }
+        }
+        subscribers.forEach(this::schedule);
+    }
+
+    // Caller holds the lock, so no event can slip in between the replay and the live feed.
+    private void replayTo(Subscriber sub, String lastEventId) {
+        long after = parseSeq(lastEventId);
+        StreamEvent oldest = replay.peekFirst();
+        boolean covered = after >= 0 && after <= seq
+                && (oldest == null ? after == seq : oldest.seq() <= after + 1);
+        if (!covered) {
+            sub.queue.offer(new StreamEvent(seq, epoch + "-" + seq, EVENT_RESET, Map.of("reason", "unknown_cursor")));
+            return;
+        }
+        for (StreamEvent e : replay) {
+            if (e.seq() > after) sub.queue.offer(e);
+        }
+    }
+
+    private long parseSeq(String eventId) {
+        int dash = eventId.lastIndexOf('-');
+        if (dash <= 0 || !epoch.equals(eventId.substring(0, dash))) return -1;
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void schedule(Subscriber sub) {
+        if (sub.scheduled.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(sub));
+            } catch (RejectedExecutionException e) {
+                sub.scheduled.set(false); // shutting down
+            }
+        }
+    }
+
+    private void drain(Subscriber sub) {
+        try {
+            if (sub.overflowed) {
+                log.debug("Disconnecting slow event-stream subscriber");
+                subscribers.remove(sub);
+                sub.queue.clear();
+                sub.emitter.complete();
+                return;
+            }
+            StreamEvent e;
+            while ((e = sub.queue.poll()) != null) {
+                sub.sendStartedNanos = System.nanoTime();
+                if (e == HEARTBEAT) {
+                    sub.emitter.send(SseEmitter.event().comment("keepalive"));
+                } else {
+                    sub.emitter.send(SseEmitter.event().id(e.id()).name(e.type()).data(e.data(), MediaType.APPLICATION_JSON));
+                }
+                sub.sendStartedNanos = 0;
+            }
+        } catch (IOException | IllegalStateException ex) {
+            log.debug("Event-stream subscriber gone: {}", ex.getMessage());
+            subscribers.remove(sub);
+            sub.queue.clear();
+        } finally {
+            sub.sendStartedNanos = 0;
+            sub.scheduled.set(false);
+            if (!sub.queue.isEmpty() && subscribers.contains(sub)) schedule(sub);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package io.fortalis.fortalisauth.service;
+
+import io.fortalis.fortalisauth.dto.IntrospectionResponse;
+
+import java.time.Instant;
+import java.util.List;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.stereotype.Service;
+
+/**
+ * RFC 7662 token introspection answered purely in memory:
+ * signature/claims via the (caching) JwtDecoder, revocation via {@link RevocationRegistry}
+ * and {@link TokenWatermarkService}. The decoder accepts every audience this service issues, so a
+ * caller that only honours its own tokens passes its audience (a game server: "fortalis-server:{id}").
+ */
+@Service
+@RequiredArgsConstructor
+public class IntrospectionService {
+    private final JwtDecoder jwtDecoder;
+    private final RevocationRegistry revocations;
+    private final TokenWatermarkService watermarks;
+
+    public IntrospectionResponse introspect(String token) {
+        return introspect(token, null);
+    }
+
+    /**
+     * As {@link #introspect(String)}; with a non-blank audience, a token not issued for it is inactive.
+     */
+    public IntrospectionResponse introspect(String token, String audience) {
+        Jwt jwt;
+        try {
+            jwt = jwtDecoder.decode(token);
+        } catch (JwtException e) {
+            return IntrospectionResponse.inactive();
+        }
+        if (revocations.isRevoked(jwt.getId()) || watermarks.isRevoked(jwt)) return IntrospectionResponse.inactive();
+        if (audience != null && !audience.isBlank()
+                && (jwt.getAudience() == null || !jwt.getAudience().contains(audience))) {
+            return IntrospectionResponse.inactive();
+        }
+
+        return new IntrospectionResponse(
+                true,
+                jwt.getSubject(),
+                jwt.getId(),
+                jwt.getClaimAsString("iss"),
+                jwt.getAudience(),
+                epochSeconds(jwt.getIssuedAt()),
+                epochSeconds(jwt.getExpiresAt()),
+                jwt.getClaimAsBoolean("mfa"),
+                "Bearer"
+        );
+    }
+
+    public List<IntrospectionResponse> introspectAll(List<String> tokens, String audience) {
+        return tokens.stream().map(t -> introspect(t, audience)).toList();
+    }
+
+    private static Long epochSeconds(Instant instant) {
+        return instant != null ? instant.getEpochSecond() : null;
+    }
+}
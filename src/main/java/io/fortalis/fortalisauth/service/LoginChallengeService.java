@@ -1,5 +1,6 @@
 package io.fortalis.fortalisauth.service;
 
+import io.fortalis.fortalisauth.config.AuthMetrics;
 import io.fortalis.fortalisauth.entity.Account;
 import java.time.Instant;
 import java.util.List;
@@ -7,6 +8,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 /**
@@ -14,14 +16,20 @@ import org.springframework.stereotype.Service;
  * Stores the authenticated Account until MFA completion.
  */
 @Service
+@RequiredArgsConstructor
 public class LoginChallengeService {
 
     public record Challenge(Account account, Instant expiresAt, List<String> allowedFactors) {}
 
     private static final long TTL_SECONDS = 300; // 5 minutes
     private final Map<String, Challenge> store = new ConcurrentHashMap<>();
+    private final AuthMetrics metrics;
 
     public String create(Account account, List<String> allowedFactors) {
+        return metrics.phase("challenge_create", () -> newChallenge(account, allowedFactors));
+    }
+
+    private String newChallenge(Account account, List<String> allowedFactors) {
         var ticket = UUID.randomUUID().toString();
         var challenge = new Challenge(account, Instant.now().plusSeconds(TTL_SECONDS), List.copyOf(allowedFactors));
         store.put(ticket, challenge);
@@ -39,9 +47,11 @@ public class LoginChallengeService {
     }
 
     public Optional<Challenge> consume(String ticket) {
-        var opt = peek(ticket);
-        opt.ifPresent(c -> store.remove(ticket));
-        return opt;
+        return metrics.phase("challenge_consume", () -> {
+            var opt = peek(ticket);
+            opt.ifPresent(c -> store.remove(ticket));
+            return opt;
+        }, Optional::isPresent);
     }
 
     public void clearExpired() {
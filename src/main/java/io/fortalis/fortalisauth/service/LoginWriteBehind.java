@@ -0,0 +1,167 @@
+package io.fortalis.fortalisauth.service;
+
+import jakarta.annotation.PreDestroy;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Write-behind buffer for loss-tolerant "last seen" columns:
+ * player_server.last_login_ts and account_settings.last_server_id.
+ * Logins are coalesced in memory per (account, server) and per account, then flushed
+ * as one set-based statement per chunk. A crash loses at most one flush interval; a row the
+ * database rejects is dropped without holding back the rest of its chunk.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LoginWriteBehind {
+    static final int CHUNK_SIZE = 500;
+
+    private record PlayerKey(UUID accountId, String serverId) {
+    }
+
+    private record ServerVisit(String serverId, Instant at) {
+    }
+
+    private final JdbcTemplate jdbc;
+    private final Map<PlayerKey, Instant> lastLogins = new ConcurrentHashMap<>();
+    private final Map<UUID, ServerVisit> lastServers = new ConcurrentHashMap<>();
+
+    public void recordLogin(UUID accountId, String serverId, Instant at) {
+        lastLogins.merge(new PlayerKey(accountId, serverId), at, LoginWriteBehind::later);
+        lastServers.merge(accountId, new ServerVisit(serverId, at), (a, b) -> a.at().isAfter(b.at()) ? a : b);
+    }
+
+    public int pending() {
+        return lastLogins.size() + lastServers.size();
+    }
+
+    @Scheduled(fixedDelayString = "PT5S", initialDelayString = "PT5S")
+    public synchronized void flush() {
+        flushLastLogins();
+        flushLastServers();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        if (pending() > 0) log.warn("Shutting down with {} unflushed login updates", pending());
+    }
+
+    private void flushLastLogins() {
+        for (var chunk : chunks(drain(lastLogins))) {
+            flushChunk(chunk, this::updateLastLogins, lastLogins, LoginWriteBehind::later, "last-login");
+        }
+    }
+
+    private void flushLastServers() {
+        for (var chunk : chunks(drain(lastServers))) {
+            flushChunk(chunk, this::upsertLastServers, lastServers,
+                    (a, b) -> a.at().isAfter(b.at()) ? a : b, "last-server");
+        }
+    }
+
+    private void updateLastLogins(List<Map.Entry<PlayerKey, Instant>> chunk) {
+        var args = new ArrayList<Object>(chunk.size() * 3);
+        for (var e : chunk) {
+            args.add(e.getKey().accountId());
+            args.add(e.getKey().serverId());
+            args.add(OffsetDateTime.ofInstant(e.getValue(), ZoneOffset.UTC));
+        }
+        jdbc.update("""
+                UPDATE player_server p
+                SET last_login_ts = GREATEST(p.last_login_ts, v.ts)
+                FROM (VALUES %s) AS v(account_id, server_id, ts)
+                WHERE p.account_id = v.account_id AND p.server_id = v.server_id"""
+                .formatted(placeholders(chunk.size(), "(CAST(? AS uuid), ?, CAST(? AS timestamptz))")), args.toArray());
+    }
+
+    // account_settings rows are optional, so this is an upsert over the same VALUES list.
+    private void upsertLastServers(List<Map.Entry<UUID, ServerVisit>> chunk) {
+        var args = new ArrayList<Object>(chunk.size() * 2);
+        for (var e : chunk) {
+            args.add(e.getKey());
+            args.add(e.getValue().serverId());
+        }
+        jdbc.update("""
+                INSERT INTO account_settings (account_id, last_server_id)
+                SELECT v.account_id, v.server_id
+                FROM (VALUES %s) AS v(account_id, server_id)
+                JOIN account a ON a.id = v.account_id
+                ON CONFLICT (account_id) DO UPDATE SET last_server_id = EXCLUDED.last_server_id"""
+                .formatted(placeholders(chunk.size(), "(CAST(? AS uuid), ?)")), args.toArray());
+    }
+
+    /**
+     * Writes one chunk. If the database is unreachable the whole chunk goes back for the next
+     * cycle; any other failure is a bad row, so the chunk is bisected until the offending rows
+     * are isolated and dropped, and the rest is written.
+     */
+    private <K, V> void flushChunk(List<Map.Entry<K, V>> chunk, Consumer<List<Map.Entry<K, V>>> writer,
+                                   Map<K, V> requeue, BinaryOperator<V> newer, String what) {
+        try {
+            writer.accept(chunk);
+        } catch (TransientDataAccessException | DataAccessResourceFailureException ex) {
+            log.warn("Flushing {} {} updates failed; retrying next cycle", chunk.size(), what, ex);
+            chunk.forEach(e -> requeue.merge(e.getKey(), e.getValue(), newer));
+        } catch (RuntimeException ex) {
+            if (chunk.size() == 1) {
+                var e = chunk.getFirst();
+                log.error("Dropping {} update {} -> {}", what, e.getKey(), e.getValue(), ex);
+                return;
+            }
+            int half = chunk.size() / 2;
+            flushChunk(chunk.subList(0, half), writer, requeue, newer, what);
+            flushChunk(chunk.subList(half, chunk.size()), writer, requeue, newer, what);
+        }
+    }
+
+    private static Instant later(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    /**
+     * Removes the current entries; a value replaced concurrently stays for the next flush.
+     */
+    private static <K, V> List<Map.Entry<K, V>> drain(Map<K, V> map) {
+        if (map.isEmpty()) return List.of();
+        var out = new ArrayList<Map.Entry<K, V>>(map.size());
+        for (var e : map.entrySet()) {
+            K key = e.getKey();
+            V value = e.getValue();
+            if (map.remove(key, value)) out.add(Map.entry(key, value));
+        }
+        return out;
+    }
+
+    private static <T> List<List<T>> chunks(List<T> all) {
+        if (all.isEmpty()) return Collections.emptyList();
+        var out = new ArrayList<List<T>>();
+        for (int i = 0; i < all.size(); i += CHUNK_SIZE) {
+            out.add(all.subList(i, Math.min(all.size(), i + CHUNK_SIZE)));
+        }
+        return out;
+    }
+
+    private static String placeholders(int rows, String row) {
+        return String.join(", ", Collections.nCopies(rows, row));
+    }
+}
@@ -1,11 +1,11 @@
 package io.fortalis.fortalisauth.service;
 
+import io.fortalis.fortalisauth.config.AuthMetrics;
 import io.fortalis.fortalisauth.crypto.MfaCryptoService;
 import io.fortalis.fortalisauth.crypto.TotpService;
 import io.fortalis.fortalisauth.entity.AccountMfa;
-import io.fortalis.fortalisauth.entity.MfaBackupCode;
+import io.fortalis.fortalisauth.event.MfaStateChangedEvent;
 import io.fortalis.fortalisauth.repo.AccountMfaRepository;
-import io.fortalis.fortalisauth.repo.MfaBackupCodeRepository;
 import io.fortalis.fortalisauth.web.ApiException;
 
 import java.security.SecureRandom;
@@ -13,6 +13,7 @@ import java.util.*;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,10 +24,14 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 @Slf4j
 public class MfaService {
+    public static final int BACKUP_CODES = 10;
+    public static final int BACKUP_HASH_BYTES = 32;
+
     private final AccountMfaRepository repo;
-    private final MfaBackupCodeRepository backupRepo;
     private final TotpService totp;
     private final MfaCryptoService crypto;
+    private final ApplicationEventPublisher events;
+    private final AuthMetrics metrics;
 
     public record SetupResult(String secretPlain, List<String> backupCodes, AccountMfa mfaRow) {
     }
@@ -50,17 +55,17 @@ public class MfaService {
         mfa.setSecret(crypto.encrypt(secretPlain));
         mfa.setType("TOTP");
         mfa.setEnabled(false);
-        mfa = repo.save(mfa);
 
-        backupRepo.deleteByAccountId(accountId);
-        List<String> codes = generateBackupCodes(10);
-        for (String code : codes) {
-            MfaBackupCode row = new MfaBackupCode();
-            row.setAccountId(accountId);
-            row.setCodeHash(sha256Base64(code));
-            row.setUsed(false);
-            backupRepo.save(row);
+        // Regenerating replaces all codes in the same row write.
+        List<String> codes = generateBackupCodes(BACKUP_CODES);
+        byte[] hashes = new byte[codes.size() * BACKUP_HASH_BYTES];
+        for (int i = 0; i < codes.size(); i++) {
+            System.arraycopy(sha256(codes.get(i)), 0, hashes, i * BACKUP_HASH_BYTES, BACKUP_HASH_BYTES);
         }
+        mfa.setBackupHashes(hashes);
+        mfa.setBackupUsedMask(0);
+        mfa = repo.save(mfa);
+
         return new SetupResult(secretPlain, codes, mfa);
     }
 
@@ -73,6 +78,7 @@ public class MfaService {
         if (!totp.verify(secret, code)) throw ApiException.badRequest("totp_invalid", "Invalid code");
         mfa.setEnabled(true);
         repo.save(mfa);
+        events.publishEvent(new MfaStateChangedEvent(accountId, true));
         log.info("MFA enabled for account {}", accountId);
     }
 
@@ -84,6 +90,7 @@ public class MfaService {
         if (!totp.verify(secret, code)) throw ApiException.badRequest("totp_invalid", "Invalid code");
         mfa.setEnabled(false);
         repo.save(mfa);
+        events.publishEvent(new MfaStateChangedEvent(accountId, false));
         log.info("MFA disabled for account {}", accountId);
     }
 
@@ -93,6 +100,10 @@ public class MfaService {
      */
     @Transactional
     public boolean verify(UUID accountId, String code) {
+        return metrics.phase("mfa_verify", () -> verifyCode(accountId, code), ok -> ok);
+    }
+
+    private boolean verifyCode(UUID accountId, String code) {
         String trimmed = code == null ? null : code.trim();
         if (trimmed == null || trimmed.isEmpty()) return false;
         Optional<AccountMfa> opt = repo.findByAccountId(accountId);
@@ -104,14 +115,26 @@ public class MfaService {
             if (ok) return true;
         }
         // try backup code
-        String hash = sha256Base64(trimmed);
-        return backupRepo.findFirstByAccountIdAndCodeHashAndUsedFalse(accountId, hash)
-                .map(row -> {
-                    row.setUsed(true);
-                    backupRepo.save(row);
-                    log.info("MFA backup code consumed for account {}", accountId);
-                    return true;
-                }).orElse(false);
+        int index = backupCodeIndex(mfa.getBackupHashes(), sha256(trimmed));
+        if (index < 0 || (mfa.getBackupUsedMask() & (1 << index)) != 0) return false;
+        if (repo.consumeBackupCode(accountId, 1 << index) == 0) return false; // spent concurrently
+        log.info("MFA backup code consumed for account {}", accountId);
+        return true;
+    }
+
+    /**
+     * Position of the hash among the packed backup-code hashes, or -1.
+     * Compares every slot so timing does not reveal which one matched.
+     */
+    static int backupCodeIndex(byte[] packed, byte[] hash) {
+        if (packed == null) return -1;
+        int found = -1;
+        for (int i = 0; i < packed.length / BACKUP_HASH_BYTES; i++) {
+            int diff = 0;
+            for (int j = 0; j < BACKUP_HASH_BYTES; j++) diff |= packed[i * BACKUP_HASH_BYTES + j] ^ hash[j];
+            if (diff == 0 && found < 0) found = i;
+        }
+        return found;
     }
 
     private static String base32(byte[] bytes) {
@@ -147,11 +170,10 @@ public class MfaService {
         return codes;
     }
 
-    private static String sha256Base64(String s) {
+    private static byte[] sha256(String s) {
         try {
             var md = java.security.MessageDigest.getInstance("SHA-256");
-            byte[] h = md.digest(s.getBytes(java.nio.charset.StandardCharsets.UTF_8));
-            return Base64.getEncoder().encodeToString(h);
+            return md.digest(s.getBytes(java.nio.charset.StandardCharsets.UTF_8));
         } catch (Exception e) {
             throw new IllegalStateException(e);
         }
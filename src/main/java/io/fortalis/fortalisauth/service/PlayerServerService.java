@@ -1,9 +1,12 @@
 package io.fortalis.fortalisauth.service;
 
 import io.fortalis.fortalisauth.entity.PlayerServer;
+import io.fortalis.fortalisauth.event.PlayerCreatedEvent;
 import io.fortalis.fortalisauth.repo.PlayerServerRepository;
 import io.fortalis.fortalisauth.web.ApiException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,12 +18,20 @@ import java.util.UUID;
 @Service
 @RequiredArgsConstructor
 public class PlayerServerService {
+    public record Registration(PlayerServer player, boolean created) {
+    }
+
     private final PlayerServerRepository playerRepository;
+    private final ServerDirectory servers;
+    private final LoginWriteBehind writeBehind;
+    private final ApplicationEventPublisher events;
 
+    @Transactional(readOnly = true) // replica when configured
     public List<PlayerServer> getPlayersByAccount(UUID accountId) {
         return playerRepository.findByAccountId(accountId);
     }
 
+    @Transactional(readOnly = true) // replica when configured
     public Optional<PlayerServer> getPlayer(UUID accountId, String serverId) {
         return playerRepository.findByAccountIdAndServerId(accountId, serverId);
     }
@@ -32,18 +43,44 @@ public class PlayerServerService {
         }
 
         var player = new PlayerServer();
-        player.setId(UUID.randomUUID());
         player.setAccountId(accountId);
         player.setServerId(serverId);
-        return playerRepository.save(player);
+        player = playerRepository.save(player);
+        events.publishEvent(new PlayerCreatedEvent(accountId, serverId));
+        return player;
     }
 
-    @Transactional
+    /**
+     * Idempotent registration for game servers: an existing player is returned, not a conflict.
+     * The insert commits on its own, so a concurrent registration of the same player surfaces as
+     * a unique violation and is answered with the row that won.
+     */
+    public Registration registerPlayer(UUID accountId, String serverId) {
+        if (servers.find(serverId).isEmpty()) {
+            throw ApiException.notFound("unknown_server", "Unknown server: " + serverId);
+        }
+        Optional<PlayerServer> existing = playerRepository.findByAccountIdAndServerId(accountId, serverId);
+        if (existing.isPresent()) return new Registration(existing.get(), false);
+
+        var player = new PlayerServer();
+        player.setAccountId(accountId);
+        player.setServerId(serverId);
+        try {
+            player = playerRepository.saveAndFlush(player);
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race for (account_id, server_id), or the account does not exist.
+            return playerRepository.findByAccountIdAndServerId(accountId, serverId)
+                    .map(p -> new Registration(p, false))
+                    .orElseThrow(() -> ApiException.notFound("unknown_account", "Unknown account: " + accountId));
+        }
+        events.publishEvent(new PlayerCreatedEvent(accountId, serverId));
+        return new Registration(player, true);
+    }
+
+    /**
+     * Buffered: last_login_ts and account_settings.last_server_id are written by {@link LoginWriteBehind}.
+     */
     public void recordLogin(UUID accountId, String serverId) {
-        playerRepository.findByAccountIdAndServerId(accountId, serverId)
-            .ifPresent(player -> {
-                player.setLastLoginTs(Instant.now());
-                playerRepository.save(player);
-            });
+        writeBehind.recordLogin(accountId, serverId, Instant.now());
     }
 }
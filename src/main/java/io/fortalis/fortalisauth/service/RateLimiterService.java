@@ -1,6 +1,9 @@
 package io.fortalis.fortalisauth.service;
 
+import io.fortalis.fortalisauth.config.AuthMetrics;
+import io.fortalis.fortalisauth.jfr.RateLimitRejectedEvent;
 import io.fortalis.fortalisauth.web.RateLimitExceededException;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -8,6 +11,7 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 @Service
+@RequiredArgsConstructor
 public class RateLimiterService {
     private static class Bucket {
         int count;
@@ -15,17 +19,32 @@ public class RateLimiterService {
     }
 
     private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AuthMetrics metrics;
 
     public void checkAndConsume(String key, int maxAttempts, int windowSeconds) {
+        long start = System.nanoTime();
+        String outcome = AuthMetrics.REJECTED;
+        try {
+            consume(key, maxAttempts, windowSeconds);
+            outcome = AuthMetrics.SUCCESS;
+        } finally {
+            metrics.recordPhase("rate_limit", outcome, System.nanoTime() - start);
+        }
+    }
+
+    private void consume(String key, int maxAttempts, int windowSeconds) {
         long now = Instant.now().getEpochSecond();
         Bucket b = buckets.computeIfAbsent(key, k -> new Bucket());
+        long waitStart = System.nanoTime();
         synchronized (b) {
+            long lockWait = System.nanoTime() - waitStart;
             if (b.resetEpoch <= now) {
                 b.count = 0;
                 b.resetEpoch = now + windowSeconds;
             }
             if (b.count >= maxAttempts) {
                 long retryAfter = b.resetEpoch - now;
+                recordRejection(key, retryAfter, lockWait);
                 throw new RateLimitExceededException(
                         "rate-limit-exceeded",
                         "Too many requests. Please try again later.",
@@ -39,4 +58,14 @@ public class RateLimiterService {
     public void clear(String key) {
         buckets.remove(key);
     }
+
+    private static void recordRejection(String key, long retryAfter, long lockWait) {
+        var event = new RateLimitRejectedEvent();
+        if (!event.shouldCommit()) return;
+        int colon = key.indexOf(':');
+        event.scope = colon > 0 ? key.substring(0, colon) : "other";
+        event.retryAfter = retryAfter;
+        event.lockWait = lockWait;
+        event.commit();
+    }
 }
@@ -0,0 +1,107 @@
+package io.fortalis.fortalisauth.service;
+
+import io.fortalis.fortalisauth.config.AuthJwtProperties;
+import io.fortalis.fortalisauth.dto.RevocationDeltaResponse;
+import io.fortalis.fortalisauth.dto.RevocationEntry;
+import io.fortalis.fortalisauth.dto.RevocationSnapshotResponse;
+import io.fortalis.fortalisauth.entity.RevocationLogEntry;
+import io.fortalis.fortalisauth.event.SessionRevokedEvent;
+import io.fortalis.fortalisauth.repo.RevocationLogRepository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Append-only revocation log with monotonically increasing sequence numbers.
+ * Backends bootstrap from {@link #snapshot()} and then poll {@link #delta(long, int)}; the cursor
+ * follows commit order ({@link CommitOrderPage}), so a slow transaction is waited for, not skipped.
+ * The cursor is read through CommitOrderPage.XMIN, the same expression the watermark feed uses.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RevocationFeedService {
+    public static final int MAX_BATCH = 1000;
+
+    private record Row(long txid, RevocationEntry entry) {
+    }
+
+    private static final RowMapper<Row> ROW = (rs, n) -> new Row(rs.getLong("txid"), new RevocationEntry(
+            rs.getLong("seq"), rs.getObject("jti", UUID.class).toString(), rs.getObject("account_id", UUID.class).toString(),
+            rs.getTimestamp("expires_ts").toInstant().getEpochSecond()));
+
+    private final RevocationLogRepository entries;
+    private final JdbcTemplate jdbc;
+    private final AuthJwtProperties props;
+
+    /**
+     * Runs inside the revoking transaction, so the log entry commits (or rolls back) with the revocation.
+     */
+    @EventListener
+    public void onSessionRevoked(SessionRevokedEvent event) {
+        append(event.sessionId(), event.accountId());
+    }
+
+    public void append(UUID jti, UUID accountId) {
+        RevocationLogEntry entry = new RevocationLogEntry();
+        entry.setJti(jti);
+        entry.setAccountId(accountId);
+        entry.setExpiresTs(Instant.now().plus(props.getAccessTtl()));
+        entries.save(entry);
+    }
+
+    // Not readOnly, so it stays on the primary: a lagging replica's snapshot says nothing
+    // about rows it has not received yet.
+    @Transactional
+    public RevocationDeltaResponse delta(long since, int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_BATCH);
+        long from = Math.max(0, since);
+        List<Row> rows = jdbc.query("""
+                        SELECT txid, seq, jti, account_id, expires_ts FROM revocation_log
+                        WHERE txid > ? AND txid < %s
+                        ORDER BY txid, seq
+                        LIMIT ?""".formatted(CommitOrderPage.XMIN), ROW, from, pageSize);
+        var page = CommitOrderPage.of(from, pageSize, rows, Row::txid, txid -> jdbc.query(
+                "SELECT txid, seq, jti, account_id, expires_ts FROM revocation_log WHERE txid = ? ORDER BY seq",
+                ROW, txid));
+        return new RevocationDeltaResponse(page.cursor(), page.hasMore(), page.rows().stream().map(Row::entry).toList());
+    }
+
+    /**
+     * The cursor is read first: whatever commits after it comes again through the delta,
+     * which at worst repeats an entry the snapshot already had.
+     */
+    @Transactional // primary, see delta()
+    public RevocationSnapshotResponse snapshot() {
+        long cursor = jdbc.queryForObject("SELECT %s - 1".formatted(CommitOrderPage.XMIN), Long.class);
+        List<RevocationEntry> live = entries.findByExpiresTsAfterOrderBySeq(Instant.now()).stream()
+                .map(RevocationFeedService::toEntry)
+                .toList();
+        return new RevocationSnapshotResponse(cursor, live);
+    }
+
+    /**
+     * Expired entries can go: the tokens they revoke no longer verify anyway, so a
+     * client that skips them through the delta feed misses nothing.
+     */
+    @Scheduled(fixedDelayString = "PT10M", initialDelayString = "PT10M")
+    @Transactional
+    public void purgeExpired() {
+        int removed = entries.deleteExpiredBefore(Instant.now());
+        if (removed > 0) log.debug("Purged {} expired revocation log entries", removed);
+    }
+
+    private static RevocationEntry toEntry(RevocationLogEntry e) {
+        return new RevocationEntry(e.getSeq(), e.getJti().toString(), e.getAccountId().toString(), e.getExpiresTs().getEpochSecond());
+    }
+}
@@ -0,0 +1,115 @@
+package io.fortalis.fortalisauth.service;
+
+import io.fortalis.fortalisauth.config.AuthJwtProperties;
+import io.fortalis.fortalisauth.dto.RevocationEntry;
+import io.fortalis.fortalisauth.event.SessionRevokedEvent;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-memory set of revoked access-token IDs (jti = refresh session id).
+ * A Bloom filter answers the common "not revoked" case without touching the exact set;
+ * entries are kept only until the longest-lived access token they could match has expired.
+ * Filled immediately from local revocations; revocations made on other instances arrive
+ * by polling the shared {@link RevocationFeedService} log.
+ */
+@Slf4j
+@Service
+public class RevocationRegistry {
+    private static final int MIN_CAPACITY = 16_384;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final AuthJwtProperties props;
+    private final RevocationFeedService feed;
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>(); // jti -> revoked until
+    private volatile BloomFilter filter = new BloomFilter(MIN_CAPACITY, FALSE_POSITIVE_RATE);
+    private volatile long cursor = -1; // feed cursor (a txid); -1 until bootstrapped
+
+    public RevocationRegistry(AuthJwtProperties props, RevocationFeedService feed) {
+        this.props = props;
+        this.feed = feed;
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter.mightContain(jti)) return false;
+        Instant until = revoked.get(jti);
+        return until != null && Instant.now().isBefore(until);
+    }
+
+    /**
+     * Marks the jti as revoked until the given instant (the latest possible `exp` of its token).
+     */
+    public synchronized void revoke(String jti, Instant until) {
+        if (!Instant.now().isBefore(until)) return;
+        revoked.merge(jti, until, (a, b) -> a.isAfter(b) ? a : b);
+        filter.put(jti);
+        if (revoked.size() > filter.capacity()) rebuild();
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    /**
+     * Takes a local revocation in once its transaction has committed: a login or refresh that
+     * evicts sessions and then rolls back must not leave them revoked on this node only.
+     */
+    @Order(0) // before caches that re-verify on the same event
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionRevoked(SessionRevokedEvent event) {
+        revoke(event.sessionId().toString(), Instant.now().plus(props.getAccessTtl()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        var snapshot = feed.snapshot();
+        snapshot.items().forEach(this::apply);
+        cursor = snapshot.cursor();
+        log.info("Revocation registry loaded {} revoked sessions (feed cursor {})", snapshot.items().size(), cursor);
+    }
+
+    /**
+     * Pulls revocations written by any instance since the last applied cursor.
+     */
+    @Scheduled(fixedDelayString = "PT2S", initialDelayString = "PT2S")
+    public void syncFromFeed() {
+        if (cursor < 0) return;
+        boolean more = true;
+        while (more) {
+            var delta = feed.delta(cursor, RevocationFeedService.MAX_BATCH);
+            delta.items().forEach(this::apply);
+            cursor = delta.cursor();
+            more = delta.hasMore();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "PT1M", initialDelayString = "PT1M")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        if (revoked.values().removeIf(until -> !now.isBefore(until))) {
+            synchronized (this) {
+                rebuild();
+            }
+        }
+    }
+
+    private void apply(RevocationEntry entry) {
+        revoke(entry.jti(), Instant.ofEpochSecond(entry.exp()));
+    }
+
+    private void rebuild() {
+        var next = new BloomFilter(Math.max(MIN_CAPACITY, revoked.size() * 2), FALSE_POSITIVE_RATE);
+        revoked.keySet().forEach(next::put);
+        filter = next;
+    }
+}
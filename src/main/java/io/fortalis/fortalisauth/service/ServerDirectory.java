@@ -0,0 +1,131 @@
+package io.fortalis.fortalisauth.service;
+
+import io.fortalis.fortalisauth.dto.ServerResponse;
+import io.fortalis.fortalisauth.entity.Server;
+import io.fortalis.fortalisauth.event.PlayerCreatedEvent;
+import io.fortalis.fortalisauth.repo.ServerRepository;
+import jakarta.annotation.PreDestroy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-memory copy of the server table; reads never touch Postgres.
+ * Loaded at startup, then refreshed incrementally by updated_ts.
+ * New players are counted in per-server LongAdders and added to server.player_count
+ * in one set-based UPDATE per flush; listed counts include the unflushed part.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ServerDirectory {
+    /**
+     * Re-read rows a little older than the newest seen, so a late-committing update is not missed.
+     */
+    private static final Duration REFRESH_OVERLAP = Duration.ofSeconds(5);
+
+    private record Entry(String id, String region, String displayName, String status, long playerCount) {
+    }
+
+    private final ServerRepository servers;
+    private final JdbcTemplate jdbc;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> pendingPlayers = new ConcurrentHashMap<>();
+    private volatile Instant watermark = Instant.EPOCH;
+
+    public List<ServerResponse> list() {
+        return entries.values().stream()
+                .sorted(Comparator.comparing(Entry::id))
+                .map(this::toResponse)
+                .toList();
+    }
+
+    public Optional<ServerResponse> find(String id) {
+        return Optional.ofNullable(entries.get(id)).map(this::toResponse);
+    }
+
+    /**
+     * Counted only once the player row has committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPlayerCreated(PlayerCreatedEvent event) {
+        pendingPlayers.computeIfAbsent(event.serverId(), k -> new LongAdder()).increment();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        apply(servers.findAll());
+        log.info("Server directory loaded {} servers", entries.size());
+    }
+
+    @Scheduled(fixedDelayString = "PT10S", initialDelayString = "PT10S")
+    public void refresh() {
+        apply(servers.findByUpdatedTsAfter(watermark.minus(REFRESH_OVERLAP)));
+    }
+
+    @Scheduled(fixedDelayString = "PT5S", initialDelayString = "PT5S")
+    public synchronized void flushPlayerCounts() {
+        List<Object> args = new ArrayList<>();
+        List<Map.Entry<String, Long>> deltas = new ArrayList<>();
+        pendingPlayers.forEach((id, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta != 0) {
+                deltas.add(Map.entry(id, delta));
+                args.add(id);
+                args.add(delta);
+            }
+        });
+        if (deltas.isEmpty()) return;
+        try {
+            jdbc.update("""
+                    UPDATE server s
+                    SET player_count = s.player_count + v.delta
+                    FROM (VALUES %s) AS v(id, delta)
+                    WHERE s.id = v.id"""
+                    .formatted(String.join(", ", Collections.nCopies(deltas.size(), "(?, CAST(? AS int))"))), args.toArray());
+            // Keep the listed count steady until the refresh brings the committed value.
+            deltas.forEach(d -> entries.computeIfPresent(d.getKey(), (id, e) ->
+                    new Entry(e.id(), e.region(), e.displayName(), e.status(), e.playerCount() + d.getValue())));
+        } catch (RuntimeException ex) {
+            log.warn("Flushing player counts for {} servers failed; retrying next cycle", deltas.size(), ex);
+            deltas.forEach(d -> pendingPlayers.computeIfAbsent(d.getKey(), k -> new LongAdder()).add(d.getValue()));
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushPlayerCounts();
+    }
+
+    private void apply(List<Server> rows) {
+        Instant newest = watermark;
+        for (Server s : rows) {
+            entries.put(s.getId(), new Entry(s.getId(), s.getRegion(), s.getDisplayName(), s.getStatus(), s.getPlayerCount()));
+            if (s.getUpdatedTs().isAfter(newest)) newest = s.getUpdatedTs();
+        }
+        watermark = newest;
+    }
+
+    private ServerResponse toResponse(Entry e) {
+        LongAdder pending = pendingPlayers.get(e.id());
+        long count = e.playerCount() + (pending == null ? 0 : pending.sum());
+        return new ServerResponse(e.id(), e.region(), e.displayName(), e.status(), count);
+    }
+}
@@ -0,0 +1,45 @@
+package io.fortalis.fortalisauth.service;
+
+import io.fortalis.fortalisauth.crypto.JwtService;
+import io.fortalis.fortalisauth.web.ApiException;
+
+import java.time.Instant;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Token exchange for game servers (RFC 8693 in spirit): a player's access token is traded for
+ * one whose audience is a single server. The player API only accepts the game audience, and a
+ * server that introspects with its own audience gets a token leaked by another server back inactive.
+ * Only game-audience tokens are exchanged; the (caching) JwtDecoder already rejects revoked ones.
+ */
+@Service
+@RequiredArgsConstructor
+public class ServerTokenService {
+    public record ServerToken(String accessToken, Instant expiresAt) {
+    }
+
+    private final JwtDecoder jwtDecoder;
+    private final JwtService jwtService;
+    private final ServerDirectory servers;
+
+    public ServerToken exchange(String subjectToken, String serverId) {
+        if (serverId == null || servers.find(serverId).isEmpty()) {
+            throw ApiException.notFound("unknown_server", "Unknown server: " + serverId);
+        }
+        Jwt jwt;
+        try {
+            jwt = jwtDecoder.decode(subjectToken);
+        } catch (JwtException e) {
+            throw ApiException.unauthorized("invalid_token", "Subject token is not active");
+        }
+        if (jwt.getAudience() == null || !jwt.getAudience().contains(JwtService.GAME_AUDIENCE)) {
+            throw ApiException.badRequest("invalid_token", "Only player access tokens can be exchanged");
+        }
+        return new ServerToken(jwtService.createServerToken(jwt, serverId), jwt.getExpiresAt());
+    }
+}
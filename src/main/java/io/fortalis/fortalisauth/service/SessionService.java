@@ -0,0 +1,127 @@
+package io.fortalis.fortalisauth.service;
+
+import io.fortalis.fortalisauth.dto.SessionPageResponse;
+import io.fortalis.fortalisauth.dto.SessionResponse;
+import io.fortalis.fortalisauth.entity.RefreshToken;
+import io.fortalis.fortalisauth.event.SessionRevokedEvent;
+import io.fortalis.fortalisauth.repo.RefreshTokenRepository;
+import io.fortalis.fortalisauth.web.ApiException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * A player's view of their refresh sessions: list the active ones, revoke one, revoke all.
+ * Listing is keyset-paginated on (expires_ts, id), newest first, straight off
+ * idx_refresh_account_active; revoke-all moves the account's token watermark, a single-row write,
+ * and sessions issued before it are left out of the listing.
+ */
+@Service
+@RequiredArgsConstructor
+public class SessionService {
+    public static final int MAX_PAGE = 100;
+
+    private record Cursor(Instant expiresTs, UUID id) {
+    }
+
+    /**
+     * A listed session and the refresh_token row it was read from; the row id is the page key.
+     */
+    private record Row(UUID rowId, SessionResponse session) {
+    }
+
+    private final JdbcTemplate jdbc;
+    private final RefreshTokenRepository refreshTokens;
+    private final TokenWatermarkService watermarks;
+    private final ApplicationEventPublisher events;
+
+    /**
+     * Read-only, so it may be served by the replica; a session revoked a moment ago can still be listed.
+     */
+    @Transactional(readOnly = true)
+    public SessionPageResponse list(UUID accountId, UUID currentSessionId, String cursor, int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE);
+        Cursor after = cursor == null || cursor.isBlank() ? null : decode(cursor);
+        var args = new ArrayList<Object>(5);
+        args.add(accountId);
+        args.add(OffsetDateTime.ofInstant(watermarks.notBefore(accountId), ZoneOffset.UTC));
+        if (after != null) {
+            args.add(OffsetDateTime.ofInstant(after.expiresTs(), ZoneOffset.UTC));
+            args.add(after.id());
+        }
+        args.add(pageSize + 1);
+        List<Row> rows = jdbc.query("""
+                SELECT id, session_id, issued_ts, expires_ts, user_agent, device_label FROM refresh_token
+                WHERE account_id = ? AND revoked = FALSE AND expires_ts > NOW() AND issued_ts >= ?%s
+                ORDER BY expires_ts DESC, id DESC
+                LIMIT ?""".formatted(after == null ? "" : " AND (expires_ts, id) < (?, ?)"),
+                (rs, n) -> {
+                    UUID sessionId = rs.getObject("session_id", UUID.class);
+                    return new Row(rs.getObject("id", UUID.class), new SessionResponse(sessionId,
+                            rs.getTimestamp("issued_ts").toInstant(), rs.getTimestamp("expires_ts").toInstant(),
+                            rs.getString("user_agent"), rs.getString("device_label"), sessionId.equals(currentSessionId)));
+                }, args.toArray());
+        var page = rows.subList(0, Math.min(rows.size(), pageSize)).stream().map(Row::session).toList();
+        if (rows.size() <= pageSize) return new SessionPageResponse(page, null);
+        var last = rows.get(pageSize - 1);
+        return new SessionPageResponse(page, encode(new Cursor(last.session().expiresTs(), last.rowId())));
+    }
+
+    /**
+     * Revokes one of the account's sessions, whichever of its refresh tokens is current;
+     * revoking an already revoked one is a no-op.
+     */
+    @Transactional
+    public void revoke(UUID accountId, UUID sessionId) {
+        int revoked = jdbc.update("""
+                UPDATE refresh_token SET revoked = TRUE, revoked_ts = NOW(), revoke_reason = ?
+                WHERE session_id = ? AND account_id = ? AND revoked = FALSE""",
+                RefreshToken.REVOKE_LOGOUT, sessionId, accountId);
+        if (revoked == 0) {
+            if (!refreshTokens.existsBySessionIdAndAccountId(sessionId, accountId)) {
+                throw ApiException.notFound("session_not_found", "Session not found.");
+            }
+            return;
+        }
+        events.publishEvent(new SessionRevokedEvent(accountId, sessionId));
+    }
+
+    /**
+     * Ends every session of the account issued until now: their refresh tokens stop rotating and
+     * their access tokens stop verifying, here and on backends following the watermark feed.
+     * The refresh_token rows are left to expire. Returns the new watermark.
+     */
+    public Instant revokeAll(UUID accountId) {
+        return watermarks.revokeAccount(accountId);
+    }
+
+    private static String encode(Cursor c) {
+        long micros = ChronoUnit.MICROS.between(Instant.EPOCH, c.expiresTs());
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((micros + ":" + c.id()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            long micros = Long.parseLong(raw.substring(0, sep));
+            return new Cursor(Instant.EPOCH.plus(micros, ChronoUnit.MICROS), UUID.fromString(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+            throw ApiException.badRequest("invalid_cursor", "Malformed pagination cursor.");
+        }
+    }
+}
@@ -1,23 +1,33 @@
 package io.fortalis.fortalisauth.service;
 
 import io.fortalis.fortalisauth.config.AuthJwtProperties;
+import io.fortalis.fortalisauth.config.AuthMetrics;
 import io.fortalis.fortalisauth.crypto.JwtService;
 import io.fortalis.fortalisauth.entity.*;
+import io.fortalis.fortalisauth.event.SessionRevokedEvent;
 import io.fortalis.fortalisauth.repo.*;
 import io.fortalis.fortalisauth.web.ApiException;
 
 import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
 import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.Base64;
+import java.util.List;
 import java.util.UUID;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Issues access/refresh tokens and manages refresh store (hash+revocation).
+ * A new login keeps at most auth.jwt.max-sessions-per-account live sessions: the oldest are
+ * revoked by the same statement that inserts the new one. Rotation does not add a session: the new
+ * refresh_token row keeps the session id, which is also the access tokens' jti.
  */
 @Service
 @RequiredArgsConstructor
@@ -25,44 +35,96 @@ public class TokenService {
     private final JwtService jwtService;
     private final AuthJwtProperties props;
     private final RefreshTokenRepository refreshTokens;
+    private final JdbcTemplate jdbc;
     private final AccountMfaRepository mfas;
     private final AccountRepository accounts;
+    private final ApplicationEventPublisher events;
+    private final AuthMetrics metrics;
+    private final TokenWatermarkService watermarks;
 
-    public record Pair(String accessToken, String refreshToken, long expiresInSeconds, UUID accountId, String displayName) {
+    public record Pair(String accessToken, String refreshToken, long expiresInSeconds, UUID accountId, UUID sessionId,
+                       String displayName, boolean mfaEnabled) {
+    }
+
+    /**
+     * What the client said about itself (User-Agent, X-Device-Label); shown in the session list.
+     */
+    public record Client(String userAgent, String deviceLabel) {
+        public static final Client UNKNOWN = new Client(null, null);
+
+        public Client {
+            userAgent = clip(userAgent, RefreshToken.USER_AGENT_MAX);
+            deviceLabel = clip(deviceLabel, RefreshToken.DEVICE_LABEL_MAX);
+        }
+
+        private static String clip(String v, int max) {
+            if (v == null || v.isBlank()) return null;
+            String t = v.strip();
+            return t.length() <= max ? t : t.substring(0, max);
+        }
     }
 
     @Transactional
     public Pair issueTokens(Account account) {
-        return issueTokensInternal(account.getId(), account.getDisplayName());
+        return issueTokensInternal(account.getId(), account.getDisplayName(), mfaEnabled(account.getId()), Client.UNKNOWN);
+    }
+
+    /**
+     * For callers that have already looked up the account's MFA state; saves a second `account_mfa` read.
+     */
+    @Transactional
+    public Pair issueTokens(Account account, boolean mfaEnabled) {
+        return issueTokens(account, mfaEnabled, Client.UNKNOWN);
+    }
+
+    @Transactional
+    public Pair issueTokens(Account account, boolean mfaEnabled, Client client) {
+        return issueTokensInternal(account.getId(), account.getDisplayName(), mfaEnabled, client);
     }
 
     @Transactional
     public Pair issueTokens(UUID accountId) {
         Account account = accounts.findById(accountId)
                 .orElseThrow(() -> ApiException.unauthorized("account_missing", "Account not found."));
-        return issueTokensInternal(account.getId(), account.getDisplayName());
+        return issueTokensInternal(account.getId(), account.getDisplayName(), mfaEnabled(accountId), Client.UNKNOWN);
     }
 
     @Transactional
     public Pair refresh(String refreshToken) {
+        return refresh(refreshToken, Client.UNKNOWN);
+    }
+
+    /**
+     * Rotates the session; device details the client does not resend are carried over.
+     */
+    @Transactional
+    public Pair refresh(String refreshToken, Client client) {
+        return metrics.phase("refresh_rotate", () -> rotate(refreshToken, client));
+    }
+
+    private Pair rotate(String refreshToken, Client client) {
         String hash = hash(refreshToken);
-        RefreshToken row = refreshTokens.findByTokenHashAndRevokedFalse(hash)
+        // Token, display name, MFA state and the watermark check in one round trip.
+        RefreshSession session = refreshTokens.findActiveSession(hash, TokenWatermarkService.GLOBAL)
                 .orElseThrow(() -> ApiException.unauthorized("invalid_refresh", "Invalid refresh token."));
+        RefreshToken row = session.token();
         if (row.getExpiresTs().isBefore(Instant.now()))
             throw ApiException.unauthorized("expired_refresh", "Refresh token expired.");
         // Rotate
-        row.setRevoked(true);
+        row.revoke(RefreshToken.REVOKE_ROTATED);
         refreshTokens.save(row);
-        Account account = accounts.findById(row.getAccountId())
-                .orElseThrow(() -> ApiException.unauthorized("account_missing", "Account not found."));
-        return issueTokensInternal(account.getId(), account.getDisplayName());
+        var carried = new Client(client.userAgent() != null ? client.userAgent() : row.getUserAgent(),
+                client.deviceLabel() != null ? client.deviceLabel() : row.getDeviceLabel());
+        return metrics.phase("token_issue", () -> createSession(row.getAccountId(), row.getSessionId(),
+                session.displayName(), session.mfaEnabled(), carried, false));
     }
 
     @Transactional
     public void revoke(String refreshToken) {
         refreshTokens.findByTokenHashAndRevokedFalse(hash(refreshToken)).ifPresent(rt -> {
-            rt.setRevoked(true);
+            rt.revoke(RefreshToken.REVOKE_LOGOUT);
             refreshTokens.save(rt);
+            events.publishEvent(new SessionRevokedEvent(rt.getAccountId(), rt.getSessionId()));
         });
     }
 
@@ -86,20 +148,67 @@ public class TokenService {
         }
     }
 
-    private Pair issueTokensInternal(UUID accountId, String displayName) {
-        boolean mfa = mfas.findByAccountId(accountId).map(AccountMfa::isEnabled).orElse(false);
-        String access = jwtService.createAccessToken(accountId, mfa);
+    private boolean mfaEnabled(UUID accountId) {
+        return mfas.findByAccountId(accountId)
+                .map(m -> m.isEnabled() && "TOTP".equals(m.getType()))
+                .orElse(false);
+    }
+
+    private Pair issueTokensInternal(UUID accountId, String displayName, boolean mfa, Client client) {
+        return metrics.phase("token_issue", () -> createSession(accountId, UuidV7.next(), displayName, mfa, client, true));
+    }
+
+    private static final String INSERT_SESSION = """
+            INSERT INTO refresh_token (id, session_id, account_id, token_hash, issued_ts, expires_ts, revoked, user_agent, device_label)
+            VALUES (?, ?, ?, ?, ?, ?, FALSE, ?, ?)""";
+
+    // Keeps the newest (cap - 1) live sessions, walking idx_refresh_account_active backwards,
+    // revokes the rest and inserts the new one. Sessions behind the account's token watermark
+    // are already dead and do not count.
+    private static final String EVICT_AND_INSERT_SESSION = """
+            WITH evicted AS (
+                UPDATE refresh_token SET revoked = TRUE, revoked_ts = NOW(), revoke_reason = ?
+                WHERE id IN (
+                    SELECT id FROM refresh_token
+                    WHERE account_id = ? AND revoked = FALSE AND expires_ts > NOW() AND issued_ts >= ?
+                    ORDER BY expires_ts DESC, id DESC
+                    OFFSET ?
+                )
+                RETURNING session_id
+            ), created AS (
+                %s
+            )
+            SELECT session_id FROM evicted""".formatted(INSERT_SESSION);
 
+    private Pair createSession(UUID accountId, UUID sessionId, String displayName, boolean mfa, Client client,
+                               boolean capSessions) {
         String refresh = randomToken();
-        String refreshHash = hash(refresh);
-        RefreshToken row = new RefreshToken();
-        row.setAccountId(accountId);
-        row.setTokenHash(refreshHash);
-        row.setExpiresTs(Instant.now().plus(props.getRefreshTtl()));
-        row.setRevoked(false);
-        refreshTokens.save(row);
+        Instant now = Instant.now();
+        Object[] row = {UuidV7.next(), sessionId, accountId, hash(refresh), utc(now), utc(now.plus(props.getRefreshTtl())),
+                client.userAgent(), client.deviceLabel()};
+        int cap = props.getMaxSessionsPerAccount();
+        if (capSessions && cap > 0) {
+            Object[] args = new Object[4 + row.length];
+            args[0] = RefreshToken.REVOKE_EVICTED;
+            args[1] = accountId;
+            args[2] = utc(watermarks.notBefore(accountId));
+            args[3] = cap - 1;
+            System.arraycopy(row, 0, args, 4, row.length);
+            List<UUID> evicted = jdbc.queryForList(EVICT_AND_INSERT_SESSION, UUID.class, args);
+            evicted.forEach(id -> events.publishEvent(new SessionRevokedEvent(accountId, id)));
+        } else {
+            jdbc.update(INSERT_SESSION, row);
+        }
+
+        // The session id is the access token's jti and survives rotation, so revoking the
+        // session can be matched against every token it has handed out.
+        String access = jwtService.createAccessToken(accountId, mfa, sessionId);
 
         long ttl = props.getAccessTtl().toSeconds();
-        return new Pair(access, refresh, ttl, accountId, displayName);
+        return new Pair(access, refresh, ttl, accountId, sessionId, displayName, mfa);
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return OffsetDateTime.ofInstant(instant, ZoneOffset.UTC);
     }
 }
@@ -0,0 +1,216 @@
+package io.fortalis.fortalisauth.service;
+
+import io.fortalis.fortalisauth.config.AuthJwtProperties;
+import io.fortalis.fortalisauth.dto.WatermarkDeltaResponse;
+import io.fortalis.fortalisauth.dto.WatermarkEntry;
+import io.fortalis.fortalisauth.entity.UuidV7;
+import io.fortalis.fortalisauth.event.TokensRevokedBeforeEvent;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * "Tokens issued before T are invalid", per account and globally (the epoch).
+ * Held in memory so every check is a map lookup; persisted one row per account in
+ * token_watermark, so revoking all of an account's sessions, or everyone's, is a single-row
+ * upsert. Other instances pick changes up by polling the table in commit order, like {@link RevocationRegistry}.
+ * A token is judged by the millisecond in its UUIDv7 jti, when its session started: a session that
+ * started before the watermark can no longer rotate, so none of its tokens are newer. Otherwise by `iat`.
+ */
+@Slf4j
+@Service
+public class TokenWatermarkService {
+    public static final UUID GLOBAL = new UUID(0, 0);
+    public static final int MAX_BATCH = 1000;
+
+    private record Row(long txid, WatermarkEntry entry) {
+    }
+
+    private static final RowMapper<Row> ROW = (rs, n) -> {
+        UUID account = rs.getObject("account_id", UUID.class);
+        return new Row(rs.getLong("txid"), new WatermarkEntry(rs.getLong("seq"),
+                GLOBAL.equals(account) ? null : account.toString(), rs.getTimestamp("not_before").toInstant().toEpochMilli()));
+    };
+
+    private final JdbcTemplate jdbc;
+    private final AuthJwtProperties props;
+    private final ApplicationEventPublisher events;
+    private final Map<UUID, Instant> accounts = new ConcurrentHashMap<>();
+    private volatile Instant global = Instant.EPOCH;
+    private volatile long cursor = -1; // feed cursor (a txid); -1 until bootstrapped
+
+    public TokenWatermarkService(JdbcTemplate jdbc, AuthJwtProperties props, ApplicationEventPublisher events) {
+        this.jdbc = jdbc;
+        this.props = props;
+        this.events = events;
+    }
+
+    /**
+     * The instant before which the account's tokens are invalid; {@link Instant#EPOCH} when there is none.
+     */
+    public Instant notBefore(UUID accountId) {
+        Instant own = accounts.get(accountId);
+        return own != null && own.isAfter(global) ? own : global;
+    }
+
+    public boolean isRevoked(UUID accountId, Instant issuedAt) {
+        return issuedAt.isBefore(notBefore(accountId));
+    }
+
+    public boolean isRevoked(Jwt jwt) {
+        if (accounts.isEmpty() && Instant.EPOCH.equals(global)) return false;
+        UUID accountId;
+        try {
+            accountId = UUID.fromString(jwt.getSubject());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return false;
+        }
+        Instant notBefore = notBefore(accountId);
+        if (Instant.EPOCH.equals(notBefore)) return false;
+        UUID session = sessionId(jwt.getId());
+        if (session != null) return Instant.ofEpochMilli(UuidV7.timestamp(session)).isBefore(notBefore);
+        // `iat` only has whole seconds; compare at that resolution so a token minted right after the watermark survives.
+        Instant iat = jwt.getIssuedAt();
+        return iat == null || iat.isBefore(notBefore.truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    /**
+     * Invalidates every token of the account issued until now. Returns the new watermark.
+     */
+    @Transactional
+    public Instant revokeAccount(UUID accountId) {
+        Instant notBefore = write(accountId);
+        events.publishEvent(new TokensRevokedBeforeEvent(accountId, notBefore));
+        return notBefore;
+    }
+
+    /**
+     * Moves the global epoch to now: every token issued so far, of every account, is invalid.
+     */
+    @Transactional
+    public Instant revokeEveryone() {
+        Instant notBefore = write(GLOBAL);
+        log.warn("Global token epoch moved to {}; all earlier tokens are revoked", notBefore);
+        events.publishEvent(new TokensRevokedBeforeEvent(null, notBefore));
+        return notBefore;
+    }
+
+    /**
+     * Watermarks written by transactions after the cursor (a txid), in commit order; see {@link CommitOrderPage}.
+     * Not readOnly, so it stays on the primary: see RevocationFeedService#delta.
+     */
+    @Transactional
+    public WatermarkDeltaResponse delta(long since, int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_BATCH);
+        long from = Math.max(0, since);
+        List<Row> rows = jdbc.query("""
+                        SELECT txid, seq, account_id, not_before FROM token_watermark
+                        WHERE txid > ? AND txid < %s
+                        ORDER BY txid, account_id
+                        LIMIT ?""".formatted(CommitOrderPage.XMIN), ROW, from, pageSize);
+        var page = CommitOrderPage.of(from, pageSize, rows, Row::txid, txid -> jdbc.query(
+                "SELECT txid, seq, account_id, not_before FROM token_watermark WHERE txid = ? ORDER BY account_id",
+                ROW, txid));
+        return new WatermarkDeltaResponse(page.cursor(), page.hasMore(), page.rows().stream().map(Row::entry).toList());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        cursor = 0;
+        syncFromStore();
+        log.info("Token watermarks loaded: {} accounts, global epoch {} (cursor {})", accounts.size(), global, cursor);
+    }
+
+    /**
+     * Pulls watermarks written by any instance since the last applied cursor.
+     */
+    @Scheduled(fixedDelayString = "PT2S", initialDelayString = "PT2S")
+    public void syncFromStore() {
+        if (cursor < 0) return;
+        boolean more = true;
+        while (more) {
+            var delta = delta(cursor, MAX_BATCH);
+            delta.items().forEach(e -> apply(e.sub() == null ? GLOBAL : UUID.fromString(e.sub()),
+                    Instant.ofEpochMilli(e.notBefore())));
+            cursor = delta.cursor();
+            more = delta.hasMore();
+        }
+    }
+
+    /**
+     * An account watermark older than the refresh TTL no longer matches any live token.
+     * Every instance drops it from memory by the same rule; the global epoch is kept.
+     */
+    @Scheduled(fixedDelayString = "PT1H", initialDelayString = "PT1H")
+    @Transactional
+    public void purgeExpired() {
+        Instant horizon = Instant.now().minus(props.getRefreshTtl());
+        accounts.values().removeIf(nb -> nb.isBefore(horizon));
+        int removed = jdbc.update("DELETE FROM token_watermark WHERE account_id <> ? AND not_before < ?",
+                GLOBAL, OffsetDateTime.ofInstant(horizon, ZoneOffset.UTC));
+        if (removed > 0) log.debug("Purged {} expired token watermarks", removed);
+    }
+
+    /**
+     * Takes a local revocation into memory once its transaction has committed, so a rolled-back
+     * write never rejects tokens here; other instances get it from the feed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTokensRevokedBefore(TokensRevokedBeforeEvent event) {
+        apply(event.global() ? GLOBAL : event.accountId(), event.notBefore());
+    }
+
+    /**
+     * Watermarks only move forward.
+     */
+    void apply(UUID accountId, Instant notBefore) {
+        if (GLOBAL.equals(accountId)) {
+            synchronized (this) {
+                if (notBefore.isAfter(global)) global = notBefore;
+            }
+        } else {
+            accounts.merge(accountId, notBefore, (a, b) -> a.isAfter(b) ? a : b);
+        }
+    }
+
+    private Instant write(UUID accountId) {
+        // Millisecond resolution, like the UUIDv7 session ids it is compared with.
+        Instant notBefore = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        jdbc.update("""
+                        INSERT INTO token_watermark (account_id, not_before) VALUES (?, ?)
+                        ON CONFLICT (account_id) DO UPDATE
+                        SET not_before = GREATEST(token_watermark.not_before, EXCLUDED.not_before),
+                            seq = nextval('token_watermark_seq'), updated_ts = NOW(),
+                            txid = CAST(CAST(pg_current_xact_id() AS text) AS bigint)""",
+                accountId, OffsetDateTime.ofInstant(notBefore, ZoneOffset.UTC));
+        return notBefore;
+    }
+
+    private static UUID sessionId(String jti) {
+        if (jti == null) return null;
+        try {
+            UUID id = UUID.fromString(jti);
+            return id.version() == 7 ? id : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
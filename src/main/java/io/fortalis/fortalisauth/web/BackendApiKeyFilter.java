@@ -0,0 +1,75 @@
+package io.fortalis.fortalisauth.web;
+
+import io.fortalis.fortalisauth.config.BackendProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Authenticates service-to-service callers by the X-Backend-Key header as ROLE_BACKEND, and
+ * operators by the X-Admin-Key header as ROLE_ADMIN. The two key sets are separate: a backend
+ * key never grants ROLE_ADMIN.
+ * A missing or unknown key leaves the request anonymous; authorization rules decide the 401.
+ */
+public class BackendApiKeyFilter extends OncePerRequestFilter {
+    public static final String HEADER = "X-Backend-Key";
+    public static final String ROLE = "BACKEND";
+    public static final String ADMIN_HEADER = "X-Admin-Key";
+    public static final String ADMIN_ROLE = "ADMIN";
+
+    private final List<byte[]> keys;
+    private final List<byte[]> adminKeys;
+
+    public BackendApiKeyFilter(BackendProperties props) {
+        this.keys = props.apiKeys().stream().map(k -> k.getBytes(StandardCharsets.UTF_8)).toList();
+        this.adminKeys = props.adminKeys().stream().map(k -> k.getBytes(StandardCharsets.UTF_8)).toList();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (matches(adminKeys, request.getHeader(ADMIN_HEADER))) {
+            authenticate("admin", ADMIN_ROLE);
+        } else if (matches(keys, request.getHeader(HEADER))) {
+            authenticate("backend", ROLE);
+        }
+        chain.doFilter(request, response);
+    }
+
+    private static void authenticate(String principal, String role) {
+        var auth = new UsernamePasswordAuthenticationToken(principal, null,
+                AuthorityUtils.createAuthorityList("ROLE_" + role));
+        var context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(auth);
+        SecurityContextHolder.setContext(context);
+    }
+
+    /**
+     * Streaming responses complete on an async dispatch, which is authorized again.
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    private static boolean matches(List<byte[]> keys, String header) {
+        if (header == null) return false;
+        byte[] presented = header.getBytes(StandardCharsets.UTF_8);
+        boolean ok = false;
+        for (byte[] key : keys) {
+            ok |= MessageDigest.isEqual(key, presented); // constant time; no early exit
+        }
+        return ok;
+    }
+}
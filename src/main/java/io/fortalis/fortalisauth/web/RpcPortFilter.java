@@ -0,0 +1,38 @@
+package io.fortalis.fortalisauth.web;
+
+import io.fortalis.fortalisauth.config.RpcProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Keeps the two ports apart: /rpc/** is only served on auth.rpc.port, and that port serves
+ * nothing else. Anything crossing over is a 404, so the binary API is never reachable
+ * through the public load balancer and client traffic cannot land on the game-server port.
+ */
+public class RpcPortFilter extends OncePerRequestFilter {
+    public static final String PATH_PREFIX = "/rpc/";
+
+    private final RpcProperties props;
+
+    public RpcPortFilter(RpcProperties props) {
+        this.props = props;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean rpcPort = props.enabled() && request.getLocalPort() == props.port();
+        boolean rpcPath = request.getRequestURI().startsWith(PATH_PREFIX);
+        if (rpcPort != rpcPath) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,13 @@
+-- =============================================================================
+-- Fortalis - Global Auth DB (V10)
+-- Session management: a player's active sessions are listed newest-expiry first
+-- with keyset pagination on (expires_ts, id). The key columns match that order
+-- and the INCLUDE columns let the listing be an index-only scan. The old
+-- single-column account index is a prefix of this one and goes away.
+-- =============================================================================
+
+CREATE INDEX IF NOT EXISTS idx_refresh_account_active
+    ON refresh_token (account_id, revoked, expires_ts, id)
+    INCLUDE (issued_ts, device_label, user_agent);
+
+DROP INDEX IF EXISTS idx_refresh_account;
@@ -0,0 +1,20 @@
+-- =============================================================================
+-- Fortalis - Global Auth DB (V11)
+-- Token watermarks: "every token of this account issued before not_before is
+-- invalid", plus one global epoch row (nil account id) that applies to everyone.
+-- Mass revocation is a single-row upsert here instead of an UPDATE over
+-- refresh_token. seq is reassigned on every change and is the sync cursor for
+-- other instances and region backends; account rows are purged once no token
+-- issued before them can still be alive.
+-- =============================================================================
+
+CREATE SEQUENCE IF NOT EXISTS token_watermark_seq;
+
+CREATE TABLE IF NOT EXISTS token_watermark
+(
+    account_id UUID PRIMARY KEY,                 -- 00000000-0000-0000-0000-000000000000 = global epoch
+    not_before TIMESTAMPTZ NOT NULL,
+    seq        BIGINT      NOT NULL DEFAULT nextval('token_watermark_seq'),
+    updated_ts TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_token_watermark_seq ON token_watermark (seq);
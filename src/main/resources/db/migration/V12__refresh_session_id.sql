@@ -0,0 +1,19 @@
+-- =============================================================================
+-- Fortalis - Global Auth DB (V12)
+-- Stable session id: a session keeps its id across refresh-token rotations,
+-- and that id is the access tokens' jti, so revoking a session revokes every
+-- access token it ever issued. Existing rows become sessions of their own,
+-- which matches the jti their live access tokens already carry.
+-- The session listing reads session_id, so it joins the index's INCLUDE list.
+-- =============================================================================
+
+ALTER TABLE refresh_token ADD COLUMN IF NOT EXISTS session_id UUID;
+UPDATE refresh_token SET session_id = id WHERE session_id IS NULL;
+ALTER TABLE refresh_token ALTER COLUMN session_id SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_refresh_session ON refresh_token (session_id);
+
+DROP INDEX IF EXISTS idx_refresh_account_active;
+CREATE INDEX idx_refresh_account_active
+    ON refresh_token (account_id, revoked, expires_ts, id)
+    INCLUDE (issued_ts, device_label, user_agent, session_id);
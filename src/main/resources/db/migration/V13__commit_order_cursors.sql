@@ -0,0 +1,18 @@
+-- =============================================================================
+-- Fortalis - Global Auth DB (V13)
+-- Commit-order feed cursors. seq values are handed out when a row is written,
+-- not when it commits, so a reader can see seq 7 before seq 6 commits and step
+-- over it. Each row now records the id of the transaction that wrote it
+-- (txid); the feeds only return rows from transactions older than the oldest
+-- one still running (pg_snapshot_xmin), ordered by txid, and the cursor is a
+-- txid. A transaction that has not finished holds the cursor back however long
+-- it runs. Rows written before this migration all get its txid.
+-- =============================================================================
+
+ALTER TABLE revocation_log
+    ADD COLUMN IF NOT EXISTS txid BIGINT NOT NULL DEFAULT CAST(CAST(pg_current_xact_id() AS text) AS bigint);
+CREATE INDEX IF NOT EXISTS idx_revocation_log_txid ON revocation_log (txid, seq);
+
+ALTER TABLE token_watermark
+    ADD COLUMN IF NOT EXISTS txid BIGINT NOT NULL DEFAULT CAST(CAST(pg_current_xact_id() AS text) AS bigint);
+CREATE INDEX IF NOT EXISTS idx_token_watermark_txid ON token_watermark (txid);
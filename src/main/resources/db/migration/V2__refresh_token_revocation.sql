@@ -0,0 +1,13 @@
+-- =============================================================================
+-- Fortalis - Global Auth DB (V2)
+-- Record when and why a refresh token was revoked, so explicit revocations
+-- (logout) can be told apart from routine rotation on refresh.
+-- =============================================================================
+
+ALTER TABLE refresh_token
+    ADD COLUMN IF NOT EXISTS revoked_ts    TIMESTAMPTZ,
+    ADD COLUMN IF NOT EXISTS revoke_reason VARCHAR(16); -- 'ROTATED' | 'LOGOUT'
+
+-- Startup load of the in-memory revocation filter: recent non-rotation revocations only.
+CREATE INDEX IF NOT EXISTS idx_refresh_revoked_ts ON refresh_token (revoked_ts)
+    WHERE revoked AND revoke_reason <> 'ROTATED';
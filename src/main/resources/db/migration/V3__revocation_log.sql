@@ -0,0 +1,27 @@
+-- =============================================================================
+-- Fortalis - Global Auth DB (V3)
+-- Append-only log of access-token revocations for region backends.
+-- seq is the sync cursor; rows are purged once the token they revoke has expired.
+-- =============================================================================
+
+CREATE TABLE IF NOT EXISTS revocation_log
+(
+    seq        BIGSERIAL PRIMARY KEY,
+    jti        UUID        NOT NULL,             -- refresh session id = access token jti
+    account_id UUID        NOT NULL,
+    expires_ts TIMESTAMPTZ NOT NULL,             -- revocation is moot after this
+    created_ts TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+CREATE INDEX IF NOT EXISTS idx_revocation_log_expires ON revocation_log (expires_ts);
+
+-- Seed with revocations that may still matter, then retire the V2 startup index:
+-- the revocation filter now bootstraps from this log.
+INSERT INTO revocation_log (jti, account_id, expires_ts, created_ts)
+SELECT id, account_id, revoked_ts + INTERVAL '1 hour', revoked_ts
+FROM refresh_token
+WHERE revoked
+  AND revoke_reason <> 'ROTATED'
+  AND revoked_ts > NOW() - INTERVAL '1 hour'
+ORDER BY revoked_ts;
+
+DROP INDEX IF EXISTS idx_refresh_revoked_ts;
@@ -0,0 +1,27 @@
+-- =============================================================================
+-- Fortalis - Global Auth DB (V4)
+-- Server directory: player_count becomes a maintained counter and updated_ts
+-- lets the in-memory directory refresh only changed rows.
+-- =============================================================================
+
+UPDATE server s
+SET player_count = (SELECT COUNT(*) FROM player_server p WHERE p.server_id = s.id);
+
+ALTER TABLE server
+    ALTER COLUMN player_count SET DEFAULT 0,
+    ALTER COLUMN player_count SET NOT NULL,
+    ADD COLUMN IF NOT EXISTS updated_ts TIMESTAMPTZ NOT NULL DEFAULT NOW();
+
+CREATE OR REPLACE FUNCTION server_touch_updated_ts() RETURNS TRIGGER AS
+$$
+BEGIN
+    NEW.updated_ts := NOW();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_server_updated_ts ON server;
+CREATE TRIGGER trg_server_updated_ts
+    BEFORE UPDATE ON server
+    FOR EACH ROW
+EXECUTE FUNCTION server_touch_updated_ts();
@@ -0,0 +1,37 @@
+-- =============================================================================
+-- Fortalis - Global Auth DB (V5)
+-- Audit trail of authentication events, range-partitioned by month.
+-- Partitions are named auth_event_pYYYYMM; the application creates upcoming
+-- months and drops expired ones. The default partition catches anything else.
+-- =============================================================================
+
+CREATE TABLE IF NOT EXISTS auth_event
+(
+    ts         TIMESTAMPTZ NOT NULL,
+    type       VARCHAR(32) NOT NULL,
+    account_id UUID,
+    session_id UUID,
+    principal  VARCHAR(320),
+    ip         VARCHAR(64),
+    weight     SMALLINT    NOT NULL DEFAULT 1 -- >1 when stored as a sample under load
+) PARTITION BY RANGE (ts);
+
+CREATE TABLE IF NOT EXISTS auth_event_default PARTITION OF auth_event DEFAULT;
+
+CREATE INDEX IF NOT EXISTS idx_auth_event_account_ts ON auth_event (account_id, ts);
+CREATE INDEX IF NOT EXISTS idx_auth_event_ts ON auth_event USING BRIN (ts);
+
+DO
+$$
+    DECLARE
+        m DATE;
+    BEGIN
+        FOR i IN 0..1
+            LOOP
+                m := (date_trunc('month', NOW() AT TIME ZONE 'UTC') + make_interval(months => i))::DATE;
+                EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF auth_event FOR VALUES FROM (%L) TO (%L)',
+                               'auth_event_p' || to_char(m, 'YYYYMM'),
+                               m::TIMESTAMP AT TIME ZONE 'UTC', (m + INTERVAL '1 month') AT TIME ZONE 'UTC');
+            END LOOP;
+    END
+$$;
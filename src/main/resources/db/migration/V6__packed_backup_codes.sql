@@ -0,0 +1,28 @@
+-- =============================================================================
+-- Fortalis - Global Auth DB (V6)
+-- Backup codes move into account_mfa: SHA-256 hashes packed back to back
+-- (32 bytes each) plus a used-bitmap, bit i = code i consumed.
+-- =============================================================================
+
+ALTER TABLE account_mfa
+    ADD COLUMN IF NOT EXISTS backup_hashes    BYTEA,
+    ADD COLUMN IF NOT EXISTS backup_used_mask INTEGER NOT NULL DEFAULT 0;
+
+WITH ordered AS (SELECT account_id,
+                        decode(code_hash, 'base64') AS hash,
+                        used,
+                        ROW_NUMBER() OVER (PARTITION BY account_id ORDER BY created_ts, id) - 1 AS idx
+                 FROM mfa_backup_code),
+     packed AS (SELECT account_id,
+                       string_agg(hash, ''::BYTEA ORDER BY idx)                   AS hashes,
+                       SUM(CASE WHEN used THEN 1 << idx::INTEGER ELSE 0 END)::INTEGER AS used_mask
+                FROM ordered
+                WHERE idx < 31
+                GROUP BY account_id)
+UPDATE account_mfa m
+SET backup_hashes    = p.hashes,
+    backup_used_mask = p.used_mask
+FROM packed p
+WHERE m.account_id = p.account_id;
+
+DROP TABLE IF EXISTS mfa_backup_code;
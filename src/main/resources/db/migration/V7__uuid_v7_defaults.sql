@@ -0,0 +1,27 @@
+-- =============================================================================
+-- Fortalis - Global Auth DB (V7)
+-- Time-ordered UUIDv7 (RFC 9562) defaults: 48-bit Unix ms timestamp, version 7,
+-- random tail. New keys append at the right edge of the primary-key indexes.
+-- The application generates the same format; these defaults cover SQL inserts.
+-- =============================================================================
+
+CREATE OR REPLACE FUNCTION uuid_generate_v7() RETURNS UUID AS
+$$
+BEGIN
+    -- Start from a random v4, overwrite bytes 0-5 with the timestamp, turn version 4 (0100) into 7 (0111).
+    RETURN encode(
+            set_bit(
+                    set_bit(
+                            overlay(uuid_send(gen_random_uuid())
+                                    PLACING substring(int8send(floor(extract(EPOCH FROM clock_timestamp()) * 1000)::BIGINT) FROM 3)
+                                    FROM 1 FOR 6),
+                            52, 1),
+                    53, 1),
+            'hex')::UUID;
+END
+$$ LANGUAGE plpgsql VOLATILE;
+
+ALTER TABLE account ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE account_identity ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE refresh_token ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE player_server ALTER COLUMN id SET DEFAULT uuid_generate_v7();
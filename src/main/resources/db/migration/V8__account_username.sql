@@ -0,0 +1,37 @@
+-- =============================================================================
+-- Fortalis - Global Auth DB (V8)
+-- Case-insensitive logins by email or username, each one unique index probe:
+-- emails are stored lower-case (existing unique index), usernames keep their
+-- spelling and are unique on lower(username).
+-- Rows whose emails differ only by letter case (e.g. inserted by SQL that
+-- bypassed the application) would make the lower-casing hit the unique index;
+-- the migration stops first and names them, so they can be merged by hand.
+-- =============================================================================
+
+DO $$
+DECLARE
+    collisions TEXT;
+BEGIN
+    SELECT string_agg(format('%s (accounts %s)', email, ids), '; ')
+    INTO collisions
+    FROM (SELECT lower(email) AS email, string_agg(id::text, ', ' ORDER BY id) AS ids
+          FROM account
+          GROUP BY lower(email)
+          HAVING count(*) > 1
+          ORDER BY lower(email)
+          LIMIT 50) c;
+    IF collisions IS NOT NULL THEN
+        RAISE EXCEPTION 'V8: emails that differ only by letter case: %', collisions
+            USING HINT = 'Merge or rename these accounts so each email is unique ignoring case, then rerun the migration.';
+    END IF;
+END
+$$;
+
+UPDATE account
+SET email = lower(email)
+WHERE email <> lower(email);
+
+ALTER TABLE account
+    ADD COLUMN IF NOT EXISTS username VARCHAR(32);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_account_username_lower ON account (lower(username));
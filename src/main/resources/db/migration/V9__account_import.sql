@@ -0,0 +1,16 @@
+-- =============================================================================
+-- Fortalis - Global Auth DB (V9)
+-- Progress of bulk account imports from legacy systems, one row per input
+-- partition (file). Advanced in the same transaction as each imported batch,
+-- so a restarted import resumes exactly after the last committed batch.
+-- =============================================================================
+
+CREATE TABLE IF NOT EXISTS account_import_checkpoint
+(
+    source     VARCHAR(255) PRIMARY KEY,            -- input file name
+    records    BIGINT      NOT NULL DEFAULT 0,      -- input records consumed (imported or skipped)
+    imported   BIGINT      NOT NULL DEFAULT 0,
+    skipped    BIGINT      NOT NULL DEFAULT 0,      -- invalid rows and email/username conflicts
+    completed  BOOLEAN     NOT NULL DEFAULT FALSE,
+    updated_ts TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
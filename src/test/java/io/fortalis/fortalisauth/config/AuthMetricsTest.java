@@ -0,0 +1,58 @@
+package io.fortalis.fortalisauth.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private AuthMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new AuthMetrics(registry);
+    }
+
+    @Test
+    void phase_tagsOutcomeByPredicate() {
+        assertTrue(metrics.phase("password_verify", () -> true, ok -> ok));
+        assertFalse(metrics.phase("password_verify", () -> false, ok -> ok));
+
+        assertEquals(1, timerCount("password_verify", AuthMetrics.SUCCESS));
+        assertEquals(1, timerCount("password_verify", AuthMetrics.REJECTED));
+    }
+
+    @Test
+    void phase_recordsErrorAndRethrows() {
+        assertThrows(IllegalStateException.class, () -> metrics.phase("jwt_sign", () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals(1, timerCount("jwt_sign", AuthMetrics.ERROR));
+    }
+
+    @Test
+    void recordLogin_reusesTimerPerTagCombination() {
+        metrics.recordLogin("login", "bad_credentials", 1_000_000);
+        metrics.recordLogin("login", "bad_credentials", 2_000_000);
+
+        var timer = registry.get(AuthMetrics.LOGIN).tag("endpoint", "login").tag("outcome", "bad_credentials").timer();
+        assertEquals(2, timer.count());
+        assertEquals(1, registry.find(AuthMetrics.LOGIN).timers().size());
+    }
+
+    @Test
+    void noop_recordsWithoutFailing() {
+        var noop = AuthMetrics.noop();
+
+        assertEquals("x", noop.phase("any", () -> "x"));
+    }
+
+    private long timerCount(String phase, String outcome) {
+        return registry.get(AuthMetrics.PHASE).tag("phase", phase).tag("outcome", outcome).timer().count();
+    }
+}
@@ -0,0 +1,41 @@
+package io.fortalis.fortalisauth.config;
+
+import io.fortalis.fortalisauth.entity.UuidV7Generator;
+import io.fortalis.fortalisauth.repo.RefreshSession;
+import io.fortalis.fortalisauth.service.EventStreamService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NativeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @BeforeEach
+    void setUp() {
+        new NativeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void flywayMigrations_areEmbedded() {
+        assertTrue(RuntimeHintsPredicates.resource().forResource("db/migration/V1__initial_auth_schema.sql").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("META-INF/spring.factories").test(hints));
+    }
+
+    @Test
+    void reflectivelyCreatedClasses_haveConstructors() {
+        for (Class<?> type : new Class<?>[]{KeyFileInitializer.class, UuidV7Generator.class, RefreshSession.class}) {
+            assertTrue(RuntimeHintsPredicates.reflection().onType(type)
+                    .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints), type.getName());
+        }
+    }
+
+    @Test
+    void eventStreamPayloads_areBindable() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(EventStreamService.TokensRevokedBefore.class).test(hints));
+    }
+}
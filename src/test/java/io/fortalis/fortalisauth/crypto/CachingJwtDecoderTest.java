@@ -0,0 +1,165 @@
+package io.fortalis.fortalisauth.crypto;
+
+import io.fortalis.fortalisauth.event.SessionRevokedEvent;
+import io.fortalis.fortalisauth.event.TokensRevokedBeforeEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingJwtDecoderTest {
+
+    private final AtomicInteger delegateCalls = new AtomicInteger();
+    private final Map<String, Jwt> issued = new HashMap<>();
+    private SimpleMeterRegistry registry;
+    private JwtDecoder delegate;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        delegate = token -> {
+            delegateCalls.incrementAndGet();
+            Jwt jwt = issued.get(token);
+            if (jwt == null) throw new BadJwtException("unknown token");
+            return jwt;
+        };
+    }
+
+    @Test
+    void decode_secondCallForSameToken_skipsDelegate() {
+        var decoder = new CachingJwtDecoder(delegate, 100, jwt -> false, registry);
+        var token = issue(UUID.randomUUID(), Instant.now().plusSeconds(300));
+
+        var first = decoder.decode(token);
+        var second = decoder.decode(token);
+
+        assertSame(first, second);
+        assertEquals(1, delegateCalls.get());
+        assertEquals(1.0, registry.get("auth.jwt.decoder.cache").tag("result", "hit").counter().count());
+        assertEquals(1.0, registry.get("auth.jwt.decoder.cache").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void decode_failedVerification_isNotCached() {
+        var decoder = new CachingJwtDecoder(delegate, 100, jwt -> false, registry);
+
+        assertThrows(BadJwtException.class, () -> decoder.decode("forged"));
+        assertThrows(BadJwtException.class, () -> decoder.decode("forged"));
+
+        assertEquals(2, delegateCalls.get());
+        assertEquals(0, decoder.size());
+    }
+
+    @Test
+    void decode_alreadyExpiredToken_isNotCached() {
+        var decoder = new CachingJwtDecoder(delegate, 100, jwt -> false, registry);
+        var token = issue(UUID.randomUUID(), Instant.now().minusSeconds(1));
+
+        decoder.decode(token);
+
+        assertEquals(0, decoder.size());
+    }
+
+    @Test
+    void decode_neverGrowsBeyondMaxEntries() {
+        var decoder = new CachingJwtDecoder(delegate, 3, jwt -> false, registry);
+
+        for (int i = 0; i < 10; i++) {
+            decoder.decode(issue(UUID.randomUUID(), Instant.now().plusSeconds(300)));
+        }
+
+        assertTrue(decoder.size() <= 3, "Cache size should stay bounded but was " + decoder.size());
+    }
+
+    @Test
+    void decode_whenFull_evictsTheSoonestExpiringToken() {
+        var decoder = new CachingJwtDecoder(delegate, 2, jwt -> false, registry);
+        var late = issue(UUID.randomUUID(), Instant.now().plusSeconds(600));
+        var soon = issue(UUID.randomUUID(), Instant.now().plusSeconds(60));
+        decoder.decode(late);
+        decoder.decode(soon);
+
+        decoder.decode(issue(UUID.randomUUID(), Instant.now().plusSeconds(300)));
+        decoder.decode(late);
+
+        assertEquals(2, decoder.size());
+        assertEquals(3, delegateCalls.get(), "The later-expiring token should still be cached");
+    }
+
+    @Test
+    void decode_withZeroMaxEntries_alwaysDelegates() {
+        var decoder = new CachingJwtDecoder(delegate, 0, jwt -> false, registry);
+        var token = issue(UUID.randomUUID(), Instant.now().plusSeconds(300));
+
+        decoder.decode(token);
+        decoder.decode(token);
+
+        assertEquals(2, delegateCalls.get());
+    }
+
+    @Test
+    void decode_cachedTokenRejectedByPredicate_isReverified() {
+        var rejected = new HashSet<String>();
+        var decoder = new CachingJwtDecoder(delegate, 100, jwt -> rejected.contains(jwt.getSubject()), registry);
+        var subject = UUID.randomUUID();
+        var token = issue(subject, Instant.now().plusSeconds(300));
+        decoder.decode(token);
+
+        rejected.add(subject.toString());
+        decoder.decode(token);
+
+        assertEquals(2, delegateCalls.get(), "A rejected cache hit must go back through the delegate");
+    }
+
+    @Test
+    void sessionRevoked_dropsOnlyThatAccountsTokens() {
+        var decoder = new CachingJwtDecoder(delegate, 100, jwt -> false, registry);
+        var revokedAccount = UUID.randomUUID();
+        var revokedToken = issue(revokedAccount, Instant.now().plusSeconds(300));
+        var otherToken = issue(UUID.randomUUID(), Instant.now().plusSeconds(300));
+        decoder.decode(revokedToken);
+        decoder.decode(otherToken);
+
+        decoder.onSessionRevoked(new SessionRevokedEvent(revokedAccount, UUID.randomUUID()));
+        decoder.decode(revokedToken);
+        decoder.decode(otherToken);
+
+        assertEquals(3, delegateCalls.get(), "Only the revoked account's token should be re-verified");
+    }
+
+    @Test
+    void tokensRevokedBefore_account_dropsThatAccount_global_clearsCache() {
+        var decoder = new CachingJwtDecoder(delegate, 100, jwt -> false, registry);
+        var account = UUID.randomUUID();
+        decoder.decode(issue(account, Instant.now().plusSeconds(300)));
+        decoder.decode(issue(UUID.randomUUID(), Instant.now().plusSeconds(300)));
+
+        decoder.onTokensRevokedBefore(new TokensRevokedBeforeEvent(account, Instant.now()));
+        assertEquals(1, decoder.size());
+
+        decoder.onTokensRevokedBefore(new TokensRevokedBeforeEvent(null, Instant.now()));
+        assertEquals(0, decoder.size());
+    }
+
+    private String issue(UUID subject, Instant expiresAt) {
+        var token = "token-" + UUID.randomUUID();
+        issued.put(token, Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject(subject.toString())
+                .issuedAt(expiresAt.minusSeconds(900))
+                .expiresAt(expiresAt)
+                .build());
+        return token;
+    }
+}
@@ -2,12 +2,15 @@ package io.fortalis.fortalisauth.crypto;
 
 import com.nimbusds.jwt.SignedJWT;
 import io.fortalis.fortalisauth.config.AuthJwtProperties;
+import io.fortalis.fortalisauth.config.AuthMetrics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.oauth2.jwt.Jwt;
 
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -34,7 +37,7 @@ class JwtServiceTest {
         properties.setKeyFilePublic(publicKeyPath.toString());
 
         var keyProvider = new KeyProvider(properties);
-        jwtService = new JwtService(properties, keyProvider);
+        jwtService = new JwtService(properties, keyProvider, AuthMetrics.noop());
     }
 
     @Test
@@ -191,4 +194,27 @@ class JwtServiceTest {
         var jwt = SignedJWT.parse(token);
         assertEquals("JWT", jwt.getHeader().getType().toString());
     }
+
+    @Test
+    void createServerToken_keepsSubjectSessionAndLifetime() throws Exception {
+        var accountId = UUID.randomUUID();
+        var sessionId = UUID.randomUUID();
+        var player = SignedJWT.parse(jwtService.createAccessToken(accountId, true, sessionId)).getJWTClaimsSet();
+        var subjectToken = Jwt.withTokenValue("player")
+                .header("alg", "RS256")
+                .claims(c -> c.putAll(player.getClaims()))
+                .subject(accountId.toString())
+                .issuedAt(player.getIssueTime().toInstant())
+                .expiresAt(player.getExpirationTime().toInstant())
+                .build();
+
+        var claims = SignedJWT.parse(jwtService.createServerToken(subjectToken, "eu-1")).getJWTClaimsSet();
+
+        assertEquals(accountId.toString(), claims.getSubject());
+        assertEquals(sessionId.toString(), claims.getJWTID());
+        assertEquals(List.of("fortalis-server:eu-1"), claims.getAudience());
+        assertEquals(player.getIssueTime(), claims.getIssueTime());
+        assertEquals(player.getExpirationTime(), claims.getExpirationTime());
+        assertTrue((Boolean) claims.getClaim("mfa"));
+    }
 }
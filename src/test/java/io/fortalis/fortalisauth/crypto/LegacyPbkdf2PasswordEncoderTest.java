@@ -0,0 +1,45 @@
+package io.fortalis.fortalisauth.crypto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LegacyPbkdf2PasswordEncoderTest {
+    private final LegacyPbkdf2PasswordEncoder encoder = new LegacyPbkdf2PasswordEncoder();
+
+    @Test
+    void matches_verifiesAgainstTheEmbeddedAlgorithmIterationsAndSalt() throws Exception {
+        String sha256 = legacyHash("pbkdf2_sha256", "PBKDF2WithHmacSHA256", 1_000, "n4CLsalt", "Legacy#Pass1");
+        String sha1 = legacyHash("pbkdf2_sha1", "PBKDF2WithHmacSHA1", 500, "othersalt", "Legacy#Pass1");
+
+        assertTrue(encoder.matches("Legacy#Pass1", sha256));
+        assertTrue(encoder.matches("Legacy#Pass1", sha1));
+        assertFalse(encoder.matches("legacy#pass1", sha256));
+    }
+
+    @Test
+    void matches_rejectsMalformedHashes() {
+        assertFalse(encoder.matches("x", "pbkdf2_md5$1000$salt$aGFzaA=="));
+        assertFalse(encoder.matches("x", "pbkdf2_sha256$abc$salt$aGFzaA=="));
+        assertFalse(encoder.matches("x", "pbkdf2_sha256$1000$salt$not base64!"));
+        assertFalse(encoder.matches("x", "pbkdf2_sha256$1000$salt"));
+        assertFalse(encoder.matches("x", null));
+    }
+
+    @Test
+    void legacyHashesAlwaysNeedAnUpgrade_andCannotBeCreated() {
+        assertTrue(encoder.upgradeEncoding("pbkdf2_sha256$1000$salt$aGFzaA=="));
+        assertThrows(UnsupportedOperationException.class, () -> encoder.encode("x"));
+    }
+
+    private static String legacyHash(String id, String algorithm, int iterations, String salt, String password) throws Exception {
+        var spec = new PBEKeySpec(password.toCharArray(), salt.getBytes(StandardCharsets.UTF_8), iterations, 256);
+        byte[] hash = SecretKeyFactory.getInstance(algorithm).generateSecret(spec).getEncoded();
+        return id + "$" + iterations + "$" + salt + "$" + Base64.getEncoder().encodeToString(hash);
+    }
+}
@@ -1,5 +1,6 @@
 package io.fortalis.fortalisauth.crypto;
 
+import io.fortalis.fortalisauth.config.AuthMetrics;
 import io.fortalis.fortalisauth.config.CryptoProperties;
 import org.junit.jupiter.api.Test;
 
@@ -12,7 +13,7 @@ class MfaCryptoServiceTest {
     @Test
     void passthroughMode_whenNoKeyConfigured_returnsPlaintext() {
         var props = new CryptoProperties("dev", null);
-        var service = new MfaCryptoService(props);
+        var service = new MfaCryptoService(props, AuthMetrics.noop());
 
         var plaintext = "my-secret-value";
         var encrypted = service.encrypt(plaintext);
@@ -26,7 +27,7 @@ class MfaCryptoServiceTest {
     @Test
     void passthroughMode_whenBlankKey_returnsPlaintext() {
         var props = new CryptoProperties("dev", "");
-        var service = new MfaCryptoService(props);
+        var service = new MfaCryptoService(props, AuthMetrics.noop());
 
         var plaintext = "test-secret";
         assertEquals(plaintext, service.encrypt(plaintext));
@@ -36,7 +37,7 @@ class MfaCryptoServiceTest {
     void encrypt_whenKeyProvided_returnsEncryptedEnvelope() {
         var key32Bytes = Base64.getEncoder().encodeToString(new byte[32]); // 32-byte zero key
         var props = new CryptoProperties("v1", key32Bytes);
-        var service = new MfaCryptoService(props);
+        var service = new MfaCryptoService(props, AuthMetrics.noop());
 
         var plaintext = "sensitive-data";
         var encrypted = service.encrypt(plaintext);
@@ -52,7 +53,7 @@ class MfaCryptoServiceTest {
     void decrypt_whenKeyProvided_returnsOriginalPlaintext() {
         var key32Bytes = Base64.getEncoder().encodeToString(new byte[32]);
         var props = new CryptoProperties("v1", key32Bytes);
-        var service = new MfaCryptoService(props);
+        var service = new MfaCryptoService(props, AuthMetrics.noop());
 
         var plaintext = "my-totp-secret";
         var encrypted = service.encrypt(plaintext);
@@ -65,7 +66,7 @@ class MfaCryptoServiceTest {
     void decrypt_withDifferentValues_producesCorrectResults() {
         var key32Bytes = Base64.getEncoder().encodeToString(new byte[32]);
         var props = new CryptoProperties("test", key32Bytes);
-        var service = new MfaCryptoService(props);
+        var service = new MfaCryptoService(props, AuthMetrics.noop());
 
         var plaintext1 = "first-secret";
         var plaintext2 = "second-secret";
@@ -82,7 +83,7 @@ class MfaCryptoServiceTest {
     void encrypt_withSamePlaintext_producesUniqueIV() {
         var key32Bytes = Base64.getEncoder().encodeToString(new byte[32]);
         var props = new CryptoProperties("v1", key32Bytes);
-        var service = new MfaCryptoService(props);
+        var service = new MfaCryptoService(props, AuthMetrics.noop());
 
         var plaintext = "same-value";
         var encrypted1 = service.encrypt(plaintext);
@@ -97,7 +98,7 @@ class MfaCryptoServiceTest {
     void encrypt_withNull_returnsNull() {
         var key32Bytes = Base64.getEncoder().encodeToString(new byte[32]);
         var props = new CryptoProperties("v1", key32Bytes);
-        var service = new MfaCryptoService(props);
+        var service = new MfaCryptoService(props, AuthMetrics.noop());
 
         assertNull(service.encrypt(null));
     }
@@ -106,7 +107,7 @@ class MfaCryptoServiceTest {
     void decrypt_withNull_returnsNull() {
         var key32Bytes = Base64.getEncoder().encodeToString(new byte[32]);
         var props = new CryptoProperties("v1", key32Bytes);
-        var service = new MfaCryptoService(props);
+        var service = new MfaCryptoService(props, AuthMetrics.noop());
 
         assertNull(service.decrypt(null));
     }
@@ -115,7 +116,7 @@ class MfaCryptoServiceTest {
     void decrypt_withPlaintextFallback_returnsUnchanged() {
         var key32Bytes = Base64.getEncoder().encodeToString(new byte[32]);
         var props = new CryptoProperties("v1", key32Bytes);
-        var service = new MfaCryptoService(props);
+        var service = new MfaCryptoService(props, AuthMetrics.noop());
 
         var plaintext = "not-encrypted-value";
         assertEquals(plaintext, service.decrypt(plaintext), "Should return plaintext unchanged");
@@ -126,7 +127,7 @@ class MfaCryptoServiceTest {
         var invalidKey = Base64.getEncoder().encodeToString(new byte[16]); // Only 16 bytes, need 32
         var props = new CryptoProperties("v1", invalidKey);
 
-        var exception = assertThrows(IllegalArgumentException.class, () -> new MfaCryptoService(props));
+        var exception = assertThrows(IllegalArgumentException.class, () -> new MfaCryptoService(props, AuthMetrics.noop()));
         assertTrue(exception.getMessage().contains("32 bytes"));
     }
 
@@ -134,7 +135,7 @@ class MfaCryptoServiceTest {
     void isEncrypted_detectsEncryptedValues() {
         var key32Bytes = Base64.getEncoder().encodeToString(new byte[32]);
         var props = new CryptoProperties("v1", key32Bytes);
-        var service = new MfaCryptoService(props);
+        var service = new MfaCryptoService(props, AuthMetrics.noop());
 
         assertTrue(service.isEncrypted("enc:v1:someiv:somect"));
         assertFalse(service.isEncrypted("plaintext"));
@@ -145,7 +146,7 @@ class MfaCryptoServiceTest {
     void decrypt_withInvalidEnvelope_throwsException() {
         var key32Bytes = Base64.getEncoder().encodeToString(new byte[32]);
         var props = new CryptoProperties("v1", key32Bytes);
-        var service = new MfaCryptoService(props);
+        var service = new MfaCryptoService(props, AuthMetrics.noop());
 
         assertThrows(IllegalArgumentException.class, () -> service.decrypt("enc:invalid"));
         assertThrows(IllegalArgumentException.class, () -> service.decrypt("enc:v1:only-two-parts"));
@@ -155,7 +156,7 @@ class MfaCryptoServiceTest {
     void encryptDecrypt_withUnicodeCharacters_preservesData() {
         var key32Bytes = Base64.getEncoder().encodeToString(new byte[32]);
         var props = new CryptoProperties("v1", key32Bytes);
-        var service = new MfaCryptoService(props);
+        var service = new MfaCryptoService(props, AuthMetrics.noop());
 
         var plaintext = "Hello 世界 🔐 émojis";
         var encrypted = service.encrypt(plaintext);
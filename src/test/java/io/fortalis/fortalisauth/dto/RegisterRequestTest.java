@@ -195,4 +195,21 @@ class RegisterRequestTest {
         // Note: trim is not applied, only toLowerCase
         assertEquals("  test@example.com  ", request.email());
     }
+
+    @Test
+    void validation_username_isOptional() {
+        var request = new RegisterRequest("test@example.com", "password123", "TestUser");
+
+        assertNull(request.username());
+        assertTrue(validator.validate(request).isEmpty());
+    }
+
+    @Test
+    void validation_username_rejectsAtSign() {
+        var request = new RegisterRequest("test@example.com", "password123", "TestUser", "me@home");
+
+        var violations = validator.validate(request);
+
+        assertTrue(violations.stream().anyMatch(v -> v.getPropertyPath().toString().equals("username")));
+    }
 }
@@ -0,0 +1,45 @@
+package io.fortalis.fortalisauth.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7Test {
+
+    @Test
+    void next_hasVersion7AndRfcVariant() {
+        UUID id = UuidV7.next();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+    }
+
+    @Test
+    void next_embedsCurrentTime() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7.next();
+        long after = System.currentTimeMillis();
+
+        // The sequence may run a few milliseconds ahead after a burst (4096 ids per ms).
+        long ts = UuidV7.timestamp(id);
+        assertTrue(ts >= before && ts <= after + 50, "timestamp " + ts + " not in [" + before + ", " + after + "]");
+    }
+
+    @Test
+    void next_isStrictlyIncreasing_evenWithinOneMillisecond() {
+        UUID previous = UuidV7.next();
+        for (int i = 0; i < 100_000; i++) {
+            UUID current = UuidV7.next();
+            assertTrue(compareUnsigned(previous, current) < 0, previous + " !< " + current);
+            previous = current;
+        }
+    }
+
+    // Postgres orders uuid bytewise, i.e. as unsigned; UUID.compareTo is signed.
+    private static int compareUnsigned(UUID a, UUID b) {
+        int c = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return c != 0 ? c : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,117 @@
+package io.fortalis.fortalisauth.it;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fortalis.fortalisauth.service.AccountExportService;
+import io.fortalis.fortalisauth.service.TokenWatermarkService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+final class AccountExportIntegrationTest extends BaseIntegrationTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private AccountExportService export;
+    @Autowired
+    private TokenWatermarkService watermarks;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void exportTo_walksEveryPageIntoGzippedJsonl() throws Exception {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/auth/register")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{ \"email\":\"export%d+%s@itest.local\", \"password\":\"Str0ngPass!\", \"displayName\":\"Exp\" }"
+                                    .formatted(i, tag)))
+                    .andExpect(status().isOk());
+        }
+
+        // Page size 2 forces several keyset pages per table.
+        var result = export.exportTo(dir, 2);
+
+        List<JsonNode> accounts = read(dir.resolve("accounts-" + result.stamp() + ".jsonl.gz"));
+        assertEquals(result.accounts(), accounts.size());
+        assertEquals(accounts.size(), accounts.stream().map(a -> a.get("id").asText()).distinct().count(),
+                "keyset pages must not overlap");
+        var ours = accounts.stream().filter(a -> a.get("email").asText().endsWith(tag + "@itest.local")).toList();
+        assertEquals(3, ours.size());
+        assertFalse(ours.getFirst().get("mfaEnabled").asBoolean());
+
+        assertEquals(result.identities(), read(dir.resolve("identities-" + result.stamp() + ".jsonl.gz")).size());
+        List<JsonNode> sessions = read(dir.resolve("sessions-" + result.stamp() + ".jsonl.gz"));
+        assertEquals(result.sessions(), sessions.size());
+        assertTrue(sessions.stream().noneMatch(s -> s.has("tokenHash")), "token hashes never leave the database");
+        assertEquals(jdbc.queryForObject("""
+                        SELECT count(*) FROM refresh_token r
+                        WHERE NOT r.revoked AND r.expires_ts > NOW() AND r.id <= ?
+                          AND NOT EXISTS (SELECT 1 FROM token_watermark w
+                                          WHERE w.account_id IN (r.account_id, ?) AND w.not_before > r.issued_ts)""",
+                        Long.class, UUID.fromString(sessions.getLast().get("id").asText()), TokenWatermarkService.GLOBAL),
+                result.sessions());
+
+        try (var files = Files.list(dir)) {
+            assertTrue(files.noneMatch(f -> f.toString().endsWith(".part")));
+        }
+    }
+
+    @Test
+    void exportTo_leavesOutSessionsEndedByRevokeAll() throws Exception {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        String revokedEmail = "export-revoked+" + tag + "@itest.local";
+        String keptEmail = "export-kept+" + tag + "@itest.local";
+        for (String email : List.of(revokedEmail, keptEmail)) {
+            mockMvc.perform(post("/auth/register")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{ \"email\":\"%s\", \"password\":\"Str0ngPass!\", \"displayName\":\"Exp\" }"
+                                    .formatted(email)))
+                    .andExpect(status().isOk());
+        }
+        UUID revoked = accountId(revokedEmail);
+        UUID kept = accountId(keptEmail);
+        watermarks.revokeAccount(revoked);
+
+        var result = export.exportTo(dir, 100);
+
+        var sessionAccounts = read(dir.resolve("sessions-" + result.stamp() + ".jsonl.gz")).stream()
+                .map(s -> UUID.fromString(s.get("accountId").asText()))
+                .toList();
+        assertFalse(sessionAccounts.contains(revoked), "sessions before the account's watermark are not active");
+        assertTrue(sessionAccounts.contains(kept));
+    }
+
+    private UUID accountId(String email) {
+        return jdbc.queryForObject("SELECT id FROM account WHERE email = ?", UUID.class, email);
+    }
+
+    private static List<JsonNode> read(Path file) throws IOException {
+        var rows = new ArrayList<JsonNode>();
+        try (var in = new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) rows.add(MAPPER.readTree(line));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,131 @@
+package io.fortalis.fortalisauth.it;
+
+import io.fortalis.fortalisauth.service.AccountImportService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+final class AccountImportIntegrationTest extends BaseIntegrationTest {
+    private static final String PASSWORD = "Legacy#Pass1";
+
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private AccountImportService importer;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void importFiles_loadsAccountsAndIdentities_andSkipsConflicts() throws Exception {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        String bcryptEmail = "bcrypt+" + tag + "@legacy.test";
+        String oidcEmail = "oidc+" + tag + "@legacy.test";
+        String takenEmail = "taken+" + tag + "@legacy.test";
+        jdbc.update("INSERT INTO account (email, password_hash) VALUES (?, 'x')", takenEmail);
+
+        Path file = Files.writeString(dir.resolve("legacy-" + tag + ".jsonl"), String.join("\n",
+                """
+                {"email":"%s","username":"bc%s","displayName":"Bee","passwordHash":"%s","emailVerified":true}"""
+                        .formatted(bcryptEmail.toUpperCase(), tag, new BCryptPasswordEncoder().encode(PASSWORD)),
+                """
+                {"email":"%s","identities":[{"provider":"google","subject":"g-%s"}]}""".formatted(oidcEmail, tag),
+                """
+                {"email":"%s","passwordHash":"$2a$10$abcdefghijklmnopqrstuu5F0Ea8f2G1C6T1xjY3OqlS9z3iM0Cq"}""".formatted(takenEmail),
+                """
+                {"email":"no-hash+%s@legacy.test"}""".formatted(tag),
+                "{broken"));
+
+        var result = importer.importFiles(List.of(file)).getFirst();
+
+        assertEquals(5, result.records());
+        assertEquals(2, result.imported());
+        assertEquals(3, result.skipped());
+        assertEquals(List.of("password"), jdbc.queryForList(
+                "SELECT i.provider FROM account_identity i JOIN account a ON a.id = i.account_id WHERE a.email = ?",
+                String.class, bcryptEmail));
+        assertEquals(List.of("google"), jdbc.queryForList(
+                "SELECT i.provider FROM account_identity i JOIN account a ON a.id = i.account_id WHERE a.email = ?",
+                String.class, oidcEmail));
+        assertEquals(1, jdbc.queryForObject("SELECT count(*) FROM account WHERE email = ?", Integer.class, takenEmail));
+
+        // A completed partition is not read again.
+        assertEquals(2, importer.importFiles(List.of(file)).getFirst().imported());
+        assertEquals(1, jdbc.queryForObject("SELECT count(*) FROM account WHERE email = ?", Integer.class, bcryptEmail));
+    }
+
+    @Test
+    void importFiles_resumesFromCheckpoint() throws Exception {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        String source = "resume-" + tag + ".csv";
+        Path file = Files.writeString(dir.resolve(source), """
+                email,password_hash
+                first+%1$s@legacy.test,%2$s
+                second+%1$s@legacy.test,%2$s
+                """.formatted(tag, pbkdf2(PASSWORD)));
+        jdbc.update("INSERT INTO account_import_checkpoint (source, records, imported) VALUES (?, 1, 1)", source);
+
+        var result = importer.importFiles(List.of(file)).getFirst();
+
+        assertEquals(2, result.records());
+        assertEquals(2, result.imported());
+        assertEquals(0, jdbc.queryForObject("SELECT count(*) FROM account WHERE email = ?", Integer.class, "first+" + tag + "@legacy.test"));
+        assertEquals(1, jdbc.queryForObject("SELECT count(*) FROM account WHERE email = ?", Integer.class, "second+" + tag + "@legacy.test"));
+        assertTrue(jdbc.queryForObject("SELECT completed FROM account_import_checkpoint WHERE source = ?", Boolean.class, source));
+    }
+
+    @Test
+    void login_withImportedHash_upgradesItToArgon2() throws Exception {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        String email = "upgrade+" + tag + "@legacy.test";
+        Path file = Files.writeString(dir.resolve("upgrade-" + tag + ".jsonl"), """
+                {"email":"%s","passwordHash":"%s"}
+                """.formatted(email, pbkdf2(PASSWORD)));
+        importer.importFiles(List.of(file));
+        assertTrue(storedHash(email).startsWith("{pbkdf2}pbkdf2_sha256$"));
+
+        mockMvc.perform(post("/auth/login/start")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"emailOrUsername\":\"%s\", \"password\":\"wrong\" }".formatted(email)))
+                .andExpect(status().isUnauthorized());
+        assertTrue(storedHash(email).startsWith("{pbkdf2}"), "a failed login must not touch the hash");
+
+        mockMvc.perform(post("/auth/login/start")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"emailOrUsername\":\"%s\", \"password\":\"%s\" }".formatted(email, PASSWORD)))
+                .andExpect(status().isOk());
+        assertTrue(storedHash(email).startsWith("$argon2id$"));
+
+        mockMvc.perform(post("/auth/login/start")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"emailOrUsername\":\"%s\", \"password\":\"%s\" }".formatted(email, PASSWORD)))
+                .andExpect(status().isOk());
+    }
+
+    private String storedHash(String email) {
+        return jdbc.queryForObject("SELECT password_hash FROM account WHERE email = ?", String.class, email);
+    }
+
+    private static String pbkdf2(String password) throws Exception {
+        String salt = "legacysalt";
+        var spec = new PBEKeySpec(password.toCharArray(), salt.getBytes(StandardCharsets.UTF_8), 1_000, 256);
+        byte[] hash = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+        return "pbkdf2_sha256$1000$" + salt + "$" + Base64.getEncoder().encodeToString(hash);
+    }
+}
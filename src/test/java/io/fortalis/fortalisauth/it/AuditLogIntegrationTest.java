@@ -0,0 +1,75 @@
+package io.fortalis.fortalisauth.it;
+
+import io.fortalis.fortalisauth.service.AuditLog;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+final class AuditLogIntegrationTest extends BaseIntegrationTest {
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private AuditLog audit;
+
+    @Test
+    void loginAttempts_areWrittenByTheBackgroundFlush() throws Exception {
+        String email = "audit+" + UUID.randomUUID() + "@itest.local";
+        mockMvc.perform(post("/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(("{ \"email\":\"%s\", \"password\":\"Str0ngPass!\", \"displayName\":\"Aud\" }").formatted(email)))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/auth/login/start")
+                        .header("X-Forwarded-For", "203.0.113.7")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(("{ \"emailOrUsername\":\"%s\", \"password\":\"wrong!\" }").formatted(email)))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/auth/login/start")
+                        .header("X-Forwarded-For", "203.0.113.7")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(("{ \"emailOrUsername\":\"%s\", \"password\":\"Str0ngPass!\" }").formatted(email)))
+                .andExpect(status().isOk());
+
+        audit.flush();
+
+        List<String> types = jdbc.queryForList(
+                "SELECT type FROM auth_event WHERE principal = ? ORDER BY ts", String.class, email);
+        assertEquals(List.of("account.registered", "login.failure", "login.success"), types);
+        assertEquals("203.0.113.7", jdbc.queryForObject(
+                "SELECT ip FROM auth_event WHERE principal = ? AND type = 'login.failure'", String.class, email));
+        assertEquals(
+                jdbc.queryForObject("SELECT account_id FROM auth_event WHERE principal = ? AND type = 'account.registered'", UUID.class, email),
+                jdbc.queryForObject("SELECT account_id FROM auth_event WHERE principal = ? AND type = 'login.failure'", UUID.class, email));
+    }
+
+    @Test
+    void failedLogin_forUnknownPrincipal_hasNoAccount() throws Exception {
+        String email = "audit+" + UUID.randomUUID() + "@itest.local";
+        mockMvc.perform(post("/auth/login/start")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(("{ \"emailOrUsername\":\"%s\", \"password\":\"Str0ngPass!\" }").formatted(email)))
+                .andExpect(status().isUnauthorized());
+
+        audit.flush();
+
+        assertNull(jdbc.queryForObject(
+                "SELECT account_id FROM auth_event WHERE principal = ? AND type = 'login.failure'", UUID.class, email));
+    }
+
+    @Test
+    void rowsLandInTheCurrentMonthPartition() {
+        audit.record(AuditLog.Type.LOGIN_FAILURE, null, null, "partition+" + UUID.randomUUID(), "198.51.100.1");
+        audit.flush();
+
+        String partition = jdbc.queryForObject(
+                "SELECT tableoid::regclass::text FROM auth_event ORDER BY ts DESC LIMIT 1", String.class);
+        assertTrue(partition.startsWith("auth_event_p"), "expected a monthly partition but got " + partition);
+    }
+}
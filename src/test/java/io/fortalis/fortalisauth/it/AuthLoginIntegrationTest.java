@@ -1,16 +1,20 @@
 package io.fortalis.fortalisauth.it;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.UUID;
 
+import static io.fortalis.fortalisauth.it.support.QueryCounter.assertStatementsAtMost;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 final class AuthLoginIntegrationTest extends BaseIntegrationTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
 
     @Test
     void loginStart_withoutMfa_returnsTokens() throws Exception {
@@ -30,13 +34,71 @@ final class AuthLoginIntegrationTest extends BaseIntegrationTest {
                     { "emailOrUsername":"%s", "password":"%s" }
                 """.formatted(email, password);
 
-        mockMvc.perform(post("/auth/login/start")
+        // account + account_mfa lookups, refresh_token insert
+        assertStatementsAtMost(3, () -> mockMvc.perform(post("/auth/login/start")
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON)
                         .content(login))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.accessToken", not(emptyString())))
-                .andExpect(jsonPath("$.mfaEnabled", is(false)));
+                .andExpect(jsonPath("$.mfaEnabled", is(false))));
+    }
+
+    @Test
+    void loginStart_mixedCaseEmail_findsAccount() throws Exception {
+        String email = "case+" + UUID.randomUUID() + "@itest.local";
+        mockMvc.perform(post("/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(("{ \"email\":\"%s\", \"password\":\"Str0ngPass!\", \"displayName\":\"Case\" }").formatted(email)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/auth/login/start")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(("{ \"emailOrUsername\":\"%s\", \"password\":\"Str0ngPass!\" }").formatted(email.toUpperCase())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken", not(emptyString())));
+    }
+
+    @Test
+    void loginStart_byUsername_isCaseInsensitive() throws Exception {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        String username = "Hero_" + suffix;
+        mockMvc.perform(post("/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(("{ \"email\":\"user+%s@itest.local\", \"password\":\"Str0ngPass!\", \"displayName\":\"Hero\", \"username\":\"%s\" }")
+                                .formatted(suffix, username)))
+                .andExpect(status().isOk());
+
+        // one account lookup, one MFA lookup, one refresh_token insert
+        assertStatementsAtMost(3, () -> mockMvc.perform(post("/auth/login/start")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(("{ \"emailOrUsername\":\"%s\", \"password\":\"Str0ngPass!\" }").formatted(username.toLowerCase())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.displayName", is("Hero"))));
+    }
+
+    @Test
+    void refresh_rotatesWithinStatementBudget() throws Exception {
+        String email = "refresh+" + UUID.randomUUID() + "@itest.local";
+        MvcResult reg = mockMvc.perform(post("/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(("{ \"email\":\"%s\", \"password\":\"Str0ngPass!\", \"displayName\":\"Ref\" }").formatted(email)))
+                .andExpect(status().isOk())
+                .andReturn();
+        String refresh = MAPPER.readTree(reg.getResponse().getContentAsString()).get("refreshToken").asText();
+
+        // token joined with account and MFA state, old row revoked, new row inserted
+        assertStatementsAtMost(3, () -> mockMvc.perform(post("/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(("{ \"refreshToken\":\"%s\" }").formatted(refresh)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.refreshToken", not(is(refresh))))
+                .andExpect(jsonPath("$.displayName", is("Ref")))
+                .andExpect(jsonPath("$.mfaEnabled", is(false))));
     }
 
     @Test
@@ -49,14 +111,14 @@ final class AuthLoginIntegrationTest extends BaseIntegrationTest {
                         .content(("{ \"email\":\"%s\", \"password\":\"%s\", \"displayName\":\"ABC\" }").formatted(email, password)))
                 .andExpect(status().isOk());
 
-        mockMvc.perform(post("/auth/login/start")
+        assertStatementsAtMost(1, () -> mockMvc.perform(post("/auth/login/start")
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON)
                         .content(("{ \"emailOrUsername\":\"%s\", \"password\":\"wrong!\" }").formatted(email)))
                 .andExpect(status().isUnauthorized())
                 .andExpect(jsonPath("$.type", is("https://auth.fortalis.game/errors/invalid_credentials")))
                 .andExpect(jsonPath("$.status", is(401)))
-                .andExpect(jsonPath("$.detail", is("Bad credentials")));
+                .andExpect(jsonPath("$.detail", is("Bad credentials"))));
     }
 
     @Test
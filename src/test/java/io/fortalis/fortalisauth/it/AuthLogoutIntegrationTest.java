@@ -1,5 +1,6 @@
 package io.fortalis.fortalisauth.it;
 
+import static io.fortalis.fortalisauth.it.support.QueryCounter.assertStatementsAtMost;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.emptyString;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -35,17 +36,18 @@ final class AuthLogoutIntegrationTest extends BaseIntegrationTest {
         JsonNode regJson = MAPPER.readTree(reg.getResponse().getContentAsString());
         String refresh = regJson.get("refreshToken").asText();
 
-        mockMvc.perform(post("/auth/logout")
+        // token lookup, revoke update, revocation_log append
+        assertStatementsAtMost(3, () -> mockMvc.perform(post("/auth/logout")
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON)
                         .content(("{ \"refreshToken\":\"%s\" }").formatted(refresh)))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk()));
 
-        mockMvc.perform(post("/auth/refresh")
+        assertStatementsAtMost(1, () -> mockMvc.perform(post("/auth/refresh")
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON)
                         .content(("{ \"refreshToken\":\"%s\" }").formatted(refresh)))
-                .andExpect(status().isUnauthorized());
+                .andExpect(status().isUnauthorized()));
     }
 
     @Test
@@ -2,9 +2,11 @@ package io.fortalis.fortalisauth.it;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.ResultActions;
 
 import java.util.UUID;
 
+import static io.fortalis.fortalisauth.it.support.QueryCounter.assertStatementsAtMost;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -19,7 +21,8 @@ final class AuthRegisterIntegrationTest extends BaseIntegrationTest {
             { "email":"%s", "password":"Str0ngPass!", "displayName":"Tester" }
         """.formatted(email);
 
-        mockMvc.perform(post("/auth/register")
+        // account + identity CTE, refresh_token insert
+        assertStatementsAtMost(2, () -> mockMvc.perform(post("/auth/register")
                 .contentType(MediaType.APPLICATION_JSON)
                 .accept(MediaType.APPLICATION_JSON)
                 .content(body))
@@ -27,7 +30,7 @@ final class AuthRegisterIntegrationTest extends BaseIntegrationTest {
             .andExpect(jsonPath("$.accessToken", not(emptyString())))
             .andExpect(jsonPath("$.refreshToken", not(emptyString())))
             .andExpect(jsonPath("$.displayName", is("Tester")))
-            .andExpect(jsonPath("$.mfaEnabled", is(false)));
+            .andExpect(jsonPath("$.mfaEnabled", is(false))));
     }
 
     @Test
@@ -52,6 +55,52 @@ final class AuthRegisterIntegrationTest extends BaseIntegrationTest {
             .andExpect(jsonPath("$.status", is(400)));
     }
 
+    @Test
+    void register_duplicateEmailInOtherCase_fails400() throws Exception {
+        String email = "case+" + UUID.randomUUID() + "@itest.local";
+        register("""
+            { "email":"%s", "password":"Str0ngPass!", "displayName":"Casey" }
+        """.formatted(email))
+            .andExpect(status().isOk());
+
+        register("""
+            { "email":"%s", "password":"Str0ngPass!", "displayName":"Casey" }
+        """.formatted(email.toUpperCase()))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.type", is("https://auth.fortalis.game/errors/email_taken")));
+    }
+
+    @Test
+    void register_duplicateUsername_reportsUsernameTaken() throws Exception {
+        String username = "u" + UUID.randomUUID().toString().substring(0, 8);
+        register("""
+            { "email":"%s", "password":"Str0ngPass!", "displayName":"First", "username":"%s" }
+        """.formatted("first+" + UUID.randomUUID() + "@itest.local", username))
+            .andExpect(status().isOk());
+
+        // The conflicting statement and the query naming the conflict; nothing is inserted.
+        assertStatementsAtMost(2, () -> register("""
+            { "email":"%s", "password":"Str0ngPass!", "displayName":"Second", "username":"%s" }
+        """.formatted("second+" + UUID.randomUUID() + "@itest.local", username.toUpperCase()))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.type", is("https://auth.fortalis.game/errors/username_taken"))));
+    }
+
+    @Test
+    void register_duplicateEmailWithAFreshUsername_reportsEmailTaken() throws Exception {
+        String email = "taken+" + UUID.randomUUID() + "@itest.local";
+        register("""
+            { "email":"%s", "password":"Str0ngPass!", "displayName":"First" }
+        """.formatted(email))
+            .andExpect(status().isOk());
+
+        register("""
+            { "email":"%s", "password":"Str0ngPass!", "displayName":"Second", "username":"%s" }
+        """.formatted(email, "u" + UUID.randomUUID().toString().substring(0, 8)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.type", is("https://auth.fortalis.game/errors/email_taken")));
+    }
+
     @Test
     void register_invalidEmail_fails400() throws Exception {
         String body = """
@@ -75,4 +124,11 @@ final class AuthRegisterIntegrationTest extends BaseIntegrationTest {
                 .content(body))
             .andExpect(status().isBadRequest());
     }
+
+    private ResultActions register(String body) throws Exception {
+        return mockMvc.perform(post("/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(body));
+    }
 }
@@ -1,15 +1,42 @@
 package io.fortalis.fortalisauth.it;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fortalis.fortalisauth.it.support.QueryCountingConfiguration;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
 import org.springframework.context.annotation.Import;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
 @SpringBootTest
 @AutoConfigureMockMvc
-@Import(TestcontainersConfiguration.class)
+@Import({TestcontainersConfiguration.class, QueryCountingConfiguration.class})
 public abstract class BaseIntegrationTest {
+    protected static final String PASSWORD = "Str0ngPass!";
+    protected static final String DISPLAY_NAME = "Tester";
+
     @Autowired
     protected MockMvc mockMvc;
+
+    /**
+     * Registers a fresh account, {@code <prefix>+<random>@itest.local}, and returns the token response.
+     */
+    protected JsonNode registerAccount(String prefix) throws Exception {
+        String email = prefix + "+" + UUID.randomUUID() + "@itest.local";
+        var res = mockMvc.perform(post("/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content("{ \"email\":\"%s\", \"password\":\"%s\", \"displayName\":\"%s\" }"
+                                .formatted(email, PASSWORD, DISPLAY_NAME)))
+                .andExpect(status().isOk())
+                .andReturn();
+        return new ObjectMapper().readTree(res.getResponse().getContentAsString());
+    }
 }
@@ -0,0 +1,57 @@
+package io.fortalis.fortalisauth.it;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+final class EventStreamIntegrationTest extends BaseIntegrationTest {
+    private static final String BACKEND_KEY = "dev-backend-key";
+
+    @Test
+    void stream_pushesSessionRevocationAfterLogout() throws Exception {
+        JsonNode tokens = registerAccount("stream");
+        MvcResult stream = mockMvc.perform(get("/auth/events/stream").header("X-Backend-Key", BACKEND_KEY))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(post("/auth/logout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(("{ \"refreshToken\":\"%s\" }").formatted(tokens.get("refreshToken").asText())))
+                .andExpect(status().isOk());
+
+        assertTrue(awaitContent(stream, "event:session.revoked"), "Expected a session.revoked event on the stream");
+    }
+
+    @Test
+    void stream_withUnknownLastEventId_startsWithReset() throws Exception {
+        MvcResult stream = mockMvc.perform(get("/auth/events/stream")
+                        .header("X-Backend-Key", BACKEND_KEY)
+                        .header("Last-Event-ID", "otherNode-42"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertTrue(awaitContent(stream, "event:reset"), "Expected a reset event for a foreign cursor");
+    }
+
+    @Test
+    void stream_withoutBackendKey_unauthorized() throws Exception {
+        mockMvc.perform(get("/auth/events/stream"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private static boolean awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            if (result.getResponse().getContentAsString().contains(expected)) return true;
+            Thread.sleep(50);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,72 @@
+package io.fortalis.fortalisauth.it;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+final class IntrospectionIntegrationTest extends BaseIntegrationTest {
+    private static final String BACKEND_KEY = "dev-backend-key";
+
+    @Test
+    void introspect_activeToken_thenInactiveAfterLogout() throws Exception {
+        JsonNode tokens = registerAccount("introspect");
+        String access = tokens.get("accessToken").asText();
+        String refresh = tokens.get("refreshToken").asText();
+
+        mockMvc.perform(post("/auth/introspect")
+                        .header("X-Backend-Key", BACKEND_KEY)
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                        .param("token", access))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.active", is(true)))
+                .andExpect(jsonPath("$.sub", not(emptyString())))
+                .andExpect(jsonPath("$.jti", not(emptyString())))
+                .andExpect(jsonPath("$.token_type", is("Bearer")));
+
+        mockMvc.perform(post("/auth/logout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(("{ \"refreshToken\":\"%s\" }").formatted(refresh)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/auth/introspect")
+                        .header("X-Backend-Key", BACKEND_KEY)
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                        .param("token", access))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.active", is(false)))
+                .andExpect(jsonPath("$.sub").doesNotExist());
+    }
+
+    @Test
+    void introspectBatch_returnsResultsInRequestOrder() throws Exception {
+        String access = registerAccount("introspect").get("accessToken").asText();
+
+        mockMvc.perform(post("/auth/introspect/batch")
+                        .header("X-Backend-Key", BACKEND_KEY)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(("{ \"tokens\": [\"%s\", \"not-a-jwt\"] }").formatted(access)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results", hasSize(2)))
+                .andExpect(jsonPath("$.results[0].active", is(true)))
+                .andExpect(jsonPath("$.results[1].active", is(false)));
+    }
+
+    @Test
+    void introspect_withoutBackendKey_unauthorized() throws Exception {
+        mockMvc.perform(post("/auth/introspect")
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                        .param("token", "whatever"))
+                .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(post("/auth/introspect")
+                        .header("X-Backend-Key", "wrong-key")
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                        .param("token", "whatever"))
+                .andExpect(status().isUnauthorized());
+    }
+}
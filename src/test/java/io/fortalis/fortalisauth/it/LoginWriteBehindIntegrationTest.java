@@ -0,0 +1,56 @@
+package io.fortalis.fortalisauth.it;
+
+import io.fortalis.fortalisauth.service.LoginWriteBehind;
+import io.fortalis.fortalisauth.service.PlayerServerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class LoginWriteBehindIntegrationTest extends BaseIntegrationTest {
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private PlayerServerService players;
+    @Autowired
+    private LoginWriteBehind writeBehind;
+
+    @Test
+    void recordLogin_flushWritesLastLoginAndLastServer() {
+        String serverId = "IT-" + UUID.randomUUID().toString().substring(0, 8);
+        jdbc.update("INSERT INTO server (id, region, display_name) VALUES (?, 'EU', 'Integration')", serverId);
+        UUID accountId = jdbc.queryForObject("INSERT INTO account (email) VALUES (?) RETURNING id", UUID.class,
+                "wb+" + UUID.randomUUID() + "@itest.local");
+        players.createPlayer(accountId, serverId, "Hero");
+
+        players.recordLogin(accountId, serverId);
+        players.recordLogin(accountId, serverId);
+
+        writeBehind.flush();
+
+        assertNotNull(jdbc.queryForObject("SELECT last_login_ts FROM player_server WHERE account_id = ?", Timestamp.class, accountId));
+        assertEquals(serverId, jdbc.queryForObject("SELECT last_server_id FROM account_settings WHERE account_id = ?", String.class, accountId));
+    }
+
+    @Test
+    void flush_dropsARejectedRow_andWritesTheRestOfItsChunk() {
+        UUID good = jdbc.queryForObject("INSERT INTO account (email) VALUES (?) RETURNING id", UUID.class,
+                "wb+" + UUID.randomUUID() + "@itest.local");
+        UUID poisoned = jdbc.queryForObject("INSERT INTO account (email) VALUES (?) RETURNING id", UUID.class,
+                "wb+" + UUID.randomUUID() + "@itest.local");
+
+        writeBehind.recordLogin(good, "IT-OK", Instant.now());
+        writeBehind.recordLogin(poisoned, "X".repeat(40), Instant.now()); // last_server_id is VARCHAR(32)
+
+        writeBehind.flush();
+
+        assertEquals("IT-OK", jdbc.queryForObject("SELECT last_server_id FROM account_settings WHERE account_id = ?", String.class, good));
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM account_settings WHERE account_id = ?", Integer.class, poisoned));
+        assertEquals(0, writeBehind.pending());
+    }
+}
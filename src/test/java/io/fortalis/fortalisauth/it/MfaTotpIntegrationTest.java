@@ -9,6 +9,9 @@ import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.UUID;
 
+import static io.fortalis.fortalisauth.it.support.QueryCounter.assertRoundTripsAtMost;
+import static io.fortalis.fortalisauth.it.support.QueryCounter.assertStatementsAtMost;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -32,13 +35,16 @@ final class MfaTotpIntegrationTest extends BaseIntegrationTest {
         String access = regJson.get("accessToken").asText();
         String refresh = regJson.get("refreshToken").asText();
 
-        // setup TOTP (needs auth)
-        MvcResult setup = mockMvc.perform(post("/auth/mfa/totp/setup")
+        // setup TOTP (needs auth): mfa lookup, one account_mfa write carrying all backup codes, commit
+        var result = new MvcResult[1];
+        var counts = assertRoundTripsAtMost(3, () -> result[0] = mockMvc.perform(post("/auth/mfa/totp/setup")
                         .header("Authorization", "Bearer " + access)
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.secretBase32", not(emptyString())))
-                .andReturn();
+                .andReturn());
+        assertEquals(2, counts.statements(), "backup codes are packed into the account_mfa row");
+        MvcResult setup = result[0];
         String secret = MAPPER.readTree(setup.getResponse().getContentAsString()).get("secretBase32").asText();
         String code = TotpTestUtil.currentCodeFromBase32Secret(secret);
 
@@ -70,7 +76,8 @@ final class MfaTotpIntegrationTest extends BaseIntegrationTest {
 
         // complete with current TOTP
         String code2 = TotpTestUtil.currentCodeFromBase32Secret(secret);
-        mockMvc.perform(post("/auth/login/complete")
+        // account_mfa read once for the code check, refresh_token insert
+        assertStatementsAtMost(2, () -> mockMvc.perform(post("/auth/login/complete")
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON)
                         .content(("""
@@ -78,7 +85,7 @@ final class MfaTotpIntegrationTest extends BaseIntegrationTest {
                                 """).formatted(ticket, code2)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.accessToken", not(emptyString())))
-                .andExpect(jsonPath("$.mfaEnabled", is(true)));
+                .andExpect(jsonPath("$.mfaEnabled", is(true))));
     }
 
     @Test
@@ -160,4 +167,51 @@ final class MfaTotpIntegrationTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$.type", is("https://auth.fortalis.game/errors/mfa_invalid")))
                 .andExpect(jsonPath("$.status", is(401)));
     }
+
+    @Test
+    void backupCode_completesLoginOnlyOnce() throws Exception {
+        String email = "mfabackup+" + UUID.randomUUID() + "@itest.local";
+        String password = "Str0ngPass!";
+        MvcResult reg = mockMvc.perform(post("/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(("{ \"email\":\"%s\", \"password\":\"%s\", \"displayName\":\"Backup\" }").formatted(email, password)))
+                .andExpect(status().isOk())
+                .andReturn();
+        String access = MAPPER.readTree(reg.getResponse().getContentAsString()).get("accessToken").asText();
+
+        MvcResult setup = mockMvc.perform(post("/auth/mfa/totp/setup")
+                        .header("Authorization", "Bearer " + access)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.backupCodes", hasSize(10)))
+                .andReturn();
+        JsonNode setupJson = MAPPER.readTree(setup.getResponse().getContentAsString());
+        String backupCode = setupJson.get("backupCodes").get(3).asText();
+
+        mockMvc.perform(post("/auth/mfa/totp/enable")
+                        .header("Authorization", "Bearer " + access)
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .param("code", TotpTestUtil.currentCodeFromBase32Secret(setupJson.get("secretBase32").asText())))
+                .andExpect(status().isOk());
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            MvcResult start = mockMvc.perform(post("/auth/login/start")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON)
+                            .content(("{ \"emailOrUsername\":\"%s\", \"password\":\"%s\" }").formatted(email, password)))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            String ticket = MAPPER.readTree(start.getResponse().getContentAsString()).get("loginTicket").asText();
+
+            mockMvc.perform(post("/auth/login/complete")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON)
+                            .content("""
+                                        { "loginTicket":"%s", "factor":"TOTP", "code":"%s" }
+                                    """.formatted(ticket, backupCode)))
+                    .andExpect(attempt == 0 ? status().isOk() : status().isUnauthorized());
+        }
+    }
 }
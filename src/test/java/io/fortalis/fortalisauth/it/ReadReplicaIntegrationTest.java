@@ -0,0 +1,98 @@
+package io.fortalis.fortalisauth.it;
+
+import io.fortalis.fortalisauth.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.images.builder.Transferable;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against a real streaming replica: a second Postgres cloned from the primary with pg_basebackup.
+ */
+@SpringBootTest
+final class ReadReplicaIntegrationTest {
+    private static final Network NETWORK = Network.newNetwork();
+
+    private static final PostgreSQLContainer PRIMARY = new PostgreSQLContainer(DockerImageName.parse("postgres:17-alpine"))
+            .withDatabaseName("fortalis_auth")
+            .withUsername("fortalis")
+            .withPassword("fortalis")
+            .withNetwork(NETWORK)
+            .withNetworkAliases("primary")
+            .withCopyToContainer(Transferable.of("""
+                    #!/bin/sh
+                    echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
+                    """, 0755), "/docker-entrypoint-initdb.d/10-replication.sh");
+
+    private static final GenericContainer<?> REPLICA = new GenericContainer<>(DockerImageName.parse("postgres:17-alpine"))
+            .withNetwork(NETWORK)
+            .withEnv("PGPASSWORD", "fortalis")
+            .withCreateContainerCmdModifier(cmd -> cmd.withUser("postgres"))
+            .withCommand("sh", "-c", """
+                    until pg_basebackup -h primary -U fortalis -D /tmp/replica -R -X stream; do rm -rf /tmp/replica; sleep 1; done
+                    chmod 700 /tmp/replica
+                    exec postgres -D /tmp/replica
+                    """)
+            .withExposedPorts(5432)
+            .waitingFor(Wait.forLogMessage(".*ready to accept read-only connections.*\\n", 1)
+                    .withStartupTimeout(Duration.ofMinutes(2)));
+
+    static {
+        PRIMARY.start();
+        REPLICA.dependsOn(PRIMARY).start();
+    }
+
+    @DynamicPropertySource
+    static void datasources(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", PRIMARY::getJdbcUrl);
+        registry.add("spring.datasource.username", PRIMARY::getUsername);
+        registry.add("spring.datasource.password", PRIMARY::getPassword);
+        registry.add("auth.datasource.replica.url", () -> "jdbc:postgresql://%s:%d/fortalis_auth"
+                .formatted(REPLICA.getHost(), REPLICA.getMappedPort(5432)));
+    }
+
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private PlatformTransactionManager txManager;
+    @Autowired
+    private AccountService accounts;
+
+    @Test
+    void readOnlyTransactions_runOnTheReplica_othersOnThePrimary() {
+        var readOnly = new TransactionTemplate(txManager);
+        readOnly.setReadOnly(true);
+        var readWrite = new TransactionTemplate(txManager);
+
+        assertEquals(Boolean.TRUE, readOnly.execute(s -> jdbc.queryForObject("SELECT pg_is_in_recovery()", Boolean.class)));
+        assertEquals(Boolean.FALSE, readWrite.execute(s -> jdbc.queryForObject("SELECT pg_is_in_recovery()", Boolean.class)));
+    }
+
+    @Test
+    void loginLookup_seesReplicatedAccount() throws InterruptedException {
+        String email = "replica+" + UUID.randomUUID() + "@itest.local";
+        var created = accounts.register(email, "Str0ngPass!", "Rep");
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (accounts.findByEmailOrUsername(email).isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertEquals(created.getId(), accounts.findByEmailOrUsername(email).orElseThrow().getId());
+    }
+}
@@ -0,0 +1,143 @@
+package io.fortalis.fortalisauth.it;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fortalis.fortalisauth.event.SessionRevokedEvent;
+import io.fortalis.fortalisauth.service.RevocationRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+final class RevocationFeedIntegrationTest extends BaseIntegrationTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String BACKEND_KEY = "dev-backend-key";
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private PlatformTransactionManager txManager;
+    @Autowired
+    private ApplicationEventPublisher events;
+    @Autowired
+    private RevocationRegistry registry;
+
+    @Test
+    void logout_appearsInSnapshotAndLaterInDelta() throws Exception {
+        JsonNode tokens = registerAccount("feed");
+        String jti = jtiOf(tokens.get("accessToken").asText());
+        long cursor = snapshotCursor();
+
+        logout(tokens);
+
+        mockMvc.perform(get("/auth/revocations/snapshot").header("X-Backend-Key", BACKEND_KEY))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].jti", hasItem(jti)));
+
+        JsonNode delta = awaitDelta(cursor, jti);
+        assertTrue(delta.get("cursor").asLong() > cursor);
+    }
+
+    @Test
+    void delta_waitsForATransactionStillInFlight_insteadOfSkippingIt() throws Exception {
+        long cursor = snapshotCursor();
+        UUID slowJti = UUID.randomUUID();
+        try (Connection slow = dataSource.getConnection()) {
+            slow.setAutoCommit(false);
+            try (var insert = slow.prepareStatement(
+                    "INSERT INTO revocation_log (jti, account_id, expires_ts) VALUES (?, ?, NOW() + INTERVAL '1 hour')")) {
+                insert.setObject(1, slowJti);
+                insert.setObject(2, UUID.randomUUID());
+                insert.executeUpdate();
+            }
+
+            // A later revocation commits first; the cursor must not move past the open transaction.
+            JsonNode tokens = registerAccount("feed");
+            String jti = jtiOf(tokens.get("accessToken").asText());
+            logout(tokens);
+            JsonNode held = delta(cursor);
+            assertFalse(held.findValuesAsText("jti").contains(jti));
+
+            slow.commit();
+            JsonNode both = awaitDelta(held.get("cursor").asLong(), jti);
+            assertTrue(both.findValuesAsText("jti").contains(slowJti.toString()));
+        }
+    }
+
+    @Test
+    void sessionRevokedInARolledBackTransaction_staysLiveOnThisNode() {
+        var tx = new TransactionTemplate(txManager);
+        UUID rolledBack = UUID.randomUUID();
+        UUID committed = UUID.randomUUID();
+
+        tx.executeWithoutResult(status -> {
+            events.publishEvent(new SessionRevokedEvent(UUID.randomUUID(), rolledBack));
+            status.setRollbackOnly();
+        });
+        tx.executeWithoutResult(status -> events.publishEvent(new SessionRevokedEvent(UUID.randomUUID(), committed)));
+
+        assertFalse(registry.isRevoked(rolledBack.toString()));
+        assertTrue(registry.isRevoked(committed.toString()));
+    }
+
+    @Test
+    void feed_withoutBackendKey_unauthorized() throws Exception {
+        mockMvc.perform(get("/auth/revocations").param("since", "0"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private long snapshotCursor() throws Exception {
+        return MAPPER.readTree(mockMvc.perform(get("/auth/revocations/snapshot")
+                        .header("X-Backend-Key", BACKEND_KEY))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).get("cursor").asLong();
+    }
+
+    private JsonNode delta(long since) throws Exception {
+        return MAPPER.readTree(mockMvc.perform(get("/auth/revocations")
+                        .header("X-Backend-Key", BACKEND_KEY)
+                        .param("since", Long.toString(since)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    /**
+     * Other transactions of the running app (audit flush, ...) can hold the feed back briefly.
+     */
+    private JsonNode awaitDelta(long since, String jti) throws Exception {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (true) {
+            JsonNode delta = delta(since);
+            if (delta.findValuesAsText("jti").contains(jti)) return delta;
+            if (System.nanoTime() > deadline) fail("jti " + jti + " not in the delta after " + since);
+            Thread.sleep(100);
+        }
+    }
+
+    private void logout(JsonNode tokens) throws Exception {
+        mockMvc.perform(post("/auth/logout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(("{ \"refreshToken\":\"%s\" }").formatted(tokens.get("refreshToken").asText())))
+                .andExpect(status().isOk());
+    }
+
+    private static String jtiOf(String jwt) throws Exception {
+        String payload = new String(Base64.getUrlDecoder().decode(jwt.split("\\.")[1]), StandardCharsets.UTF_8);
+        return MAPPER.readTree(payload).get("jti").asText();
+    }
+}
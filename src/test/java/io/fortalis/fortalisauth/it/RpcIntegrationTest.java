@@ -0,0 +1,261 @@
+package io.fortalis.fortalisauth.it;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fortalis.fortalisauth.config.RpcProperties;
+import io.fortalis.fortalisauth.rpc.ProtoReader;
+import io.fortalis.fortalisauth.rpc.ProtoWriter;
+import io.fortalis.fortalisauth.rpc.RpcMessages;
+import io.fortalis.fortalisauth.service.ServerDirectory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static io.fortalis.fortalisauth.it.support.QueryCounter.assertStatementsAtMost;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+final class RpcIntegrationTest extends BaseIntegrationTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String BACKEND_KEY = "dev-backend-key";
+
+    @Autowired
+    private RpcProperties rpc;
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private ServerDirectory directory;
+
+    @Test
+    void introspect_answersEachMessageOfTheStream_inOrder() throws Exception {
+        String token = registerAccount("rpc").get("accessToken").asText();
+
+        List<ProtoReader> responses = call("/rpc/introspect",
+                new ProtoWriter().string(1, token).string(1, "not-a-jwt"),
+                new ProtoWriter().string(1, token));
+
+        assertEquals(2, responses.size());
+        List<ProtoReader> first = nested(responses.get(0));
+        assertEquals(2, first.size());
+        assertEquals(UUID.fromString(claim(token, "sub")), tokenInfo(first.get(0)).sub());
+        assertTrue(tokenInfo(first.get(0)).active());
+        assertFalse(tokenInfo(first.get(1)).active());
+        assertTrue(tokenInfo(nested(responses.get(1)).getFirst()).active());
+    }
+
+    @Test
+    void tokenExchange_issuesServerScopedToken_withTheSameSession() throws Exception {
+        String serverId = newServer();
+        String token = registerAccount("rpc").get("accessToken").asText();
+
+        String serverToken = exchange(token, serverId);
+        assertNotNull(serverToken);
+        assertEquals("fortalis-server:" + serverId, claim(serverToken, "aud"));
+        assertEquals(claim(token, "sub"), claim(serverToken, "sub"));
+        assertEquals(claim(token, "jti"), claim(serverToken, "jti"));
+
+        assertEquals("unknown_server", error(call("/rpc/token-exchange",
+                new ProtoWriter().string(1, token).string(2, "no-such-server")).getFirst()));
+        assertEquals("invalid_token", error(call("/rpc/token-exchange",
+                new ProtoWriter().string(1, serverToken).string(2, serverId)).getFirst()));
+    }
+
+    @Test
+    void serverToken_isRejectedByThePlayerApi_andByIntrospectionForAnotherServer() throws Exception {
+        String serverId = newServer();
+        String otherServer = newServer();
+        String serverToken = exchange(registerAccount("rpc").get("accessToken").asText(), serverId);
+
+        mockMvc.perform(get("/auth/sessions").header("Authorization", "Bearer " + serverToken))
+                .andExpect(status().isUnauthorized());
+
+        List<ProtoReader> results = nested(call("/rpc/introspect",
+                new ProtoWriter().string(1, serverToken).string(2, "fortalis-server:" + otherServer)).getFirst());
+        assertFalse(tokenInfo(results.getFirst()).active());
+
+        var own = tokenInfo(nested(call("/rpc/introspect",
+                new ProtoWriter().string(1, serverToken).string(2, "fortalis-server:" + serverId)).getFirst()).getFirst());
+        assertTrue(own.active());
+        assertEquals(List.of("fortalis-server:" + serverId), own.aud());
+
+        mockMvc.perform(post("/auth/introspect")
+                        .header("X-Backend-Key", BACKEND_KEY)
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                        .param("token", serverToken)
+                        .param("audience", "fortalis-server:" + otherServer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.active").value(false));
+    }
+
+    @Test
+    void profiles_areOneStatement_andLeaveOutUnknownIds() throws Exception {
+        UUID account = UUID.fromString(claim(registerAccount("rpc").get("accessToken").asText(), "sub"));
+
+        List<ProtoReader> profiles = new ArrayList<>();
+        assertStatementsAtMost(1, () -> profiles.addAll(nested(call("/rpc/profiles",
+                new ProtoWriter().uuid(1, account).uuid(1, UUID.randomUUID())).getFirst())));
+
+        assertEquals(1, profiles.size());
+        var profile = profiles.getFirst();
+        UUID id = null;
+        String displayName = null;
+        for (int field; (field = profile.nextField()) != 0; ) {
+            switch (field) {
+                case 1 -> id = profile.uuid();
+                case 2 -> displayName = profile.string();
+                default -> profile.skip();
+            }
+        }
+        assertEquals(account, id);
+        assertEquals(DISPLAY_NAME, displayName);
+    }
+
+    @Test
+    void playerRegistration_isIdempotent() throws Exception {
+        String serverId = newServer();
+        UUID account = UUID.fromString(claim(registerAccount("rpc").get("accessToken").asText(), "sub"));
+        var request = new ProtoWriter().uuid(1, account).string(2, serverId);
+
+        List<ProtoReader> responses = call("/rpc/player-servers", request, request);
+
+        var created = registration(responses.get(0));
+        var again = registration(responses.get(1));
+        assertTrue(created.created());
+        assertFalse(again.created());
+        assertEquals(created.playerId(), again.playerId());
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM player_server WHERE account_id = ?", Integer.class, account));
+
+        assertEquals("unknown_account", error(call("/rpc/player-servers",
+                new ProtoWriter().uuid(1, UUID.randomUUID()).string(2, serverId)).getFirst()));
+    }
+
+    @Test
+    void rpc_isOnlyServedOnItsPort_andRequiresBackendKey() throws Exception {
+        byte[] body = delimited(new ProtoWriter().string(1, "x"));
+
+        mockMvc.perform(post("/rpc/introspect").contentType(RpcMessages.CONTENT_TYPE).content(body)
+                        .header("X-Backend-Key", BACKEND_KEY))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(onRpcPort(post("/rpc/introspect")).contentType(RpcMessages.CONTENT_TYPE).content(body))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(onRpcPort(post("/auth/register")).contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isNotFound());
+    }
+
+    private record TokenInfo(boolean active, UUID sub, List<String> aud) {
+    }
+
+    private record Registration(UUID playerId, boolean created) {
+    }
+
+    private List<ProtoReader> call(String path, ProtoWriter... messages) throws Exception {
+        var res = mockMvc.perform(onRpcPort(post(path))
+                        .header("X-Backend-Key", BACKEND_KEY)
+                        .contentType(RpcMessages.CONTENT_TYPE)
+                        .content(delimited(messages)))
+                .andExpect(status().isOk())
+                .andReturn();
+        var in = new ByteArrayInputStream(res.getResponse().getContentAsByteArray());
+        List<ProtoReader> out = new ArrayList<>();
+        byte[] message;
+        while ((message = ProtoReader.readDelimited(in, 1 << 20)) != null) out.add(new ProtoReader(message));
+        return out;
+    }
+
+    private MockHttpServletRequestBuilder onRpcPort(MockHttpServletRequestBuilder builder) {
+        return builder.with(request -> {
+            request.setLocalPort(rpc.port());
+            return request;
+        });
+    }
+
+    private static byte[] delimited(ProtoWriter... messages) throws Exception {
+        var out = new ByteArrayOutputStream();
+        for (var m : messages) m.writeDelimitedTo(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * The embedded messages in field 1 (results, profiles).
+     */
+    private static List<ProtoReader> nested(ProtoReader message) {
+        List<ProtoReader> out = new ArrayList<>();
+        for (int field; (field = message.nextField()) != 0; ) {
+            if (field == 1) out.add(new ProtoReader(message.bytes()));
+            else message.skip();
+        }
+        return out;
+    }
+
+    private static TokenInfo tokenInfo(ProtoReader info) {
+        boolean active = false;
+        UUID sub = null;
+        List<String> aud = new ArrayList<>();
+        for (int field; (field = info.nextField()) != 0; ) {
+            switch (field) {
+                case 1 -> active = info.bool();
+                case 2 -> sub = info.uuid();
+                case 7 -> aud.add(info.string());
+                default -> info.skip();
+            }
+        }
+        return new TokenInfo(active, sub, aud);
+    }
+
+    private static Registration registration(ProtoReader response) {
+        UUID playerId = null;
+        boolean created = false;
+        for (int field; (field = response.nextField()) != 0; ) {
+            switch (field) {
+                case 2 -> playerId = response.uuid();
+                case 3 -> created = response.bool();
+                default -> response.skip();
+            }
+        }
+        return new Registration(playerId, created);
+    }
+
+    private String exchange(String token, String serverId) throws Exception {
+        ProtoReader response = call("/rpc/token-exchange",
+                new ProtoWriter().string(1, token).string(2, serverId)).getFirst();
+        for (int field; (field = response.nextField()) != 0; ) {
+            if (field == 2) return response.string();
+            response.skip();
+        }
+        return null;
+    }
+
+    private static String error(ProtoReader response) {
+        for (int field; (field = response.nextField()) != 0; ) {
+            if (field == 1) return response.string();
+            response.skip();
+        }
+        return null;
+    }
+
+    private static String claim(String jwt, String name) throws Exception {
+        String payload = new String(Base64.getUrlDecoder().decode(jwt.split("\\.")[1]), StandardCharsets.UTF_8);
+        JsonNode value = MAPPER.readTree(payload).get(name);
+        return value.isArray() ? value.get(0).asText() : value.asText();
+    }
+
+    private String newServer() {
+        String serverId = "RPC-" + UUID.randomUUID().toString().substring(0, 8);
+        jdbc.update("INSERT INTO server (id, region, display_name) VALUES (?, 'EU', 'Rpc')", serverId);
+        directory.refresh();
+        return serverId;
+    }
+}
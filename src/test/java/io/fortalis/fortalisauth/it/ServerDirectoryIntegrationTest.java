@@ -0,0 +1,49 @@
+package io.fortalis.fortalisauth.it;
+
+import io.fortalis.fortalisauth.service.PlayerServerService;
+import io.fortalis.fortalisauth.service.ServerDirectory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+final class ServerDirectoryIntegrationTest extends BaseIntegrationTest {
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private ServerDirectory directory;
+    @Autowired
+    private PlayerServerService players;
+
+    @Test
+    void createPlayer_countsImmediately_andFlushesToServerRow() throws Exception {
+        String serverId = "IT-" + UUID.randomUUID().toString().substring(0, 8);
+        jdbc.update("INSERT INTO server (id, region, display_name) VALUES (?, 'EU', 'Integration')", serverId);
+        directory.refresh();
+
+        players.createPlayer(newAccount(), serverId, "Hero");
+        players.createPlayer(newAccount(), serverId, "Sidekick");
+
+        assertEquals(2, directory.find(serverId).orElseThrow().playerCount());
+        mockMvc.perform(get("/servers"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", hasItem(serverId)));
+
+        directory.flushPlayerCounts();
+
+        assertEquals(2, jdbc.queryForObject("SELECT player_count FROM server WHERE id = ?", Integer.class, serverId));
+        assertEquals(2, directory.find(serverId).orElseThrow().playerCount());
+    }
+
+    private UUID newAccount() {
+        return jdbc.queryForObject("INSERT INTO account (email) VALUES (?) RETURNING id", UUID.class,
+                "srv+" + UUID.randomUUID() + "@itest.local");
+    }
+}
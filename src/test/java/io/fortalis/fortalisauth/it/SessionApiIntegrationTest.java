@@ -0,0 +1,190 @@
+package io.fortalis.fortalisauth.it;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.HashSet;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static io.fortalis.fortalisauth.it.support.QueryCounter.assertStatementsAtMost;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+final class SessionApiIntegrationTest extends BaseIntegrationTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    void list_pagesThroughSessionsWithDeviceDetails() throws Exception {
+        String email = "sessions+" + UUID.randomUUID() + "@itest.local";
+        JsonNode first = register(email);
+        for (int i = 0; i < 2; i++) login(email, "Phone " + i);
+        String access = first.get("accessToken").asText();
+
+        JsonNode page1 = getJson(access, "/auth/sessions?limit=2");
+        assertEquals(2, page1.get("items").size());
+        assertNotNull(page1.get("nextCursor").textValue());
+        JsonNode page2 = getJson(access, "/auth/sessions?limit=2&cursor=" + page1.get("nextCursor").asText());
+        assertEquals(1, page2.get("items").size());
+        assertTrue(page2.get("nextCursor").isNull());
+
+        var ids = new HashSet<String>();
+        page1.get("items").forEach(s -> ids.add(s.get("id").asText()));
+        page2.get("items").forEach(s -> ids.add(s.get("id").asText()));
+        assertEquals(3, ids.size(), "pages must not overlap");
+
+        JsonNode registered = page2.get("items").get(0); // oldest expiry comes last
+        assertTrue(registered.get("current").asBoolean());
+        assertEquals("Desktop", registered.get("deviceLabel").asText());
+        assertEquals("FortalisClient/1.0", registered.get("userAgent").asText());
+    }
+
+    @Test
+    void revoke_singleSession_endsOnlyThatSession() throws Exception {
+        String email = "revoke1+" + UUID.randomUUID() + "@itest.local";
+        JsonNode mine = register(email);
+        JsonNode other = login(email, "Tablet");
+        String access = mine.get("accessToken").asText();
+        String otherId = getJson(other.get("accessToken").asText(), "/auth/sessions").get("items").get(0).get("id").asText();
+
+        mockMvc.perform(delete("/auth/sessions/" + otherId).header("Authorization", "Bearer " + access))
+                .andExpect(status().isNoContent());
+
+        refresh(other.get("refreshToken").asText()).andExpect(status().isUnauthorized());
+        JsonNode left = getJson(access, "/auth/sessions");
+        assertEquals(1, left.get("items").size());
+        assertTrue(left.get("items").get(0).get("current").asBoolean());
+
+        mockMvc.perform(delete("/auth/sessions/" + UUID.randomUUID()).header("Authorization", "Bearer " + access))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.type", endsWith("/session_not_found")));
+    }
+
+    @Test
+    void refresh_keepsTheSessionId_andRevokingItEndsEveryTokenOfTheSession() throws Exception {
+        String email = "stable+" + UUID.randomUUID() + "@itest.local";
+        JsonNode mine = register(email);
+        JsonNode other = login(email, "Laptop");
+        String firstAccess = other.get("accessToken").asText();
+        String sessionId = getJson(firstAccess, "/auth/sessions").get("items").get(0).get("id").asText();
+
+        var rotated = MAPPER.readTree(refresh(other.get("refreshToken").asText())
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+        String rotatedAccess = rotated.get("accessToken").asText();
+        JsonNode listed = getJson(rotatedAccess, "/auth/sessions");
+        assertEquals(2, listed.get("items").size(), "rotation does not add a session");
+        assertTrue(listed.findValuesAsText("id").contains(sessionId));
+
+        mockMvc.perform(delete("/auth/sessions/" + sessionId).header("Authorization", "Bearer " + mine.get("accessToken").asText()))
+                .andExpect(status().isNoContent());
+
+        refresh(rotated.get("refreshToken").asText()).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/auth/sessions").header("Authorization", "Bearer " + firstAccess))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/auth/sessions").header("Authorization", "Bearer " + rotatedAccess))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void revokeAll_isOneStatement_andEndsEverySession() throws Exception {
+        String email = "revokeall+" + UUID.randomUUID() + "@itest.local";
+        JsonNode mine = register(email);
+        JsonNode other = login(email, "Console");
+        for (int i = 0; i < 5; i++) login(email, "Stale " + i);
+        String access = mine.get("accessToken").asText();
+
+        assertStatementsAtMost(1, () -> mockMvc.perform(delete("/auth/sessions").header("Authorization", "Bearer " + access))
+                .andExpect(status().isNoContent()));
+
+        refresh(mine.get("refreshToken").asText()).andExpect(status().isUnauthorized());
+        refresh(other.get("refreshToken").asText()).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/auth/sessions").header("Authorization", "Bearer " + access))
+                .andExpect(status().isUnauthorized());
+
+        JsonNode fresh = login(email, "New phone");
+        JsonNode after = getJson(fresh.get("accessToken").asText(), "/auth/sessions");
+        assertEquals(1, after.get("items").size(), "sessions from before the watermark are no longer listed");
+        assertEquals("New phone", after.get("items").get(0).get("deviceLabel").asText());
+    }
+
+    @Test
+    void login_beyondSessionCap_evictsOldestSession() throws Exception {
+        String email = "cap+" + UUID.randomUUID() + "@itest.local";
+        JsonNode oldest = register(email);
+        JsonNode newest = null;
+        for (int i = 0; i < 10; i++) newest = login(email, "Bot " + i);
+        String access = newest.get("accessToken").asText();
+
+        JsonNode page = getJson(access, "/auth/sessions?limit=100");
+        assertEquals(10, page.get("items").size(), "auth.jwt.max-sessions-per-account defaults to 10");
+        for (JsonNode s : page.get("items")) assertNotEquals("Desktop", s.get("deviceLabel").asText());
+
+        refresh(oldest.get("refreshToken").asText()).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/auth/sessions").header("Authorization", "Bearer " + oldest.get("accessToken").asText()))
+                .andExpect(status().isUnauthorized());
+        refresh(newest.get("refreshToken").asText()).andExpect(status().isOk());
+    }
+
+    @Test
+    void list_requiresAuthentication_andRejectsBadCursor() throws Exception {
+        mockMvc.perform(get("/auth/sessions")).andExpect(status().isUnauthorized());
+
+        String access = register("cursor+" + UUID.randomUUID() + "@itest.local").get("accessToken").asText();
+        mockMvc.perform(get("/auth/sessions?cursor=not-a-cursor").header("Authorization", "Bearer " + access))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.type", endsWith("/invalid_cursor")));
+    }
+
+    @Test
+    void accountEndpoints_rejectABackendKeyWithoutBearerToken() throws Exception {
+        mockMvc.perform(get("/auth/sessions").header("X-Backend-Key", "dev-backend-key"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/auth/sessions").header("X-Backend-Key", "dev-backend-key"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/auth/mfa/totp/setup").header("X-Backend-Key", "dev-backend-key"))
+                .andExpect(status().isForbidden());
+    }
+
+    private JsonNode register(String email) throws Exception {
+        var res = mockMvc.perform(post("/auth/register")
+                        .header("User-Agent", "FortalisClient/1.0")
+                        .header("X-Device-Label", "Desktop")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"email\":\"%s\", \"password\":\"Str0ngPass!\", \"displayName\":\"Sess\" }".formatted(email)))
+                .andExpect(status().isOk())
+                .andReturn();
+        return MAPPER.readTree(res.getResponse().getContentAsString());
+    }
+
+    private JsonNode login(String email, String device) throws Exception {
+        var res = mockMvc.perform(post("/auth/login/start")
+                        .header("X-Device-Label", device)
+                        .header("X-Forwarded-For", "198.51.100." + ThreadLocalRandom.current().nextInt(1, 255))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"emailOrUsername\":\"%s\", \"password\":\"Str0ngPass!\" }".formatted(email)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken", not(emptyString())))
+                .andReturn();
+        return MAPPER.readTree(res.getResponse().getContentAsString());
+    }
+
+    private JsonNode getJson(String access, String path) throws Exception {
+        var res = mockMvc.perform(get(path)
+                        .header("Authorization", "Bearer " + access))
+                .andExpect(status().isOk())
+                .andReturn();
+        return MAPPER.readTree(res.getResponse().getContentAsString());
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{ \"refreshToken\":\"%s\" }".formatted(refreshToken)));
+    }
+}
@@ -0,0 +1,101 @@
+package io.fortalis.fortalisauth.it;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import static io.fortalis.fortalisauth.it.support.QueryCounter.assertStatementsAtMost;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+final class TokenWatermarkIntegrationTest extends BaseIntegrationTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String BACKEND_KEY = "dev-backend-key";
+    private static final String ADMIN_KEY = "dev-admin-key";
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void accountWatermark_isOneStatement_rejectsOldTokens_andIsPublished() throws Exception {
+        JsonNode old = registerAccount("watermark");
+        String sub = subOf(old.get("accessToken").asText());
+        sessions(old).andExpect(status().isOk());
+
+        assertStatementsAtMost(1, () -> mockMvc.perform(post("/auth/revocations/watermarks/accounts/" + sub)
+                        .header("X-Backend-Key", BACKEND_KEY))
+                .andExpect(status().isNoContent()));
+
+        sessions(old).andExpect(status().isUnauthorized());
+        refresh(old.get("refreshToken").asText()).andExpect(status().isUnauthorized());
+
+        // Published in commit order; other transactions of the running app can hold it back briefly.
+        JsonNode delta = null;
+        for (long deadline = System.nanoTime() + 5_000_000_000L; System.nanoTime() < deadline; Thread.sleep(100)) {
+            delta = MAPPER.readTree(mockMvc.perform(get("/auth/revocations/watermarks").header("X-Backend-Key", BACKEND_KEY))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            if (delta.findValuesAsText("sub").contains(sub)) break;
+        }
+        assertTrue(delta.findValuesAsText("sub").contains(sub));
+        assertTrue(delta.get("cursor").asLong() > 0);
+    }
+
+    @Test
+    void refresh_isRejectedByAWatermarkThisInstanceHasNotSynced() throws Exception {
+        JsonNode tokens = registerAccount("watermark");
+        // As if written by another instance: committed, but not yet applied in memory here.
+        jdbc.update("INSERT INTO token_watermark (account_id, not_before) VALUES (?, NOW())",
+                UUID.fromString(subOf(tokens.get("accessToken").asText())));
+
+        refresh(tokens.get("refreshToken").asText()).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void globalEpoch_rejectsEveryEarlierToken_butNotLaterOnes() throws Exception {
+        JsonNode first = registerAccount("watermark");
+        JsonNode second = registerAccount("watermark");
+
+        mockMvc.perform(post("/auth/revocations/watermarks/global").header("X-Admin-Key", ADMIN_KEY))
+                .andExpect(status().isNoContent());
+
+        sessions(first).andExpect(status().isUnauthorized());
+        sessions(second).andExpect(status().isUnauthorized());
+        refresh(second.get("refreshToken").asText()).andExpect(status().isUnauthorized());
+        sessions(registerAccount("watermark")).andExpect(status().isOk());
+    }
+
+    @Test
+    void watermarks_requireBackendKey_andTheGlobalEpochAnAdminKey() throws Exception {
+        mockMvc.perform(get("/auth/revocations/watermarks")).andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/auth/revocations/watermarks/global")).andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/auth/revocations/watermarks/global").header("X-Backend-Key", BACKEND_KEY))
+                .andExpect(status().isForbidden());
+    }
+
+    private static String subOf(String jwt) throws Exception {
+        String payload = new String(Base64.getUrlDecoder().decode(jwt.split("\\.")[1]), StandardCharsets.UTF_8);
+        return MAPPER.readTree(payload).get("sub").asText();
+    }
+
+    private ResultActions sessions(JsonNode tokens) throws Exception {
+        return mockMvc.perform(get("/auth/sessions")
+                .header("Authorization", "Bearer " + tokens.get("accessToken").asText()));
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{ \"refreshToken\":\"%s\" }".formatted(refreshToken)));
+    }
+}
@@ -0,0 +1,37 @@
+package io.fortalis.fortalisauth.it;
+
+import io.fortalis.fortalisauth.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class UuidV7IntegrationTest extends BaseIntegrationTest {
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private AccountService accounts;
+
+    @Test
+    void newAccounts_getVersion7Ids() {
+        var account = accounts.register("v7+" + UUID.randomUUID() + "@itest.local", "Str0ngPass!", "Seven");
+
+        assertEquals(7, account.getId().version());
+        UUID identityId = jdbc.queryForObject("SELECT id FROM account_identity WHERE account_id = ?", UUID.class, account.getId());
+        assertEquals(7, identityId.version());
+    }
+
+    @Test
+    void databaseDefault_generatesVersion7_inTimeOrder() throws InterruptedException {
+        UUID first = jdbc.queryForObject("SELECT uuid_generate_v7()", UUID.class);
+        Thread.sleep(2);
+        UUID second = jdbc.queryForObject("SELECT uuid_generate_v7()", UUID.class);
+
+        assertEquals(7, first.version());
+        assertEquals(2, first.variant());
+        assertEquals(Boolean.TRUE, jdbc.queryForObject("SELECT CAST(? AS uuid) < CAST(? AS uuid)", Boolean.class, first, second));
+    }
+}
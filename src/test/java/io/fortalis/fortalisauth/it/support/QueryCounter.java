@@ -0,0 +1,139 @@
+package io.fortalis.fortalisauth.it.support;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Set;
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts JDBC work done on the calling thread while a block runs, so tests can put a
+ * budget on what an endpoint costs the database. MockMvc dispatches on the test thread;
+ * scheduled jobs and other background threads are never counted.
+ * <p>
+ * statements: SQL statements sent, each batched row counting once.
+ * roundTrips: execute/executeBatch calls plus commits and rollbacks.
+ */
+public final class QueryCounter {
+    public record Counts(int statements, int roundTrips) {
+    }
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    private static final class Tally {
+        int statements;
+        int roundTrips;
+    }
+
+    private static final Set<String> EXECUTE = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate");
+    private static final Set<String> EXECUTE_BATCH = Set.of("executeBatch", "executeLargeBatch");
+    private static final Set<String> PREPARE = Set.of("createStatement", "prepareStatement", "prepareCall");
+
+    private static final ThreadLocal<Tally> CURRENT = new ThreadLocal<>();
+
+    private QueryCounter() {}
+
+    public static Counts measure(Action action) throws Exception {
+        Tally outer = CURRENT.get();
+        Tally tally = new Tally();
+        CURRENT.set(tally);
+        try {
+            action.run();
+        } finally {
+            CURRENT.set(outer);
+            if (outer != null) {
+                outer.statements += tally.statements;
+                outer.roundTrips += tally.roundTrips;
+            }
+        }
+        return new Counts(tally.statements, tally.roundTrips);
+    }
+
+    /**
+     * Runs the action and fails if it sent more than {@code maxStatements} SQL statements.
+     */
+    public static Counts assertStatementsAtMost(int maxStatements, Action action) throws Exception {
+        Counts counts = measure(action);
+        assertTrue(counts.statements() <= maxStatements,
+                () -> "Expected at most %d statements but saw %s".formatted(maxStatements, counts));
+        return counts;
+    }
+
+    /**
+     * Runs the action and fails if it needed more than {@code maxRoundTrips} database round trips.
+     */
+    public static Counts assertRoundTripsAtMost(int maxRoundTrips, Action action) throws Exception {
+        Counts counts = measure(action);
+        assertTrue(counts.roundTrips() <= maxRoundTrips,
+                () -> "Expected at most %d round trips but saw %s".formatted(maxRoundTrips, counts));
+        return counts;
+    }
+
+    public static DataSource wrap(DataSource dataSource) {
+        // Keep close() visible so the pool is still shut down with the context.
+        Class<?>[] extra = dataSource instanceof AutoCloseable ? new Class<?>[]{AutoCloseable.class} : new Class<?>[0];
+        return (DataSource) proxy(DataSource.class, dataSource, (method, result) ->
+                method.getName().equals("getConnection") ? wrapConnection((Connection) result) : result, extra);
+    }
+
+    private static Connection wrapConnection(Connection connection) {
+        return (Connection) proxy(Connection.class, connection, (method, result) -> {
+            String name = method.getName();
+            if (name.equals("commit") || name.equals("rollback")) {
+                count(0, 1);
+            } else if (PREPARE.contains(name)) {
+                return wrapStatement((Statement) result);
+            }
+            return result;
+        });
+    }
+
+    private static Statement wrapStatement(Statement statement) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        return (Statement) proxy(type, statement, (method, result) -> {
+            String name = method.getName();
+            if (EXECUTE.contains(name)) count(1, 1);
+            else if (name.equals("addBatch")) count(1, 0);
+            else if (EXECUTE_BATCH.contains(name)) count(0, 1);
+            return result;
+        });
+    }
+
+    private static void count(int statements, int roundTrips) {
+        Tally tally = CURRENT.get();
+        if (tally == null) return;
+        tally.statements += statements;
+        tally.roundTrips += roundTrips;
+    }
+
+    private interface AfterCall {
+        Object apply(Method method, Object result);
+    }
+
+    private static Object proxy(Class<?> type, Object target, AfterCall after, Class<?>... extra) {
+        InvocationHandler handler = (p, method, args) -> {
+            try {
+                return after.apply(method, method.invoke(target, args));
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        Class<?>[] types = new Class<?>[extra.length + 1];
+        types[0] = type;
+        System.arraycopy(extra, 0, types, 1, extra.length);
+        return Proxy.newProxyInstance(QueryCounter.class.getClassLoader(), types, handler);
+    }
+}
@@ -0,0 +1,65 @@
+package io.fortalis.fortalisauth.jfr;
+
+import io.fortalis.fortalisauth.config.AuthMetrics;
+import io.fortalis.fortalisauth.service.RateLimiterService;
+import io.fortalis.fortalisauth.web.RateLimitExceededException;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthPhaseEventTest {
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    void forPhase_mapsKnownPhasesOnly() {
+        assertInstanceOf(JwtSignEvent.class, AuthPhaseEvent.forPhase("jwt_sign"));
+        assertInstanceOf(TotpVerifyEvent.class, AuthPhaseEvent.forPhase("mfa_verify"));
+        assertNull(AuthPhaseEvent.forPhase("challenge_create"));
+    }
+
+    @Test
+    void phase_emitsEventWithOutcome_whileRecording() throws Exception {
+        var metrics = AuthMetrics.noop();
+
+        List<RecordedEvent> events = record(() -> metrics.phase("password_verify", () -> false, ok -> ok));
+
+        var verify = events.stream().filter(e -> e.getEventType().getName().equals("io.fortalis.auth.PasswordVerify")).toList();
+        assertEquals(1, verify.size());
+        assertEquals(AuthMetrics.REJECTED, verify.getFirst().getString("outcome"));
+    }
+
+    @Test
+    void rateLimitRejection_emitsEventWithScopeOnly() throws Exception {
+        var limiter = new RateLimiterService(AuthMetrics.noop());
+
+        List<RecordedEvent> events = record(() -> {
+            limiter.checkAndConsume("login:someone@example.com", 1, 60);
+            assertThrows(RateLimitExceededException.class, () -> limiter.checkAndConsume("login:someone@example.com", 1, 60));
+        });
+
+        var rejected = events.stream().filter(e -> e.getEventType().getName().equals("io.fortalis.auth.RateLimitRejected")).toList();
+        assertEquals(1, rejected.size());
+        assertEquals("login", rejected.getFirst().getString("scope"));
+    }
+
+    private List<RecordedEvent> record(Runnable body) throws Exception {
+        Path file = tmp.resolve("test.jfr");
+        try (var recording = new Recording()) {
+            JfrRecordingEndpoint.AUTH_EVENTS.forEach(recording::enable);
+            recording.start();
+            body.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file);
+    }
+}
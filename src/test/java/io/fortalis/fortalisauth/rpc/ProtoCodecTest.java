@@ -0,0 +1,128 @@
+package io.fortalis.fortalisauth.rpc;
+
+import io.fortalis.fortalisauth.web.ApiException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProtoCodecTest {
+
+    @Test
+    void fields_roundTrip() {
+        UUID id = UUID.randomUUID();
+        byte[] bytes = new ProtoWriter()
+                .uint64(1, 300)
+                .bool(2, true)
+                .string(3, "héllo")
+                .uuid(4, id)
+                .uint64(5, Long.MAX_VALUE)
+                .toByteArray();
+
+        var in = new ProtoReader(bytes);
+        assertEquals(1, in.nextField());
+        assertEquals(300, in.uint64());
+        assertEquals(2, in.nextField());
+        assertTrue(in.bool());
+        assertEquals(3, in.nextField());
+        assertEquals("héllo", in.string());
+        assertEquals(4, in.nextField());
+        assertEquals(id, in.uuid());
+        assertEquals(5, in.nextField());
+        assertEquals(Long.MAX_VALUE, in.uint64());
+        assertEquals(0, in.nextField());
+    }
+
+    @Test
+    void matchesProtobufEncoding() {
+        // Field 1 = 150 is the classic protobuf example: 08 96 01.
+        assertArrayEquals(new byte[]{0x08, (byte) 0x96, 0x01}, new ProtoWriter().uint64(1, 150).toByteArray());
+        // Field 2 = "testing": 12 07 74 65 73 74 69 6e 67.
+        assertArrayEquals(new byte[]{0x12, 0x07, 't', 'e', 's', 't', 'i', 'n', 'g'},
+                new ProtoWriter().string(2, "testing").toByteArray());
+    }
+
+    @Test
+    void defaultValues_areNotWritten() {
+        assertEquals(0, new ProtoWriter().uint64(1, 0).bool(2, false).string(3, "").string(4, null).uuid(5, null).size());
+    }
+
+    @Test
+    void unknownFields_areSkipped() {
+        var nested = new ProtoWriter().string(1, "inner");
+        byte[] bytes = new ProtoWriter()
+                .uint64(7, 42)
+                .message(8, nested)
+                .string(1, "known")
+                .toByteArray();
+
+        var in = new ProtoReader(bytes);
+        String known = null;
+        for (int field; (field = in.nextField()) != 0; ) {
+            if (field == 1) known = in.string();
+            else in.skip();
+        }
+        assertEquals("known", known);
+    }
+
+    @Test
+    void truncatedMessage_isMalformed() {
+        byte[] bytes = new ProtoWriter().string(1, "truncated").toByteArray();
+        var in = new ProtoReader(Arrays.copyOf(bytes, bytes.length - 2));
+
+        assertEquals(1, in.nextField());
+        var e = assertThrows(ApiException.class, in::string);
+        assertEquals("rpc_malformed", e.type);
+    }
+
+    @Test
+    void delimitedFrames_roundTrip_andCleanEndIsNull() throws Exception {
+        var out = new ByteArrayOutputStream();
+        new ProtoWriter().string(1, "a").writeDelimitedTo(out);
+        new ProtoWriter().string(1, "b".repeat(200)).writeDelimitedTo(out); // two-byte length prefix
+
+        var in = new ByteArrayInputStream(out.toByteArray());
+        assertEquals(3, ProtoReader.readDelimited(in, 1024).length);
+        assertEquals(203, ProtoReader.readDelimited(in, 1024).length);
+        assertNull(ProtoReader.readDelimited(in, 1024));
+    }
+
+    @Test
+    void oversizedFrame_isRejectedBeforeReading() throws Exception {
+        var out = new ByteArrayOutputStream();
+        new ProtoWriter().string(1, "x".repeat(100)).writeDelimitedTo(out);
+
+        var e = assertThrows(ApiException.class,
+                () -> ProtoReader.readDelimited(new ByteArrayInputStream(out.toByteArray()), 64));
+        assertEquals("rpc_malformed", e.type);
+    }
+
+    @Test
+    void stream_answersEveryMessageInOrder() throws Exception {
+        var requests = new ByteArrayOutputStream();
+        for (long i = 1; i <= 3; i++) new ProtoWriter().uint64(1, i).writeDelimitedTo(requests);
+        var responses = new ByteArrayOutputStream();
+
+        int served = RpcStream.serve(new ByteArrayInputStream(requests.toByteArray()), responses, 1024, (req, res) -> {
+            req.nextField();
+            res.uint64(1, req.uint64() * 10);
+        });
+
+        assertEquals(3, served);
+        var in = new ByteArrayInputStream(responses.toByteArray());
+        List<Long> answers = new ArrayList<>();
+        byte[] message;
+        while ((message = ProtoReader.readDelimited(in, 1024)) != null) {
+            var reader = new ProtoReader(message);
+            reader.nextField();
+            answers.add(reader.uint64());
+        }
+        assertEquals(List.of(10L, 20L, 30L), answers);
+    }
+}
@@ -0,0 +1,104 @@
+package io.fortalis.fortalisauth.service;
+
+import io.fortalis.fortalisauth.dto.AccountImportRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountImportReaderTest {
+    private final JsonMapper json = JsonMapper.builder().build();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void jsonl_readsRecordsAndFlagsMalformedLines() throws IOException {
+        Path file = write("accounts.jsonl", """
+                {"email":"a@legacy.test","username":"Alpha","passwordHash":"$2a$10$x","createdTs":"2019-04-01T10:00:00Z","identities":[{"provider":"google","subject":"g-1"}]}
+
+                {not json
+                {"email":"b@legacy.test","emailVerified":true,"someLegacyField":42}
+                """);
+
+        try (var reader = AccountImportReader.open(file, json)) {
+            var first = reader.next();
+            assertEquals(1, first.number());
+            assertEquals("Alpha", first.record().username());
+            assertEquals(Instant.parse("2019-04-01T10:00:00Z"), first.record().createdTs());
+            assertEquals(List.of(new AccountImportRecord.Identity("google", "g-1")), first.record().identities());
+
+            var malformed = reader.next();
+            assertEquals(2, malformed.number(), "blank lines are not counted");
+            assertNull(malformed.record());
+
+            var third = reader.next();
+            assertEquals("b@legacy.test", third.record().email());
+            assertTrue(third.record().emailVerified());
+            assertEquals(List.of(), third.record().identities());
+
+            assertNull(reader.next());
+            assertEquals(3, reader.position());
+        }
+    }
+
+    @Test
+    void csv_mapsColumnsByHeaderAndHandlesQuotes() throws IOException {
+        Path file = write("accounts.csv", """
+                email,display_name,password_hash,identities,email_verified
+                c@legacy.test,"Smith, ""Jr""\",pbkdf2_sha256$1000$salt$aGFzaA==,google:g-2|apple:a-2,t
+                d@legacy.test,,,,
+                """);
+
+        try (var reader = AccountImportReader.open(file, json)) {
+            var c = reader.next().record();
+            assertEquals("Smith, \"Jr\"", c.displayName());
+            assertEquals("pbkdf2_sha256$1000$salt$aGFzaA==", c.passwordHash());
+            assertEquals(2, c.identities().size());
+            assertTrue(c.emailVerified());
+            assertNull(c.username());
+
+            var d = reader.next().record();
+            assertNull(d.displayName());
+            assertNull(d.passwordHash());
+            assertNull(d.emailVerified());
+        }
+    }
+
+    @Test
+    void skip_resumesAfterCommittedRecords_inGzippedInput() throws IOException {
+        Path file = dir.resolve("accounts.jsonl.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            for (int i = 1; i <= 5; i++) {
+                out.write(("{\"email\":\"user" + i + "@legacy.test\"}\n").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        try (var reader = AccountImportReader.open(file, json)) {
+            reader.skip(3);
+            var row = reader.next();
+            assertEquals(4, row.number());
+            assertEquals("user4@legacy.test", row.record().email());
+        }
+    }
+
+    @Test
+    void open_rejectsUnknownExtension() throws IOException {
+        Path file = write("accounts.xml", "<accounts/>");
+        assertThrows(IllegalArgumentException.class, () -> AccountImportReader.open(file, json));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(dir.resolve(name), content);
+    }
+}
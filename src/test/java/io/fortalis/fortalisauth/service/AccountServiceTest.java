@@ -0,0 +1,30 @@
+package io.fortalis.fortalisauth.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountServiceTest {
+
+    @Test
+    void storedFormOfLegacyHash_prefixesForeignFormatsAndKeepsArgon2Native() {
+        assertEquals("{bcrypt}$2y$10$abc", AccountService.storedFormOfLegacyHash("$2y$10$abc"));
+        assertEquals("{bcrypt}$2a$10$abc", AccountService.storedFormOfLegacyHash("{bcrypt}$2a$10$abc"));
+        assertEquals("{pbkdf2}pbkdf2_sha256$1000$s$h", AccountService.storedFormOfLegacyHash("pbkdf2_sha256$1000$s$h"));
+        assertEquals("$argon2id$v=19$m=16384,t=2,p=1$s$h", AccountService.storedFormOfLegacyHash("{argon2}$argon2id$v=19$m=16384,t=2,p=1$s$h"));
+        assertNull(AccountService.storedFormOfLegacyHash("5f4dcc3b5aa765d61d8327deb882cf99"));
+        assertNull(AccountService.storedFormOfLegacyHash(" "));
+    }
+
+    @Test
+    void needsUpgrade_onlyForLegacyOrWeakerHashes() {
+        var service = new AccountService(null, null, null);
+        String current = Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8().encode("Str0ngPass!");
+        String weaker = new Argon2PasswordEncoder(16, 32, 1, 4096, 1).encode("Str0ngPass!");
+
+        assertFalse(service.needsUpgrade(current));
+        assertTrue(service.needsUpgrade(weaker));
+        assertTrue(service.needsUpgrade("{bcrypt}$2a$10$abc"));
+    }
+}
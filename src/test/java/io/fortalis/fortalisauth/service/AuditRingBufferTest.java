@@ -0,0 +1,80 @@
+package io.fortalis.fortalisauth.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditRingBufferTest {
+
+    @Test
+    void offer_whenFull_returnsFalseInsteadOfBlocking() {
+        var buffer = new AuditRingBuffer<Integer>(4);
+
+        for (int i = 0; i < 4; i++) assertTrue(buffer.offer(i));
+
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+    }
+
+    @Test
+    void drain_returnsItemsInOrder_andFreesSlots() {
+        var buffer = new AuditRingBuffer<Integer>(4);
+        for (int i = 0; i < 4; i++) buffer.offer(i);
+
+        var out = new ArrayList<Integer>();
+        assertEquals(3, buffer.drain(out::add, 3));
+        assertEquals(List.of(0, 1, 2), out);
+
+        assertTrue(buffer.offer(4));
+        assertTrue(buffer.offer(5));
+        buffer.drain(out::add, 10);
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), out);
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void constructor_rejectsNonPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new AuditRingBuffer<Integer>(6));
+    }
+
+    @Test
+    void concurrentProducers_loseNothingThatWasAccepted() throws Exception {
+        var buffer = new AuditRingBuffer<Integer>(1024);
+        int producers = 4;
+        int perProducer = 10_000;
+        var accepted = new AtomicInteger();
+        var start = new CountDownLatch(1);
+        var threads = new ArrayList<Thread>();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) Thread.onSpinWait();
+                    accepted.incrementAndGet();
+                }
+            }));
+        }
+
+        Set<Integer> seen = new HashSet<>();
+        start.countDown();
+        while (seen.size() < producers * perProducer) {
+            buffer.drain(item -> assertTrue(seen.add(item), "duplicate " + item), 256);
+        }
+        for (Thread t : threads) t.join();
+
+        assertEquals(producers * perProducer, accepted.get());
+        assertEquals(0, buffer.size());
+    }
+}
@@ -0,0 +1,55 @@
+package io.fortalis.fortalisauth.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommitOrderPageTest {
+
+    private record Row(long txid, int n) {
+    }
+
+    @Test
+    void emptyPage_keepsTheCursor() {
+        var page = CommitOrderPage.of(41, 3, List.<Row>of(), Row::txid, tx -> fail("no rows to complete"));
+
+        assertEquals(41, page.cursor());
+        assertFalse(page.hasMore());
+    }
+
+    @Test
+    void partialPage_endsAtItsLastTransaction() {
+        var page = CommitOrderPage.of(0, 3, List.of(new Row(5, 1), new Row(7, 2)), Row::txid, tx -> fail("not full"));
+
+        assertEquals(7, page.cursor());
+        assertFalse(page.hasMore());
+        assertEquals(2, page.rows().size());
+    }
+
+    @Test
+    void fullPage_isCutBackToWholeTransactions() {
+        var rows = List.of(new Row(5, 1), new Row(6, 2), new Row(8, 3), new Row(8, 4));
+
+        var page = CommitOrderPage.of(0, 4, rows, Row::txid, tx -> fail("more than one transaction"));
+
+        assertEquals(6, page.cursor(), "txid 8 may have more rows beyond the limit");
+        assertTrue(page.hasMore());
+        assertEquals(List.of(new Row(5, 1), new Row(6, 2)), page.rows());
+    }
+
+    @Test
+    void fullPageOfOneTransaction_isCompletedWithAllOfIt() {
+        var all = List.of(new Row(9, 1), new Row(9, 2), new Row(9, 3));
+
+        var page = CommitOrderPage.of(0, 2, all.subList(0, 2), Row::txid, tx -> {
+            assertEquals(9, tx);
+            return all;
+        });
+
+        assertEquals(9, page.cursor());
+        assertTrue(page.hasMore());
+        assertEquals(all, page.rows());
+    }
+}
@@ -1,5 +1,6 @@
 package io.fortalis.fortalisauth.service;
 
+import io.fortalis.fortalisauth.config.AuthMetrics;
 import io.fortalis.fortalisauth.entity.Account;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,7 +17,7 @@ class LoginChallengeServiceTest {
 
     @BeforeEach
     void setUp() {
-        challengeService = new LoginChallengeService();
+        challengeService = new LoginChallengeService(AuthMetrics.noop());
     }
 
     @Test
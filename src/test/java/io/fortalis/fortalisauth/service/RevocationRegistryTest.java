@@ -0,0 +1,84 @@
+package io.fortalis.fortalisauth.service;
+
+import io.fortalis.fortalisauth.config.AuthJwtProperties;
+import io.fortalis.fortalisauth.event.SessionRevokedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class RevocationRegistryTest {
+
+    private RevocationRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        var props = new AuthJwtProperties();
+        props.setAccessTtl(Duration.ofMinutes(15));
+        registry = new RevocationRegistry(props, mock(RevocationFeedService.class));
+    }
+
+    @Test
+    void isRevoked_returnsFalse_forUnknownOrNullJti() {
+        assertFalse(registry.isRevoked(UUID.randomUUID().toString()));
+        assertFalse(registry.isRevoked(null));
+    }
+
+    @Test
+    void revoke_makesJtiRevokedUntilExpiry() {
+        var jti = UUID.randomUUID().toString();
+
+        registry.revoke(jti, Instant.now().plusSeconds(60));
+
+        assertTrue(registry.isRevoked(jti));
+    }
+
+    @Test
+    void revoke_withPastExpiry_isIgnored() {
+        var jti = UUID.randomUUID().toString();
+
+        registry.revoke(jti, Instant.now().minusSeconds(1));
+
+        assertFalse(registry.isRevoked(jti));
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void onSessionRevoked_revokesSessionIdAsJti() {
+        var sessionId = UUID.randomUUID();
+
+        registry.onSessionRevoked(new SessionRevokedEvent(UUID.randomUUID(), sessionId));
+
+        assertTrue(registry.isRevoked(sessionId.toString()));
+    }
+
+    @Test
+    void revoke_manyEntries_keepsAllRevokedAcrossFilterRebuilds() {
+        var until = Instant.now().plusSeconds(60);
+        var jtis = new java.util.ArrayList<String>();
+        for (int i = 0; i < 40_000; i++) {
+            var jti = UUID.randomUUID().toString();
+            jtis.add(jti);
+            registry.revoke(jti, until);
+        }
+
+        assertTrue(jtis.stream().allMatch(registry::isRevoked), "No false negatives allowed");
+        assertFalse(registry.isRevoked(UUID.randomUUID().toString()));
+    }
+
+    @Test
+    void purgeExpired_keepsLiveEntries() {
+        var live = UUID.randomUUID().toString();
+        registry.revoke(live, Instant.now().plusSeconds(60));
+
+        registry.purgeExpired();
+
+        assertTrue(registry.isRevoked(live));
+        assertEquals(1, registry.size());
+    }
+}
@@ -0,0 +1,106 @@
+package io.fortalis.fortalisauth.service;
+
+import io.fortalis.fortalisauth.config.AuthJwtProperties;
+import io.fortalis.fortalisauth.entity.UuidV7;
+import io.fortalis.fortalisauth.event.TokensRevokedBeforeEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class TokenWatermarkServiceTest {
+
+    private TokenWatermarkService watermarks;
+
+    @BeforeEach
+    void setUp() {
+        watermarks = new TokenWatermarkService(mock(JdbcTemplate.class), new AuthJwtProperties(),
+                mock(ApplicationEventPublisher.class));
+    }
+
+    @Test
+    void withoutWatermarks_nothingIsRevoked() {
+        var account = UUID.randomUUID();
+
+        assertEquals(Instant.EPOCH, watermarks.notBefore(account));
+        assertFalse(watermarks.isRevoked(jwt(account, UuidV7.next(), Instant.now())));
+    }
+
+    @Test
+    void accountWatermark_revokesOnlyThatAccountsEarlierSessions() throws Exception {
+        var account = UUID.randomUUID();
+        var before = UuidV7.next();
+        Thread.sleep(2);
+        watermarks.apply(account, Instant.now().truncatedTo(ChronoUnit.MILLIS));
+        Thread.sleep(2);
+        var after = UuidV7.next();
+
+        assertTrue(watermarks.isRevoked(jwt(account, before, Instant.now())));
+        assertFalse(watermarks.isRevoked(jwt(account, after, Instant.now())));
+        assertFalse(watermarks.isRevoked(jwt(UUID.randomUUID(), before, Instant.now())));
+    }
+
+    @Test
+    void globalEpoch_appliesToEveryAccount() {
+        var session = UuidV7.next();
+        watermarks.apply(TokenWatermarkService.GLOBAL, Instant.now().plusSeconds(1));
+
+        assertTrue(watermarks.isRevoked(jwt(UUID.randomUUID(), session, Instant.now())));
+        assertTrue(watermarks.isRevoked(UUID.randomUUID(), Instant.now()));
+    }
+
+    @Test
+    void localRevocation_isAppliedFromItsEvent() {
+        var account = UUID.randomUUID();
+        var notBefore = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+        watermarks.onTokensRevokedBefore(new TokensRevokedBeforeEvent(account, notBefore));
+        assertEquals(notBefore, watermarks.notBefore(account));
+
+        watermarks.onTokensRevokedBefore(new TokensRevokedBeforeEvent(null, notBefore.plusSeconds(1)));
+        assertEquals(notBefore.plusSeconds(1), watermarks.notBefore(UUID.randomUUID()));
+    }
+
+    @Test
+    void watermarks_neverMoveBackwards() {
+        var account = UUID.randomUUID();
+        var later = Instant.now().plusSeconds(60);
+
+        watermarks.apply(account, later);
+        watermarks.apply(account, later.minusSeconds(30));
+        watermarks.apply(TokenWatermarkService.GLOBAL, later);
+        watermarks.apply(TokenWatermarkService.GLOBAL, later.minusSeconds(30));
+
+        assertEquals(later, watermarks.notBefore(account));
+        assertEquals(later, watermarks.notBefore(UUID.randomUUID()));
+    }
+
+    @Test
+    void tokenWithoutSessionJti_isJudgedByIatAtSecondResolution() {
+        var account = UUID.randomUUID();
+        var notBefore = Instant.parse("2026-01-01T12:00:00.500Z");
+        watermarks.apply(account, notBefore);
+
+        assertTrue(watermarks.isRevoked(jwt(account, null, Instant.parse("2026-01-01T11:59:59Z"))));
+        assertFalse(watermarks.isRevoked(jwt(account, null, Instant.parse("2026-01-01T12:00:00Z"))),
+                "a token minted in the watermark's second cannot be told apart and is kept");
+    }
+
+    private static Jwt jwt(UUID subject, UUID jti, Instant issuedAt) {
+        var builder = Jwt.withTokenValue("t")
+                .header("alg", "RS256")
+                .subject(subject.toString())
+                .issuedAt(issuedAt)
+                .expiresAt(issuedAt.plusSeconds(900));
+        if (jti != null) builder.jti(jti.toString());
+        return builder.build();
+    }
+}